@@ -0,0 +1,29 @@
+package com.yvolabs.streamapi.annotations;
+
+import com.yvolabs.streamapi.util.ReleaseDates;
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+
+/**
+ * @author Yvonne N
+ */
+public class ReleaseDateValidator implements ConstraintValidator<ValidateReleaseDate, String> {
+    private boolean standalone;
+
+    @Override
+    public void initialize(ValidateReleaseDate constraint) {
+        standalone = constraint.standalone();
+    }
+
+    @Override
+    public boolean isValid(String value, ConstraintValidatorContext context) {
+        if (standalone) {
+            return value == null || value.isBlank() || ReleaseDates.tryParse(value).isPresent();
+        }
+        // missing and too short values are reported by the required/length constraints of the field
+        if (value == null || value.length() < 3) {
+            return true;
+        }
+        return ReleaseDates.tryParse(value).isPresent();
+    }
+}
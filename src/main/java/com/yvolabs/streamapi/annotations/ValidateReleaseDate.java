@@ -0,0 +1,24 @@
+package com.yvolabs.streamapi.annotations;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.Payload;
+
+import java.lang.annotation.*;
+
+/**
+ * @author Yvonne N
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.PARAMETER})
+@Constraint(validatedBy = ReleaseDateValidator.class)
+public @interface ValidateReleaseDate {
+    String message() default "must be a date formatted as dd-MM-yyyy";
+
+    // the field has no required/length constraints of its own, blank means absent and anything else has to parse
+    boolean standalone() default false;
+
+    Class<?>[] groups() default {};
+
+    Class<? extends Payload>[] payload() default {};
+}
@@ -0,0 +1,91 @@
+package com.yvolabs.streamapi.codec;
+
+import com.yvolabs.streamapi.util.ReleaseDates;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.types.ObjectId;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Field readers and writers shared by the entity codecs, they accept the same stored layouts as the mapping converter
+ *
+ * @author Yvonne N
+ */
+final class BsonValues {
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    private BsonValues() {
+    }
+
+    // the driver LocalDate codec stores UTC midnight, movies not yet migrated still hold dd-MM-yyyy strings
+    static LocalDate readLocalDate(BsonReader reader) {
+        if (reader.getCurrentBsonType() == BsonType.STRING) {
+            return ReleaseDates.tryParse(reader.readString()).orElse(null);
+        }
+        return LocalDate.ofInstant(Instant.ofEpochMilli(reader.readDateTime()), ZoneOffset.UTC);
+    }
+
+    static void writeLocalDate(BsonWriter writer, String name, LocalDate date) {
+        writer.writeDateTime(name, date.toEpochDay() * MILLIS_PER_DAY);
+    }
+
+    static Instant readInstant(BsonReader reader) {
+        return Instant.ofEpochMilli(reader.readDateTime());
+    }
+
+    // @Version fields are written as int64 by spring data, but $inc from the shell or older writes may leave int32
+    static Long readLong(BsonReader reader) {
+        return switch (reader.getCurrentBsonType()) {
+            case INT32 -> (long) reader.readInt32();
+            case DOUBLE -> (long) reader.readDouble();
+            default -> reader.readInt64();
+        };
+    }
+
+    static List<String> readStrings(BsonReader reader) {
+        List<String> values = new ArrayList<>();
+        reader.readStartArray();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            values.add(reader.readString());
+        }
+        reader.readEndArray();
+        return values;
+    }
+
+    static List<ObjectId> readObjectIds(BsonReader reader) {
+        List<ObjectId> values = new ArrayList<>();
+        reader.readStartArray();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            values.add(reader.readObjectId());
+        }
+        reader.readEndArray();
+        return values;
+    }
+
+    static void writeStrings(BsonWriter writer, String name, List<String> values) {
+        writer.writeStartArray(name);
+        values.forEach(writer::writeString);
+        writer.writeEndArray();
+    }
+
+    static void writeObjectIds(BsonWriter writer, String name, List<ObjectId> values) {
+        writer.writeStartArray(name);
+        values.forEach(writer::writeObjectId);
+        writer.writeEndArray();
+    }
+
+    // true when the value was null and has been consumed, the field then stays unset
+    static boolean skipNull(BsonReader reader) {
+        if (reader.getCurrentBsonType() == BsonType.NULL) {
+            reader.readNull();
+            return true;
+        }
+        return false;
+    }
+}
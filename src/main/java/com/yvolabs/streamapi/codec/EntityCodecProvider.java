@@ -0,0 +1,41 @@
+package com.yvolabs.streamapi.codec;
+
+import com.yvolabs.streamapi.model.Movie;
+import com.yvolabs.streamapi.model.Review;
+import com.yvolabs.streamapi.model.StreamUser;
+import org.bson.codecs.Codec;
+import org.bson.codecs.configuration.CodecConfigurationException;
+import org.bson.codecs.configuration.CodecProvider;
+import org.bson.codecs.configuration.CodecRegistry;
+
+import java.util.Map;
+
+/**
+ * Hands the entity codecs to the driver, see CodecConfiguration
+ *
+ * @author Yvonne N
+ */
+public class EntityCodecProvider implements CodecProvider {
+    private static final Map<Class<?>, Codec<?>> CODECS = Map.of(
+            Movie.class, new MovieCodec(),
+            Review.class, new ReviewCodec(),
+            StreamUser.class, new StreamUserCodec());
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> Codec<T> get(Class<T> clazz, CodecRegistry registry) {
+        return (Codec<T>) CODECS.get(clazz);
+    }
+
+    // whether reads of type through a collection with this registry decode with an entity codec
+    public static boolean isRegistered(CodecRegistry registry, Class<?> type) {
+        if (!CODECS.containsKey(type)) {
+            return false;
+        }
+        try {
+            return registry.get(type) == CODECS.get(type);
+        } catch (CodecConfigurationException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.yvolabs.streamapi.codec;
+
+import com.yvolabs.streamapi.model.Movie;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+/**
+ * Reads and writes movies field by field, without the reflection and intermediate Document of the mapping converter.
+ * Uses the stored layout of the mapping converter, unknown fields (and _class) are skipped.
+ *
+ * @author Yvonne N
+ */
+public class MovieCodec implements Codec<Movie> {
+
+    @Override
+    public Movie decode(BsonReader reader, DecoderContext decoderContext) {
+        Movie movie = new Movie();
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            String name = reader.readName();
+            if (BsonValues.skipNull(reader)) {
+                continue;
+            }
+            switch (name) {
+                case "_id" -> movie.setId(reader.readObjectId());
+                case "title" -> movie.setTitle(reader.readString());
+                case "description" -> movie.setDescription(reader.readString());
+                case "releaseDate" -> movie.setReleaseDate(BsonValues.readLocalDate(reader));
+                case "genres" -> movie.setGenres(BsonValues.readStrings(reader));
+                case "reviewsIds" -> movie.setReviewsIds(BsonValues.readObjectIds(reader));
+                case "createdAt" -> movie.setCreatedAt(BsonValues.readInstant(reader));
+                case "updatedAt" -> movie.setUpdatedAt(BsonValues.readInstant(reader));
+                case "version" -> movie.setVersion(BsonValues.readLong(reader));
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+
+        return movie;
+    }
+
+    // reviews are @Transient and never stored
+    @Override
+    public void encode(BsonWriter writer, Movie movie, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        if (movie.getId() != null) {
+            writer.writeObjectId("_id", movie.getId());
+        }
+        if (movie.getTitle() != null) {
+            writer.writeString("title", movie.getTitle());
+        }
+        if (movie.getDescription() != null) {
+            writer.writeString("description", movie.getDescription());
+        }
+        if (movie.getReleaseDate() != null) {
+            BsonValues.writeLocalDate(writer, "releaseDate", movie.getReleaseDate());
+        }
+        if (movie.getGenres() != null) {
+            BsonValues.writeStrings(writer, "genres", movie.getGenres());
+        }
+        if (movie.getReviewsIds() != null) {
+            BsonValues.writeObjectIds(writer, "reviewsIds", movie.getReviewsIds());
+        }
+        if (movie.getCreatedAt() != null) {
+            writer.writeDateTime("createdAt", movie.getCreatedAt().toEpochMilli());
+        }
+        if (movie.getUpdatedAt() != null) {
+            writer.writeDateTime("updatedAt", movie.getUpdatedAt().toEpochMilli());
+        }
+        if (movie.getVersion() != null) {
+            writer.writeInt64("version", movie.getVersion());
+        }
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public Class<Movie> getEncoderClass() {
+        return Movie.class;
+    }
+}
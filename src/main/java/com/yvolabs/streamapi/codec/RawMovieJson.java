@@ -0,0 +1,132 @@
+package com.yvolabs.streamapi.codec;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.yvolabs.streamapi.util.ReleaseDates;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonValue;
+import org.bson.RawBsonDocument;
+
+import java.io.IOException;
+
+/**
+ * A stored movie written as MovieDto json straight from its BSON bytes, without the entity, the dto or a json tree.
+ * _id becomes the hex id, release dates are formatted like the dto, audit fields, _class and anything unknown are
+ * dropped and reviews are never resolved. Fields missing in the document are written as null like the dto does.
+ *
+ * @author Yvonne N
+ */
+public class RawMovieJson extends JsonSerializable.Base {
+    private static final int ID = 1;
+    private static final int TITLE = 1 << 1;
+    private static final int DESCRIPTION = 1 << 2;
+    private static final int RELEASE_DATE = 1 << 3;
+    private static final int GENRES = 1 << 4;
+    private static final int REVIEWS_IDS = 1 << 5;
+
+    private final RawBsonDocument document;
+
+    public RawMovieJson(RawBsonDocument document) {
+        this.document = document;
+    }
+
+    // the @Version of the document, null before versioning like Movie.getVersion()
+    public static Long versionOf(RawBsonDocument document) {
+        BsonValue version = document.get("version");
+        return version != null && version.isNumber() ? version.asNumber().longValue() : null;
+    }
+
+    @Override
+    public void serialize(JsonGenerator generator, SerializerProvider serializers) throws IOException {
+        int written = 0;
+
+        generator.writeStartObject();
+        try (BsonBinaryReader reader = new BsonBinaryReader(document.getByteBuffer().asNIO())) {
+            reader.readStartDocument();
+            while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+                String name = reader.readName();
+                switch (name) {
+                    case "_id" -> {
+                        generator.writeStringField("id", reader.readObjectId().toHexString());
+                        written |= ID;
+                    }
+                    case "title", "description" -> {
+                        writeString(generator, reader, name);
+                        written |= name.equals("title") ? TITLE : DESCRIPTION;
+                    }
+                    case "releaseDate" -> {
+                        generator.writeStringField(name, BsonValues.skipNull(reader)
+                                ? null
+                                : ReleaseDates.format(BsonValues.readLocalDate(reader)));
+                        written |= RELEASE_DATE;
+                    }
+                    case "genres" -> {
+                        writeArray(generator, reader, name, false);
+                        written |= GENRES;
+                    }
+                    case "reviewsIds" -> {
+                        writeArray(generator, reader, name, true);
+                        written |= REVIEWS_IDS;
+                    }
+                    default -> reader.skipValue();
+                }
+            }
+            reader.readEndDocument();
+        }
+
+        writeNullsForMissing(generator, written);
+        generator.writeEndObject();
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator generator, SerializerProvider serializers, TypeSerializer typeSerializer)
+            throws IOException {
+        serialize(generator, serializers);
+    }
+
+    private static void writeString(JsonGenerator generator, BsonReader reader, String name) throws IOException {
+        generator.writeStringField(name, BsonValues.skipNull(reader) ? null : reader.readString());
+    }
+
+    private static void writeArray(JsonGenerator generator, BsonReader reader, String name, boolean objectIds)
+            throws IOException {
+        generator.writeFieldName(name);
+        if (BsonValues.skipNull(reader)) {
+            generator.writeNull();
+            return;
+        }
+
+        generator.writeStartArray();
+        reader.readStartArray();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            generator.writeString(objectIds ? reader.readObjectId().toHexString() : reader.readString());
+        }
+        reader.readEndArray();
+        generator.writeEndArray();
+    }
+
+    private static void writeNullsForMissing(JsonGenerator generator, int written) throws IOException {
+        if ((written & ID) == 0) {
+            generator.writeNullField("id");
+        }
+        if ((written & TITLE) == 0) {
+            generator.writeNullField("title");
+        }
+        if ((written & DESCRIPTION) == 0) {
+            generator.writeNullField("description");
+        }
+        if ((written & RELEASE_DATE) == 0) {
+            generator.writeNullField("releaseDate");
+        }
+        if ((written & GENRES) == 0) {
+            generator.writeNullField("genres");
+        }
+        if ((written & REVIEWS_IDS) == 0) {
+            generator.writeNullField("reviewsIds");
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.yvolabs.streamapi.codec;
+
+import com.yvolabs.streamapi.model.Review;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+/**
+ * @author Yvonne N
+ */
+public class ReviewCodec implements Codec<Review> {
+
+    @Override
+    public Review decode(BsonReader reader, DecoderContext decoderContext) {
+        Review review = new Review();
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            String name = reader.readName();
+            if (BsonValues.skipNull(reader)) {
+                continue;
+            }
+            switch (name) {
+                case "_id" -> review.setId(reader.readObjectId());
+                case "body" -> review.setBody(reader.readString());
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+
+        return review;
+    }
+
+    @Override
+    public void encode(BsonWriter writer, Review review, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        if (review.getId() != null) {
+            writer.writeObjectId("_id", review.getId());
+        }
+        if (review.getBody() != null) {
+            writer.writeString("body", review.getBody());
+        }
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public Class<Review> getEncoderClass() {
+        return Review.class;
+    }
+}
@@ -0,0 +1,77 @@
+package com.yvolabs.streamapi.codec;
+
+import com.yvolabs.streamapi.model.StreamUser;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+/**
+ * Field names follow the @Field mappings of StreamUser (firstname, lastname)
+ *
+ * @author Yvonne N
+ */
+public class StreamUserCodec implements Codec<StreamUser> {
+
+    @Override
+    public StreamUser decode(BsonReader reader, DecoderContext decoderContext) {
+        StreamUser user = new StreamUser();
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            String name = reader.readName();
+            if (BsonValues.skipNull(reader)) {
+                continue;
+            }
+            switch (name) {
+                case "_id" -> user.setId(reader.readObjectId());
+                case "firstname" -> user.setFirstName(reader.readString());
+                case "lastname" -> user.setLastName(reader.readString());
+                case "email" -> user.setEmail(reader.readString());
+                case "password" -> user.setPassword(reader.readString());
+                case "enabled" -> user.setEnabled(reader.readBoolean());
+                case "roles" -> user.setRoles(reader.readString());
+                case "version" -> user.setVersion(BsonValues.readLong(reader));
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+
+        return user;
+    }
+
+    @Override
+    public void encode(BsonWriter writer, StreamUser user, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        if (user.getId() != null) {
+            writer.writeObjectId("_id", user.getId());
+        }
+        if (user.getFirstName() != null) {
+            writer.writeString("firstname", user.getFirstName());
+        }
+        if (user.getLastName() != null) {
+            writer.writeString("lastname", user.getLastName());
+        }
+        if (user.getEmail() != null) {
+            writer.writeString("email", user.getEmail());
+        }
+        if (user.getPassword() != null) {
+            writer.writeString("password", user.getPassword());
+        }
+        writer.writeBoolean("enabled", user.isEnabled());
+        if (user.getRoles() != null) {
+            writer.writeString("roles", user.getRoles());
+        }
+        if (user.getVersion() != null) {
+            writer.writeInt64("version", user.getVersion());
+        }
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public Class<StreamUser> getEncoderClass() {
+        return StreamUser.class;
+    }
+}
@@ -0,0 +1,14 @@
+package com.yvolabs.streamapi.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Caches are configured under spring.cache, hit/miss/eviction counters are published at /actuator/metrics/cache.*
+ *
+ * @author Yvonne N
+ */
+@Configuration
+@EnableCaching
+public class CacheConfiguration {
+}
@@ -0,0 +1,29 @@
+package com.yvolabs.streamapi.config;
+
+import com.mongodb.MongoClientSettings;
+import com.yvolabs.streamapi.codec.EntityCodecProvider;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registers the entity codecs with the mongo client (api.mongo.codecs.enabled). Repository reads then decode
+ * straight from BSON instead of through the mapping converter, see SimpleCodecMongoRepository.
+ * Writes and MongoTemplate queries keep using the converter either way.
+ *
+ * @author Yvonne N
+ */
+@Configuration
+@ConditionalOnProperty(name = "api.mongo.codecs.enabled", havingValue = "true")
+public class CodecConfiguration {
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer entityCodecsCustomizer() {
+        // the entity codecs only claim Movie, Review and StreamUser, everything else resolves as before
+        return (settings) -> settings.codecRegistry(CodecRegistries.fromRegistries(
+                CodecRegistries.fromProviders(new EntityCodecProvider()),
+                MongoClientSettings.getDefaultCodecRegistry()));
+    }
+}
@@ -0,0 +1,27 @@
+package com.yvolabs.streamapi.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.config.EnableMongoAuditing;
+import org.springframework.data.mongodb.config.EnableReactiveMongoAuditing;
+
+/**
+ * Fills the @CreatedDate/@LastModifiedDate fields on save, each profile only saves through one of the templates
+ *
+ * @author Yvonne N
+ */
+@Configuration
+public class MongoAuditingConfiguration {
+
+    @Configuration
+    @Profile("!reactive")
+    @EnableMongoAuditing
+    static class BlockingAuditing {
+    }
+
+    @Configuration
+    @Profile("reactive")
+    @EnableReactiveMongoAuditing
+    static class ReactiveAuditing {
+    }
+}
@@ -0,0 +1,41 @@
+package com.yvolabs.streamapi.config;
+
+import com.yvolabs.streamapi.repository.MovieRepository;
+import com.yvolabs.streamapi.repository.SimpleCodecMongoRepository;
+import com.yvolabs.streamapi.util.ReleaseDates;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
+
+import java.time.LocalDate;
+
+/**
+ * @author Yvonne N
+ */
+@Configuration
+// reactive repositories are left to the auto-configuration
+@EnableMongoRepositories(basePackageClasses = MovieRepository.class, repositoryBaseClass = SimpleCodecMongoRepository.class)
+public class MongoConfiguration {
+
+    @Bean
+    public MongoCustomConversions mongoCustomConversions() {
+        return MongoCustomConversions.create((adapter) -> {
+            // java.time values are stored in UTC by the driver codecs, independent of the server time zone
+            adapter.useNativeDriverJavaTimeCodecs();
+            adapter.registerConverter(new LegacyReleaseDateConverter());
+        });
+    }
+
+    // movies not yet reached by ReleaseDateMigration still hold the old dd-MM-yyyy strings
+    @ReadingConverter
+    static class LegacyReleaseDateConverter implements Converter<String, LocalDate> {
+
+        @Override
+        public LocalDate convert(String source) {
+            return ReleaseDates.tryParse(source).orElse(null);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.yvolabs.streamapi.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Background jobs such as the genre facet reconciliation run on the default single threaded scheduler
+ *
+ * @author Yvonne N
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfiguration {
+}
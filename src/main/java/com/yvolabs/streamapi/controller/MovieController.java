@@ -1,18 +1,54 @@
 package com.yvolabs.streamapi.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.yvolabs.streamapi.annotations.CreateValidationGroup;
 import com.yvolabs.streamapi.annotations.UpdateValidationGroup;
+import com.yvolabs.streamapi.codec.RawMovieJson;
+import com.yvolabs.streamapi.dto.BatchReport;
+import com.yvolabs.streamapi.dto.BulkResult;
+import com.yvolabs.streamapi.dto.CursorPage;
+import com.yvolabs.streamapi.dto.GenreCount;
+import com.yvolabs.streamapi.dto.MovieBulkRequest;
+import com.yvolabs.streamapi.dto.MovieChangeEvent;
+import com.yvolabs.streamapi.dto.MovieChanges;
 import com.yvolabs.streamapi.dto.MovieDto;
+import com.yvolabs.streamapi.dto.MovieFilter;
+import com.yvolabs.streamapi.dto.MovieLookup;
+import com.yvolabs.streamapi.dto.MovieSummary;
+import com.yvolabs.streamapi.exception.InvalidSortException;
+import com.yvolabs.streamapi.exception.InvalidViewException;
+import com.yvolabs.streamapi.exception.TooManyIdsException;
 import com.yvolabs.streamapi.model.Movie;
 import com.yvolabs.streamapi.response.Result;
 import com.yvolabs.streamapi.response.StatusCode;
+import com.yvolabs.streamapi.service.MovieChangeCounter;
+import com.yvolabs.streamapi.service.MovieChangeFeed;
 import com.yvolabs.streamapi.service.MovieService;
+import com.yvolabs.streamapi.util.ETags;
+import com.yvolabs.streamapi.util.NdJsonWriter;
 import lombok.RequiredArgsConstructor;
+import org.bson.RawBsonDocument;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
 
 import static com.yvolabs.streamapi.mapper.MovieMapper.INSTANCE;
 
@@ -22,12 +58,41 @@ import static com.yvolabs.streamapi.mapper.MovieMapper.INSTANCE;
 @RestController
 @RequestMapping("${api.endpoint.base-url}/movies")
 @RequiredArgsConstructor
+@Profile("!reactive")
 public class MovieController {
     private final MovieService movieService;
+    private final MovieChangeFeed movieChangeFeed;
+    private final MovieChangeCounter movieChangeCounter;
+    private final ObjectMapper objectMapper;
 
+    @Value("${api.movies.page.max-limit:100}")
+    int maxPageLimit;
+
+    // unexpanded GET /movies and GET /movies/{movieId} are written straight from the stored BSON
+    @Value("${api.movies.raw-json.enabled:false}")
+    boolean rawJson;
+
+    @Value("${api.movies.multi-get.max-ids:50}")
+    int maxMultiGetIds;
+
+    // optional genre, releasedFrom and releasedTo filters, sort=releaseDate or sort=-releaseDate for date order
     @GetMapping
-    public ResponseEntity<Result<List<MovieDto>>> getAllMovies() {
-        List<Movie> movies = movieService.findAll();
+    public ResponseEntity<? extends Result<?>> getAllMovies(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "${api.movies.page.default-limit:20}") int limit,
+            @RequestParam(required = false) List<String> expand,
+            @RequestParam(required = false) String sort,
+            @Validated MovieFilter filter,
+            WebRequest request) {
+        // reviews are not counted, expanded pages are never answered with 304
+        if (!expandsReviews(expand) && collectionNotModified(request)) {
+            return null;
+        }
+        if (rawJson && !expandsReviews(expand)) {
+            return getAllRawMovies(cursor, limit, filter, sort);
+        }
+        CursorPage<Movie> page = movieService.findPage(cursor, clampLimit(limit), filter, releaseDateOrder(sort));
+        List<Movie> movies = expandsReviews(expand) ? movieService.withReviews(page.getContent()) : page.getContent();
 
         List<MovieDto> movieResponseDtos = movies.stream()
                 .map(INSTANCE::movieToMovieDtoMapper)
@@ -39,11 +104,201 @@ public class MovieController {
                 .code(StatusCode.SUCCESS)
                 .message("Find All Success")
                 .data(movieResponseDtos)
+                .nextCursor(page.getNextCursor())
+                .build();
+
+        return ResponseEntity.ok(result);
+    }
+
+    private ResponseEntity<Result<List<RawMovieJson>>> getAllRawMovies(String cursor, int limit, MovieFilter filter, String sort) {
+        CursorPage<RawBsonDocument> page = movieService.findRawPage(cursor, clampLimit(limit), filter, releaseDateOrder(sort));
+
+        Result<List<RawMovieJson>> result = Result.<List<RawMovieJson>>builder()
+                .flag(true)
+                .code(StatusCode.SUCCESS)
+                .message("Find All Success")
+                .data(page.getContent().stream()
+                        .map(RawMovieJson::new)
+                        .toList())
+                .nextCursor(page.getNextCursor())
+                .build();
+
+        return ResponseEntity.ok(result);
+    }
+
+    // ?ids=a,b,c replaces one GET /movies/{movieId} per movie, answered in request order with one $in query
+    @GetMapping(params = "ids")
+    public ResponseEntity<Result<List<MovieLookup>>> getMoviesByIds(
+            @RequestParam List<String> ids,
+            @RequestParam(required = false) List<String> expand,
+            @RequestParam(required = false) String view) {
+        // lookups have no summary form, a requested view is rejected rather than dropped
+        if (view != null) {
+            throw new InvalidViewException(view);
+        }
+        if (ids.size() > maxMultiGetIds) {
+            throw new TooManyIdsException(ids.size(), maxMultiGetIds);
+        }
+        List<Movie> movies = movieService.findByIds(ids);
+        if (expandsReviews(expand)) {
+            List<Movie> found = movieService.withReviews(movies.stream().filter(Objects::nonNull).toList());
+            Iterator<Movie> expanded = found.iterator();
+            movies = movies.stream()
+                    .map((movie) -> movie == null ? null : expanded.next())
+                    .toList();
+        }
+
+        List<MovieLookup> lookups = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            Movie movie = movies.get(i);
+            lookups.add(movie == null
+                    ? MovieLookup.notFound(ids.get(i))
+                    : MovieLookup.found(ids.get(i), INSTANCE.movieToMovieDtoMapper(movie)));
+        }
+
+        Result<List<MovieLookup>> result = Result.<List<MovieLookup>>builder()
+                .flag(true)
+                .code(StatusCode.SUCCESS)
+                .message("Find Many Success")
+                .data(lookups)
+                .build();
+
+        return ResponseEntity.ok(result);
+    }
+
+    // ?view=summary, only id, title, releaseDate and genres are read from mongo
+    @GetMapping(params = {"view=summary", "!ids"})
+    public ResponseEntity<Result<List<MovieSummary>>> getMovieSummaries(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "${api.movies.page.default-limit:20}") int limit,
+            @RequestParam(required = false) String sort,
+            @Validated MovieFilter filter,
+            WebRequest request) {
+        if (collectionNotModified(request)) {
+            return null;
+        }
+        CursorPage<MovieSummary> page = movieService.findSummaryPage(cursor, clampLimit(limit), filter, releaseDateOrder(sort));
+
+        Result<List<MovieSummary>> result = Result.<List<MovieSummary>>builder()
+                .flag(true)
+                .code(StatusCode.SUCCESS)
+                .message("Find All Success")
+                .data(page.getContent())
+                .nextCursor(page.getNextCursor())
+                .build();
+
+        return ResponseEntity.ok(result);
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<Result<List<MovieDto>>> searchMovies(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "${api.movies.page.default-limit:20}") int size) {
+        List<MovieDto> movieDtos = movieService.search(q, Math.max(page, 0), clampLimit(size)).stream()
+                .map(INSTANCE::movieToMovieDtoMapper)
+                .toList();
+
+        Result<List<MovieDto>> result = Result.<List<MovieDto>>builder()
+                .flag(true)
+                .code(StatusCode.SUCCESS)
+                .message("Search Success")
+                .data(movieDtos)
+                .build();
+
+        return ResponseEntity.ok(result);
+    }
+
+    @GetMapping(value = "/search", params = "view=summary")
+    public ResponseEntity<Result<List<MovieSummary>>> searchMovieSummaries(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "${api.movies.page.default-limit:20}") int size) {
+        List<MovieSummary> summaries = movieService.searchSummaries(q, Math.max(page, 0), clampLimit(size));
+
+        Result<List<MovieSummary>> result = Result.<List<MovieSummary>>builder()
+                .flag(true)
+                .code(StatusCode.SUCCESS)
+                .message("Search Success")
+                .data(summaries)
+                .build();
+
+        return ResponseEntity.ok(result);
+    }
+
+    // counts of this instance, writes made through other instances are included from the next reconcile on,
+    // at most api.movies.facets.reconcile-interval-ms later
+    @GetMapping("/facets/genres")
+    public ResponseEntity<Result<List<GenreCount>>> getGenreFacets() {
+        Result<List<GenreCount>> result = Result.<List<GenreCount>>builder()
+                .flag(true)
+                .code(StatusCode.SUCCESS)
+                .message("Find Genre Facets Success")
+                .data(movieService.findGenreCounts())
                 .build();
 
         return ResponseEntity.ok(result);
     }
 
+    // delta sync, since is the syncToken of the previous call, without it every movie is returned page by page
+    @GetMapping("/changes")
+    public ResponseEntity<Result<MovieChanges>> getMovieChanges(
+            @RequestParam(required = false) String since,
+            @RequestParam(defaultValue = "${api.movies.sync.default-limit:100}") int limit) {
+        Result<MovieChanges> result = Result.<MovieChanges>builder()
+                .flag(true)
+                .code(StatusCode.SUCCESS)
+                .message("Find Changes Success")
+                .data(movieService.findChanges(since, clampLimit(limit)))
+                .build();
+
+        return ResponseEntity.ok(result);
+    }
+
+    // Accept: application/x-ndjson, documents are mapped and written one by one straight off the mongo cursor
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllMovies() {
+        StreamingResponseBody body = outputStream -> {
+            try (Stream<Movie> movies = movieService.streamAll()) {
+                NdJsonWriter.write(outputStream, movies.map(INSTANCE::movieToMovieDtoMapper), objectMapper);
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    // text/event-stream of inserts, updates and deletes, reconnects resume after the Last-Event-ID header
+    @GetMapping(value = "/changes/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamMovieChanges(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        SseEmitter emitter = new SseEmitter(0L); // no timeout, heartbeats find clients that went away
+
+        MovieChangeFeed.Subscription subscription = movieChangeFeed.subscribe(lastEventId, new MovieChangeFeed.Listener() {
+            @Override
+            public void onEvent(MovieChangeEvent event) throws IOException {
+                if (event.isHeartbeat()) {
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                } else {
+                    emitter.send(SseEmitter.event()
+                            .id(event.getId())
+                            .name(event.getType())
+                            .data(event, MediaType.APPLICATION_JSON));
+                }
+            }
+
+            @Override
+            public void onClose() {
+                emitter.complete();
+            }
+        });
+
+        emitter.onCompletion(subscription::cancel);
+        emitter.onTimeout(subscription::cancel);
+        emitter.onError((e) -> subscription.cancel());
+        return emitter;
+    }
+
     @PostMapping
     public ResponseEntity<Result<MovieDto>> addMovie(@Validated({CreateValidationGroup.class}) @RequestBody MovieDto movieDto) {
         Movie movie = INSTANCE.movieDtoToMovieMapper(movieDto);
@@ -60,9 +315,46 @@ public class MovieController {
         return ResponseEntity.ok(result);
     }
 
+    // accepts a json array or ndjson, items are read off the request body one at a time instead of binding a List
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<Result<BatchReport>> addMovies(InputStream body) throws IOException {
+        BatchReport report;
+        try (MappingIterator<MovieDto> movieDtos = objectMapper.readerFor(MovieDto.class).readValues(body)) {
+            report = movieService.addAll(movieDtos);
+        } catch (RuntimeException e) {
+            // MappingIterator wraps parse errors in unchecked exceptions, surface them as a bad request
+            if (e.getCause() instanceof JsonProcessingException jsonProcessingException) {
+                throw jsonProcessingException;
+            }
+            throw e;
+        }
+
+        Result<BatchReport> result = Result.<BatchReport>builder()
+                .flag(true)
+                .code(StatusCode.SUCCESS)
+                .message("Batch Add Success")
+                .data(report)
+                .build();
+
+        return ResponseEntity.ok(result);
+    }
+
     @GetMapping("/{movieId}")
-    public ResponseEntity<Result<MovieDto>> getMovieById(@PathVariable String movieId) {
+    public ResponseEntity<? extends Result<?>> getMovieById(
+            @PathVariable String movieId,
+            @RequestParam(required = false) List<String> expand,
+            WebRequest request) {
+        if (rawJson && !expandsReviews(expand)) {
+            return getRawMovieById(movieId, request);
+        }
         Movie movie = movieService.findById(movieId);
+        // answered from the cached movie, before any mapping or serialization
+        if (!expandsReviews(expand) && request.checkNotModified(ETags.of(movie.getVersion()))) {
+            return null;
+        }
+        if (expandsReviews(expand)) {
+            movie = movieService.withReviews(List.of(movie)).get(0);
+        }
         MovieDto movieDto = INSTANCE.movieToMovieDtoMapper(movie);
 
         Result<MovieDto> result = Result.<MovieDto>builder()
@@ -75,11 +367,28 @@ public class MovieController {
         return ResponseEntity.ok(result);
     }
 
+    private ResponseEntity<Result<RawMovieJson>> getRawMovieById(String movieId, WebRequest request) {
+        RawBsonDocument document = movieService.findRawById(movieId);
+        if (request.checkNotModified(ETags.of(RawMovieJson.versionOf(document)))) {
+            return null;
+        }
+
+        Result<RawMovieJson> result = Result.<RawMovieJson>builder()
+                .flag(true)
+                .code(StatusCode.SUCCESS)
+                .message("Find One Success")
+                .data(new RawMovieJson(document))
+                .build();
+
+        return ResponseEntity.ok(result);
+    }
+
     @PatchMapping("/{movieId}")
     public ResponseEntity<Result<MovieDto>> updateMovie(
             @PathVariable String movieId,
-            @Validated({UpdateValidationGroup.class}) @RequestBody MovieDto movieDto) {
-        Movie updatedMovie = movieService.update(movieId, movieDto);
+            @Validated({UpdateValidationGroup.class}) @RequestBody MovieDto movieDto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Movie updatedMovie = movieService.update(movieId, movieDto, ETags.parseIfMatch(ifMatch));
         MovieDto updatedMovieDto = INSTANCE.movieToMovieDtoMapper(updatedMovie);
 
         Result<MovieDto> result = Result.<MovieDto>builder()
@@ -88,12 +397,45 @@ public class MovieController {
                 .message("Update Success")
                 .data(updatedMovieDto)
                 .build();
+        // the new tag, so the next conditional write needs no extra GET
+        return ResponseEntity.ok()
+                .eTag(ETags.of(updatedMovie.getVersion()))
+                .body(result);
+    }
+
+    // re-tag or retire many titles at once, selected by ids or by a server side filter
+    @PatchMapping("/bulk")
+    public ResponseEntity<Result<BulkResult>> updateMovies(
+            @Validated({UpdateValidationGroup.class}) @RequestBody MovieBulkRequest request) {
+        BulkResult bulkResult = movieService.updateMany(request);
+
+        Result<BulkResult> result = Result.<BulkResult>builder()
+                .flag(true)
+                .code(StatusCode.SUCCESS)
+                .message("Bulk Update Success")
+                .data(bulkResult)
+                .build();
+        return ResponseEntity.ok(result);
+    }
+
+    @DeleteMapping("/bulk")
+    public ResponseEntity<Result<BulkResult>> deleteMovies(@Validated @RequestBody MovieBulkRequest request) {
+        BulkResult bulkResult = movieService.deleteMany(request);
+
+        Result<BulkResult> result = Result.<BulkResult>builder()
+                .flag(true)
+                .code(StatusCode.SUCCESS)
+                .message("Bulk Delete Success")
+                .data(bulkResult)
+                .build();
         return ResponseEntity.ok(result);
     }
 
     @DeleteMapping("/{movieId}")
-    public ResponseEntity<Result<Object>> deleteMovieById(@PathVariable String movieId) {
-        movieService.delete(movieId);
+    public ResponseEntity<Result<Object>> deleteMovieById(
+            @PathVariable String movieId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        movieService.delete(movieId, ETags.parseIfMatch(ifMatch));
         return ResponseEntity.ok(
                 Result.builder()
                         .flag(true)
@@ -102,4 +444,31 @@ public class MovieController {
                         .build());
 
     }
+
+    // the tag is taken before the query, a write during it leaves the next request with a fresh page
+    private boolean collectionNotModified(WebRequest request) {
+        return movieChangeCounter.etag()
+                .map(request::checkNotModified)
+                .orElse(false);
+    }
+
+    static boolean expandsReviews(List<String> expand) {
+        return expand != null && expand.contains("reviews");
+    }
+
+    // shared with the reactive controller
+    static Sort.Direction releaseDateOrder(String sort) {
+        if (sort == null || sort.isEmpty()) {
+            return null;
+        }
+        return switch (sort) {
+            case "releaseDate" -> Sort.Direction.ASC;
+            case "-releaseDate" -> Sort.Direction.DESC;
+            default -> throw new InvalidSortException(sort);
+        };
+    }
+
+    private int clampLimit(int limit) {
+        return Math.max(1, Math.min(limit, maxPageLimit));
+    }
 }
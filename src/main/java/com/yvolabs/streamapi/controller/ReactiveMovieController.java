@@ -0,0 +1,219 @@
+package com.yvolabs.streamapi.controller;
+
+import com.yvolabs.streamapi.annotations.CreateValidationGroup;
+import com.yvolabs.streamapi.annotations.UpdateValidationGroup;
+import com.yvolabs.streamapi.dto.BulkResult;
+import com.yvolabs.streamapi.dto.CursorPage;
+import com.yvolabs.streamapi.dto.GenreCount;
+import com.yvolabs.streamapi.dto.MovieBulkRequest;
+import com.yvolabs.streamapi.dto.MovieDto;
+import com.yvolabs.streamapi.dto.MovieFilter;
+import com.yvolabs.streamapi.dto.MovieSummary;
+import com.yvolabs.streamapi.model.Movie;
+import com.yvolabs.streamapi.response.Result;
+import com.yvolabs.streamapi.response.StatusCode;
+import com.yvolabs.streamapi.service.ReactiveMovieService;
+import com.yvolabs.streamapi.util.ETags;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static com.yvolabs.streamapi.controller.MovieController.expandsReviews;
+import static com.yvolabs.streamapi.controller.MovieController.releaseDateOrder;
+import static com.yvolabs.streamapi.mapper.MovieMapper.INSTANCE;
+
+/**
+ * Same contract as {@link MovieController}, served on the reactive profile
+ *
+ * @author Yvonne N
+ */
+@RestController
+@RequestMapping("${api.endpoint.base-url}/movies")
+@RequiredArgsConstructor
+@Profile("reactive")
+public class ReactiveMovieController {
+    private final ReactiveMovieService movieService;
+
+    @Value("${api.movies.page.max-limit:100}")
+    int maxPageLimit;
+
+    @GetMapping
+    public Mono<Result<List<MovieDto>>> getAllMovies(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "${api.movies.page.default-limit:20}") int limit,
+            @RequestParam(required = false) List<String> expand,
+            @RequestParam(required = false) String sort,
+            @Validated MovieFilter filter) {
+        return Mono.defer(() -> movieService.findPage(cursor, clampLimit(limit), filter, releaseDateOrder(sort)))
+                .flatMap((page) -> (expandsReviews(expand)
+                        ? movieService.withReviews(page.getContent())
+                        : Mono.just(page.getContent()))
+                        .map((movies) -> Result.<List<MovieDto>>builder()
+                                .flag(true)
+                                .code(StatusCode.SUCCESS)
+                                .message("Find All Success")
+                                .data(movies.stream()
+                                        .map(INSTANCE::movieToMovieDtoMapper)
+                                        .toList())
+                                .nextCursor(page.getNextCursor())
+                                .build()));
+    }
+
+    @GetMapping(params = "view=summary")
+    public Mono<Result<List<MovieSummary>>> getMovieSummaries(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "${api.movies.page.default-limit:20}") int limit,
+            @RequestParam(required = false) String sort,
+            @Validated MovieFilter filter) {
+        return Mono.defer(() -> movieService.findSummaryPage(cursor, clampLimit(limit), filter, releaseDateOrder(sort)))
+                .map((CursorPage<MovieSummary> page) -> Result.<List<MovieSummary>>builder()
+                        .flag(true)
+                        .code(StatusCode.SUCCESS)
+                        .message("Find All Success")
+                        .data(page.getContent())
+                        .nextCursor(page.getNextCursor())
+                        .build());
+    }
+
+    @GetMapping("/search")
+    public Mono<Result<List<MovieDto>>> searchMovies(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "${api.movies.page.default-limit:20}") int size) {
+        return movieService.search(q, Math.max(page, 0), clampLimit(size))
+                .map(INSTANCE::movieToMovieDtoMapper)
+                .collectList()
+                .map((movieDtos) -> Result.<List<MovieDto>>builder()
+                        .flag(true)
+                        .code(StatusCode.SUCCESS)
+                        .message("Search Success")
+                        .data(movieDtos)
+                        .build());
+    }
+
+    @GetMapping(value = "/search", params = "view=summary")
+    public Mono<Result<List<MovieSummary>>> searchMovieSummaries(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "${api.movies.page.default-limit:20}") int size) {
+        return movieService.searchSummaries(q, Math.max(page, 0), clampLimit(size))
+                .collectList()
+                .map((summaries) -> Result.<List<MovieSummary>>builder()
+                        .flag(true)
+                        .code(StatusCode.SUCCESS)
+                        .message("Search Success")
+                        .data(summaries)
+                        .build());
+    }
+
+    @GetMapping("/facets/genres")
+    public Result<List<GenreCount>> getGenreFacets() {
+        return Result.<List<GenreCount>>builder()
+                .flag(true)
+                .code(StatusCode.SUCCESS)
+                .message("Find Genre Facets Success")
+                .data(movieService.findGenreCounts())
+                .build();
+    }
+
+    // Accept: application/x-ndjson, each line is written as the client drains the previous ones
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<MovieDto> streamAllMovies() {
+        return movieService.streamAll()
+                .map(INSTANCE::movieToMovieDtoMapper);
+    }
+
+    @PostMapping
+    public Mono<Result<MovieDto>> addMovie(@Validated({CreateValidationGroup.class}) @RequestBody MovieDto movieDto) {
+        return movieService.add(INSTANCE.movieDtoToMovieMapper(movieDto))
+                .map((addedMovie) -> Result.<MovieDto>builder()
+                        .flag(true)
+                        .code(StatusCode.SUCCESS)
+                        .message("Add Success")
+                        .data(INSTANCE.movieToMovieDtoMapper(addedMovie))
+                        .build());
+    }
+
+    @GetMapping("/{movieId}")
+    public Mono<Result<MovieDto>> getMovieById(
+            @PathVariable String movieId,
+            @RequestParam(required = false) List<String> expand) {
+        Mono<Movie> movie = movieService.findById(movieId);
+        if (expandsReviews(expand)) {
+            movie = movie.flatMap((found) -> movieService.withReviews(List.of(found)))
+                    .map((movies) -> movies.get(0));
+        }
+
+        return movie.map((found) -> Result.<MovieDto>builder()
+                .flag(true)
+                .code(StatusCode.SUCCESS)
+                .message("Find One Success")
+                .data(INSTANCE.movieToMovieDtoMapper(found))
+                .build());
+    }
+
+    @PatchMapping("/{movieId}")
+    public Mono<ResponseEntity<Result<MovieDto>>> updateMovie(
+            @PathVariable String movieId,
+            @Validated({UpdateValidationGroup.class}) @RequestBody MovieDto movieDto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return movieService.update(movieId, movieDto, ETags.parseIfMatch(ifMatch))
+                // the new tag, so the next conditional write needs no extra GET
+                .map((updatedMovie) -> ResponseEntity.ok()
+                        .eTag(ETags.of(updatedMovie.getVersion()))
+                        .body(Result.<MovieDto>builder()
+                                .flag(true)
+                                .code(StatusCode.SUCCESS)
+                                .message("Update Success")
+                                .data(INSTANCE.movieToMovieDtoMapper(updatedMovie))
+                                .build()));
+    }
+
+    @PatchMapping("/bulk")
+    public Mono<Result<BulkResult>> updateMovies(
+            @Validated({UpdateValidationGroup.class}) @RequestBody MovieBulkRequest request) {
+        return movieService.updateMany(request)
+                .map((bulkResult) -> Result.<BulkResult>builder()
+                        .flag(true)
+                        .code(StatusCode.SUCCESS)
+                        .message("Bulk Update Success")
+                        .data(bulkResult)
+                        .build());
+    }
+
+    @DeleteMapping("/bulk")
+    public Mono<Result<BulkResult>> deleteMovies(@Validated @RequestBody MovieBulkRequest request) {
+        return movieService.deleteMany(request)
+                .map((bulkResult) -> Result.<BulkResult>builder()
+                        .flag(true)
+                        .code(StatusCode.SUCCESS)
+                        .message("Bulk Delete Success")
+                        .data(bulkResult)
+                        .build());
+    }
+
+    @DeleteMapping("/{movieId}")
+    public Mono<Result<Object>> deleteMovieById(
+            @PathVariable String movieId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return movieService.delete(movieId, ETags.parseIfMatch(ifMatch))
+                .then(Mono.fromSupplier(() -> Result.builder()
+                        .flag(true)
+                        .code(StatusCode.SUCCESS)
+                        .message("Delete Success")
+                        .build()));
+    }
+
+    private int clampLimit(int limit) {
+        return Math.max(1, Math.min(limit, maxPageLimit));
+    }
+}
@@ -0,0 +1,107 @@
+package com.yvolabs.streamapi.controller;
+
+import com.yvolabs.streamapi.dto.UserDto;
+import com.yvolabs.streamapi.model.StreamUser;
+import com.yvolabs.streamapi.response.Result;
+import com.yvolabs.streamapi.response.StatusCode;
+import com.yvolabs.streamapi.service.ReactiveUserService;
+import com.yvolabs.streamapi.util.ETags;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static com.yvolabs.streamapi.mapper.UserMapper.INSTANCE;
+
+/**
+ * Same contract as {@link UserController}, served on the reactive profile
+ *
+ * @author Yvonne N
+ */
+@RestController
+@RequestMapping("${api.endpoint.base-url}/users")
+@RequiredArgsConstructor
+@Profile("reactive")
+public class ReactiveUserController {
+    private final ReactiveUserService userService;
+
+    @GetMapping
+    public Mono<Result<List<UserDto>>> findAllUsers() {
+        return userService.findAll()
+                .map(INSTANCE::userToUserDto)
+                .collectList()
+                .map((usersDto) -> Result.<List<UserDto>>builder()
+                        .flag(true)
+                        .code(StatusCode.SUCCESS)
+                        .message("Find All Success")
+                        .data(usersDto)
+                        .build());
+    }
+
+    // Accept: application/x-ndjson, each line is written as the client drains the previous ones
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<UserDto> streamAllUsers() {
+        return userService.findAll()
+                .map(INSTANCE::userToUserDto);
+    }
+
+    @PostMapping
+    public Mono<Result<UserDto>> addUser(@RequestBody @Valid StreamUser user) {
+        return userService.save(user)
+                .map((addedUser) -> Result.<UserDto>builder()
+                        .flag(true)
+                        .code(StatusCode.SUCCESS)
+                        .message("Add User Success")
+                        .data(INSTANCE.userToUserDto(addedUser))
+                        .build());
+    }
+
+    @GetMapping("/{userId}")
+    public Mono<Result<UserDto>> findUserById(@PathVariable String userId) {
+        return userService.findById(userId)
+                .map((user) -> Result.<UserDto>builder()
+                        .flag(true)
+                        .code(StatusCode.SUCCESS)
+                        .message("Find User Success")
+                        .data(INSTANCE.userToUserDto(user))
+                        .build());
+    }
+
+    @PutMapping("/{userId}")
+    public Mono<ResponseEntity<Result<UserDto>>> updateUser(
+            @PathVariable String userId,
+            @RequestBody @Valid UserDto userDto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return userService.update(userId, userDto, ETags.parseIfMatch(ifMatch))
+                // the new tag, so the next conditional write needs no extra GET
+                .map((updatedUser) -> ResponseEntity.ok()
+                        .eTag(ETags.of(updatedUser.getVersion()))
+                        .body(Result.<UserDto>builder()
+                                .flag(true)
+                                .code(StatusCode.SUCCESS)
+                                .message("Update User Success")
+                                .data(INSTANCE.userToUserDto(updatedUser))
+                                .build()));
+    }
+
+    @DeleteMapping("/{userId}")
+    public Mono<Result<?>> deleteUser(
+            @PathVariable String userId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return userService.delete(userId, ETags.parseIfMatch(ifMatch))
+                .then(Mono.<Result<?>>fromSupplier(() -> Result.builder()
+                        .flag(true)
+                        .code(StatusCode.SUCCESS)
+                        .message("Delete User Success")
+                        .data(null)
+                        .build()));
+    }
+
+}
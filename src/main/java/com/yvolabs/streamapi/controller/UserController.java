@@ -1,16 +1,25 @@
 package com.yvolabs.streamapi.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.yvolabs.streamapi.dto.UserDto;
 import com.yvolabs.streamapi.model.StreamUser;
 import com.yvolabs.streamapi.response.Result;
 import com.yvolabs.streamapi.response.StatusCode;
 import com.yvolabs.streamapi.service.UserService;
+import com.yvolabs.streamapi.util.ETags;
+import com.yvolabs.streamapi.util.NdJsonWriter;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 import static com.yvolabs.streamapi.mapper.UserMapper.INSTANCE;
 
@@ -20,8 +29,10 @@ import static com.yvolabs.streamapi.mapper.UserMapper.INSTANCE;
 @RestController
 @RequestMapping("${api.endpoint.base-url}/users")
 @RequiredArgsConstructor
+@Profile("!reactive")
 public class UserController {
     private final UserService userService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping
     public ResponseEntity<Result<List<UserDto>>> findAllUsers() {
@@ -42,6 +53,20 @@ public class UserController {
 
     }
 
+    // Accept: application/x-ndjson, users are mapped and written one by one straight off the mongo cursor
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllUsers() {
+        StreamingResponseBody body = outputStream -> {
+            try (Stream<StreamUser> users = userService.streamAll()) {
+                NdJsonWriter.write(outputStream, users.map(INSTANCE::userToUserDto), objectMapper);
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
     @PostMapping
     public ResponseEntity<Result<UserDto>> addUser(@RequestBody @Valid StreamUser user) {
         StreamUser addedUser = userService.save(user);
@@ -58,8 +83,12 @@ public class UserController {
     }
 
     @GetMapping("/{userId}")
-    public ResponseEntity<Result<UserDto>> findUserById(@PathVariable String userId) {
+    public ResponseEntity<Result<UserDto>> findUserById(@PathVariable String userId, WebRequest request) {
         StreamUser user = userService.findById(userId);
+        // If-None-Match with the current version, answered before any mapping or serialization
+        if (request.checkNotModified(ETags.of(user.getVersion()))) {
+            return null;
+        }
         UserDto userDto = INSTANCE.userToUserDto(user);
         Result<UserDto> result = Result.<UserDto>builder()
                 .flag(true)
@@ -72,8 +101,11 @@ public class UserController {
     }
 
     @PutMapping("/{userId}")
-    public ResponseEntity<Result<UserDto>> updateUser(@PathVariable String userId, @RequestBody @Valid UserDto userDto) {
-        StreamUser updatedUser = userService.update(userId, userDto);
+    public ResponseEntity<Result<UserDto>> updateUser(
+            @PathVariable String userId,
+            @RequestBody @Valid UserDto userDto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        StreamUser updatedUser = userService.update(userId, userDto, ETags.parseIfMatch(ifMatch));
         UserDto updatedUserDto = INSTANCE.userToUserDto(updatedUser);
 
         Result<UserDto> result = Result.<UserDto>builder()
@@ -83,12 +115,17 @@ public class UserController {
                 .data(updatedUserDto)
                 .build();
 
-        return ResponseEntity.ok(result);
+        // the new tag, so the next conditional write needs no extra GET
+        return ResponseEntity.ok()
+                .eTag(ETags.of(updatedUser.getVersion()))
+                .body(result);
     }
 
     @DeleteMapping("/{userId}")
-    public ResponseEntity<Result<?>> deleteUser(@PathVariable String userId) {
-        userService.delete(userId);
+    public ResponseEntity<Result<?>> deleteUser(
+            @PathVariable String userId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        userService.delete(userId, ETags.parseIfMatch(ifMatch));
 
         Result<?> result = Result.builder()
                 .flag(true)
@@ -0,0 +1,38 @@
+package com.yvolabs.streamapi.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Outcome of a single item of a batch request, index is the position of the item in the request body
+ *
+ * @author Yvonne N
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchItemResult {
+
+    private int index;
+
+    private boolean success;
+
+    private String id;
+
+    private Map<String, String> errors;
+
+    public static BatchItemResult success(int index, String id) {
+        return BatchItemResult.builder().index(index).success(true).id(id).build();
+    }
+
+    public static BatchItemResult failure(int index, Map<String, String> errors) {
+        return BatchItemResult.builder().index(index).success(false).errors(errors).build();
+    }
+}
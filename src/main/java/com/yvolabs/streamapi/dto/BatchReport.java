@@ -0,0 +1,26 @@
+package com.yvolabs.streamapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * @author Yvonne N
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchReport {
+
+    private int received;
+
+    private int inserted;
+
+    private int failed;
+
+    private List<BatchItemResult> items;
+}
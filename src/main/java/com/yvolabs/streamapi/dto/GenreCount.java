@@ -0,0 +1,20 @@
+package com.yvolabs.streamapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * @author Yvonne N
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class GenreCount {
+
+    private String genre;
+
+    private long count;
+}
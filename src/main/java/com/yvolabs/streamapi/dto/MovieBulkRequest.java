@@ -0,0 +1,50 @@
+package com.yvolabs.streamapi.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.yvolabs.streamapi.annotations.UpdateValidationGroup;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.groups.Default;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Body of PATCH/DELETE /movies/bulk, targets either the given ids or everything matching the filter
+ *
+ * @author Yvonne N
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class MovieBulkRequest {
+
+    private List<String> ids;
+
+    @Valid
+    private MovieFilter filter;
+
+    @NotNull(message = "update is required", groups = {UpdateValidationGroup.class})
+    @Valid
+    private MovieDto update;
+
+    // an empty filter would otherwise select the whole collection
+    @JsonIgnore
+    @AssertTrue(message = "ids or a filter with at least one criteria is required",
+            groups = {Default.class, UpdateValidationGroup.class})
+    public boolean isTargetPresent() {
+        return (ids != null && !ids.isEmpty()) || (filter != null && filter.hasCriteria());
+    }
+
+    @JsonIgnore
+    @AssertTrue(message = "update must set at least one field", groups = {UpdateValidationGroup.class})
+    public boolean isUpdatePresent() {
+        return update == null || update.getTitle() != null || update.getDescription() != null
+                || update.getReleaseDate() != null || update.getGenres() != null || update.getReviewsIds() != null;
+    }
+}
@@ -0,0 +1,43 @@
+package com.yvolabs.streamapi.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One entry of the movie change feed. id is the change stream resume token, type is insert, update, replace,
+ * delete or reset (the client missed events and has to refetch), movie is absent for deletes.
+ *
+ * @author Yvonne N
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class MovieChangeEvent {
+    public static final String RESET = "reset";
+
+    // keep-alive, written as an sse comment and never replayed
+    public static final MovieChangeEvent HEARTBEAT = MovieChangeEvent.builder().type("heartbeat").build();
+
+    private String id;
+
+    private String type;
+
+    private String movieId;
+
+    private MovieDto movie;
+
+    @JsonIgnore
+    public boolean isHeartbeat() {
+        return this == HEARTBEAT;
+    }
+
+    public static MovieChangeEvent reset() {
+        return MovieChangeEvent.builder().type(RESET).build();
+    }
+}
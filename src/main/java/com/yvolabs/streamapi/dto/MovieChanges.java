@@ -0,0 +1,35 @@
+package com.yvolabs.streamapi.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of a delta sync. Pass syncToken as since on the next call, keep paging while hasMore is set.
+ * reset means the token is older than the delete history, the client drops its copy and syncs again without since.
+ *
+ * @author Yvonne N
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class MovieChanges {
+
+    // current state of every movie created or updated since the token
+    private List<MovieDto> changed;
+
+    // ids of the movies deleted since the token
+    private List<String> deleted;
+
+    private String syncToken;
+
+    private boolean hasMore;
+
+    private boolean reset;
+}
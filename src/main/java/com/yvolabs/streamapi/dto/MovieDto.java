@@ -1,9 +1,12 @@
 package com.yvolabs.streamapi.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.yvolabs.streamapi.annotations.CreateValidationGroup;
 import com.yvolabs.streamapi.annotations.UpdateValidationGroup;
+import com.yvolabs.streamapi.annotations.ValidateReleaseDate;
 import com.yvolabs.streamapi.annotations.ValidateUpdateFieldNotEmpty;
 import com.yvolabs.streamapi.model.Review;
+import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
@@ -43,11 +46,19 @@ public class MovieDto {
     @ValidateUpdateFieldNotEmpty(
             message = "releaseDate is required and length must be at least 3, alternatively please remove this field",
             groups = {UpdateValidationGroup.class})
-    private String releaseDate;
+    @ValidateReleaseDate(
+            message = "releaseDate must be a date formatted as dd-MM-yyyy",
+            groups = {CreateValidationGroup.class, UpdateValidationGroup.class})
+    private String releaseDate; // dd-MM-yyyy, stored as a date
 
-    private List<String> genres;
+    private List<@NotBlank(
+            message = "genres must not contain empty values",
+            groups = {CreateValidationGroup.class, UpdateValidationGroup.class}) String> genres;
 
-    private List<Review> reviewsIds;
+    private List<String> reviewsIds;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<Review> reviews; // only present with ?expand=reviews
 
 
 }
@@ -0,0 +1,44 @@
+package com.yvolabs.streamapi.dto;
+
+import com.yvolabs.streamapi.annotations.UpdateValidationGroup;
+import com.yvolabs.streamapi.annotations.ValidateReleaseDate;
+import jakarta.validation.groups.Default;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Server side selection for bulk movie operations, all present criteria must match
+ *
+ * @author Yvonne N
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class MovieFilter {
+
+    private String genre;
+
+    // inclusive bounds, dd-MM-yyyy like MovieDto.releaseDate
+    @ValidateReleaseDate(
+            message = "releasedFrom must be a date formatted as dd-MM-yyyy",
+            standalone = true,
+            groups = {Default.class, UpdateValidationGroup.class})
+    private String releasedFrom;
+
+    @ValidateReleaseDate(
+            message = "releasedTo must be a date formatted as dd-MM-yyyy",
+            standalone = true,
+            groups = {Default.class, UpdateValidationGroup.class})
+    private String releasedTo;
+
+    public boolean hasCriteria() {
+        return isPresent(genre) || isPresent(releasedFrom) || isPresent(releasedTo);
+    }
+
+    private static boolean isPresent(String value) {
+        return value != null && !value.isBlank();
+    }
+}
@@ -0,0 +1,34 @@
+package com.yvolabs.streamapi.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One requested id of GET /movies?ids=, in request order. Ids without a movie are marked with found=false
+ *
+ * @author Yvonne N
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class MovieLookup {
+
+    private String id;
+
+    private boolean found;
+
+    private MovieDto movie;
+
+    public static MovieLookup found(String id, MovieDto movie) {
+        return MovieLookup.builder().id(id).found(true).movie(movie).build();
+    }
+
+    public static MovieLookup notFound(String id) {
+        return MovieLookup.builder().id(id).found(false).build();
+    }
+}
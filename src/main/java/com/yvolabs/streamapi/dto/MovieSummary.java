@@ -0,0 +1,31 @@
+package com.yvolabs.streamapi.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * List view of a movie, used as a field projection so description and reviews are never read
+ *
+ * @author Yvonne N
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class MovieSummary {
+
+    private String id;
+
+    private String title;
+
+    @JsonFormat(pattern = "dd-MM-yyyy")
+    private LocalDate releaseDate;
+
+    private List<String> genres;
+}
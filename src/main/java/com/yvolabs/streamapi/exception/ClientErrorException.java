@@ -0,0 +1,15 @@
+package com.yvolabs.streamapi.exception;
+
+/**
+ * Base of the exceptions answered with a 4xx by the exception handler advice. They describe bad input rather than
+ * a fault in the api, so they are created without a stack trace or suppressed exceptions, walking the stack of a
+ * request thread costs more than the rest of a 4xx response.
+ *
+ * @author Yvonne N
+ */
+public abstract class ClientErrorException extends RuntimeException {
+
+    protected ClientErrorException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -1,5 +1,6 @@
 package com.yvolabs.streamapi.exception;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.yvolabs.streamapi.response.Result;
 import com.yvolabs.streamapi.response.StatusCode;
 import org.springframework.http.HttpStatus;
@@ -12,6 +13,7 @@ import org.springframework.security.oauth2.server.resource.InvalidBearerTokenExc
 import org.springframework.validation.FieldError;
 import org.springframework.validation.ObjectError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -35,6 +37,16 @@ public class ExceptionHandlerAdvice {
                 .build();
     }
 
+    @ExceptionHandler(PreconditionFailedException.class)
+    @ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+    Result<Object> handlePreconditionFailedException(PreconditionFailedException e) {
+        return Result.builder()
+                .flag(false)
+                .code(StatusCode.PRECONDITION_FAILED)
+                .message(e.getMessage())
+                .build();
+    }
+
     @ExceptionHandler(UserAlreadyExistsException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     Result<Object> handleUserAlreadyExistsException(UserAlreadyExistsException e) {
@@ -63,6 +75,16 @@ public class ExceptionHandlerAdvice {
                 .build();
     }
 
+    @ExceptionHandler(MissingServletRequestParameterException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    Result<Object> handleMissingServletRequestParameterException(MissingServletRequestParameterException e) {
+        return Result.builder()
+                .flag(false)
+                .code(StatusCode.INVALID_ARGUMENT)
+                .message(e.getParameterName() + " is required")
+                .build();
+    }
+
     @ExceptionHandler(InvalidObjectIdException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     Result<Object> handleInvalidObjectIdException(InvalidObjectIdException e) {
@@ -73,6 +95,58 @@ public class ExceptionHandlerAdvice {
                 .build();
     }
 
+    @ExceptionHandler(TooManyIdsException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    Result<Object> handleTooManyIdsException(TooManyIdsException e) {
+        return Result.builder()
+                .flag(false)
+                .code(StatusCode.INVALID_ARGUMENT)
+                .message(e.getMessage())
+                .build();
+    }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    Result<Object> handleInvalidCursorException(InvalidCursorException e) {
+        return Result.builder()
+                .flag(false)
+                .code(StatusCode.INVALID_ARGUMENT)
+                .message(e.getMessage())
+                .build();
+    }
+
+    @ExceptionHandler(InvalidSortException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    Result<Object> handleInvalidSortException(InvalidSortException e) {
+        return Result.builder()
+                .flag(false)
+                .code(StatusCode.INVALID_ARGUMENT)
+                .message(e.getMessage())
+                .build();
+    }
+
+    // malformed item while streaming a batch request body
+    @ExceptionHandler(InvalidViewException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    Result<Object> handleInvalidViewException(InvalidViewException e) {
+        return Result.builder()
+                .flag(false)
+                .code(StatusCode.INVALID_ARGUMENT)
+                .message(e.getMessage())
+                .build();
+    }
+
+    @ExceptionHandler(JsonProcessingException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    Result<Object> handleJsonProcessingException(JsonProcessingException e) {
+        return Result.builder()
+                .flag(false)
+                .code(StatusCode.INVALID_ARGUMENT)
+                .message("Request body could not be read, see data for details")
+                .data(e.getOriginalMessage())
+                .build();
+    }
+
     // Security Errors
 
     // AuthenticationEntryPoint: custom-basic-auth
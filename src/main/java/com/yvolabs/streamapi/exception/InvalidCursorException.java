@@ -0,0 +1,16 @@
+package com.yvolabs.streamapi.exception;
+
+/**
+ * @author Yvonne N
+ */
+public class InvalidCursorException extends ClientErrorException {
+
+    public InvalidCursorException(String cursor) {
+        super("cursor: " + cursor + " is invalid, use the nextCursor value returned by the previous page");
+    }
+
+    // parameter names a different kind of position, e.g. the sync token of GET /movies/changes
+    public InvalidCursorException(String parameter, String cursor, String source) {
+        super(parameter + ": " + cursor + " is invalid, use the " + source + " value returned by the previous request");
+    }
+}
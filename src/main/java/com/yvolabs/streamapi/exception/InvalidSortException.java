@@ -0,0 +1,11 @@
+package com.yvolabs.streamapi.exception;
+
+/**
+ * @author Yvonne N
+ */
+public class InvalidSortException extends ClientErrorException {
+
+    public InvalidSortException(String sort) {
+        super("sort: " + sort + " is not supported, use releaseDate or -releaseDate");
+    }
+}
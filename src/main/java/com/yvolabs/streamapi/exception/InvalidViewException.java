@@ -0,0 +1,11 @@
+package com.yvolabs.streamapi.exception;
+
+/**
+ * @author Yvonne N
+ */
+public class InvalidViewException extends ClientErrorException {
+
+    public InvalidViewException(String view) {
+        super("view: " + view + " cannot be combined with ids, lookups by ids always return full movies");
+    }
+}
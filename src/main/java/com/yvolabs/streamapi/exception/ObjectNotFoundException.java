@@ -3,7 +3,7 @@ package com.yvolabs.streamapi.exception;
 /**
  * @author Yvonne N
  */
-public class ObjectNotFoundException extends RuntimeException {
+public class ObjectNotFoundException extends ClientErrorException {
 
     public ObjectNotFoundException(String objectName, String objectId) {
         super("Could not find " + objectName + " with id " + objectId);
@@ -0,0 +1,11 @@
+package com.yvolabs.streamapi.exception;
+
+/**
+ * @author Yvonne N
+ */
+public class PreconditionFailedException extends ClientErrorException {
+
+    public PreconditionFailedException(String objectName, String objectId) {
+        super(objectName + " with id " + objectId + " was changed by someone else, fetch it again and retry with its current ETag");
+    }
+}
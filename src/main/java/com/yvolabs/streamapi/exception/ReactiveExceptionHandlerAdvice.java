@@ -0,0 +1,57 @@
+package com.yvolabs.streamapi.exception;
+
+import com.yvolabs.streamapi.response.Result;
+import com.yvolabs.streamapi.response.StatusCode;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.validation.FieldError;
+import org.springframework.validation.ObjectError;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.ServerWebInputException;
+
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * WebFlux binding errors, everything else is handled by {@link ExceptionHandlerAdvice} on both stacks
+ *
+ * @author Yvonne N
+ */
+@RestControllerAdvice
+@Profile("reactive")
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ReactiveExceptionHandlerAdvice {
+
+    @ExceptionHandler(WebExchangeBindException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    Result<Object> handleWebExchangeBindException(WebExchangeBindException ex) {
+        List<ObjectError> errors = ex.getAllErrors();
+        HashMap<Object, Object> map = new HashMap<>(errors.size());
+        errors.forEach(error -> {
+            String key = error instanceof FieldError fieldError ? fieldError.getField() : error.getObjectName();
+            map.put(key, error.getDefaultMessage());
+        });
+        return Result.builder()
+                .flag(false)
+                .code(StatusCode.INVALID_ARGUMENT)
+                .message("Provided arguments are not valid, see data for details")
+                .data(map)
+                .build();
+    }
+
+    // missing request parameters and unreadable request bodies
+    @ExceptionHandler(ServerWebInputException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    Result<Object> handleServerWebInputException(ServerWebInputException ex) {
+        return Result.builder()
+                .flag(false)
+                .code(StatusCode.INVALID_ARGUMENT)
+                .message(ex.getReason())
+                .build();
+    }
+}
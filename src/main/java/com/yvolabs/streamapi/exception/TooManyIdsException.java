@@ -0,0 +1,11 @@
+package com.yvolabs.streamapi.exception;
+
+/**
+ * @author Yvonne N
+ */
+public class TooManyIdsException extends ClientErrorException {
+
+    public TooManyIdsException(int count, int maxIds) {
+        super("ids: " + count + " ids requested, at most " + maxIds + " are allowed per request");
+    }
+}
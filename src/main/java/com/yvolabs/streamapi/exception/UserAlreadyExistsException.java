@@ -3,7 +3,7 @@ package com.yvolabs.streamapi.exception;
 /**
  * @author Yvonne N
  */
-public class UserAlreadyExistsException extends RuntimeException {
+public class UserAlreadyExistsException extends ClientErrorException {
 
     public UserAlreadyExistsException(String email) {
         super("User with email " + email + " already exists");
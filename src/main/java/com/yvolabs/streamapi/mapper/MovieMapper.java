@@ -2,10 +2,13 @@ package com.yvolabs.streamapi.mapper;
 
 import com.yvolabs.streamapi.dto.MovieDto;
 import com.yvolabs.streamapi.model.Movie;
+import com.yvolabs.streamapi.util.ReleaseDates;
 import org.bson.types.ObjectId;
 import org.mapstruct.*;
 import org.mapstruct.factory.Mappers;
 
+import java.time.LocalDate;
+
 /**
  * @author Yvonne N
  */
@@ -15,10 +18,18 @@ public interface MovieMapper {
 
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
     @Mapping(source = "id", target = "id", qualifiedByName = "objectIdToString")
+    @Mapping(source = "reviewsIds", target = "reviewsIds", qualifiedByName = "objectIdToString")
+    @Mapping(source = "releaseDate", target = "releaseDate", qualifiedByName = "localDateToString")
     MovieDto movieToMovieDtoMapper(Movie movie);
 
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
     @Mapping(source = "id", target = "id", qualifiedByName = "stringToObjectId")
+    @Mapping(source = "reviewsIds", target = "reviewsIds", qualifiedByName = "stringToObjectId")
+    @Mapping(source = "releaseDate", target = "releaseDate", qualifiedByName = "stringToLocalDate")
+    @Mapping(target = "reviews", ignore = true)
+    @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "version", ignore = true)
     Movie movieDtoToMovieMapper(MovieDto movieDto);
 
     @BeanMapping(
@@ -26,6 +37,12 @@ public interface MovieMapper {
             nullValueCheckStrategy = NullValueCheckStrategy.ALWAYS
     )
     @Mapping(source = "id", target = "id", qualifiedByName = "stringToObjectId")
+    @Mapping(source = "reviewsIds", target = "reviewsIds", qualifiedByName = "stringToObjectId")
+    @Mapping(source = "releaseDate", target = "releaseDate", qualifiedByName = "stringToLocalDate")
+    @Mapping(target = "reviews", ignore = true)
+    @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "version", ignore = true)
     Movie updateMovieDto(MovieDto movieDto, @MappingTarget Movie movie);
 
 
@@ -41,4 +58,14 @@ public interface MovieMapper {
         }
         return null;
     }
+
+    @Named("localDateToString")
+    static String localDateToString(LocalDate date) {
+        return ReleaseDates.format(date);
+    }
+
+    @Named("stringToLocalDate")
+    static LocalDate stringToLocalDate(String date) {
+        return ReleaseDates.parse(date);
+    }
 }
@@ -19,6 +19,7 @@ public interface UserMapper {
 
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
     @Mapping(source = "id", target = "id", qualifiedByName = "stringToObjectId")
+    @Mapping(target = "version", ignore = true)
     StreamUser userDtoToStreamUser(UserDto userDto);
 
     @BeanMapping(
@@ -26,6 +27,7 @@ public interface UserMapper {
             nullValueCheckStrategy = NullValueCheckStrategy.ALWAYS
     )
     @Mapping(source = "id", target = "id", qualifiedByName = "stringToObjectId")
+    @Mapping(target = "version", ignore = true)
     StreamUser updateUserDto(UserDto userDto, @MappingTarget StreamUser user);
 
     @Named("objectIdToString")
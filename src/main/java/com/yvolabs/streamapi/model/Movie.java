@@ -5,27 +5,54 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.bson.types.ObjectId;
+import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.index.TextIndexed;
 import org.springframework.data.mongodb.core.mapping.Document;
-import org.springframework.data.mongodb.core.mapping.DocumentReference;
 
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.List;
 
 /**
  * @author Yvonne N
  */
 @Document(collection = "movies")
+// serves releasedFrom/releasedTo ranges and the (releaseDate, _id) keyset in both directions
+@CompoundIndex(name = "releaseDate_id", def = "{'releaseDate': 1, '_id': 1}")
+// the (updatedAt, _id) keyset of GET /movies/changes
+@CompoundIndex(name = "updatedAt_id", def = "{'updatedAt': 1, '_id': 1}")
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 @Data
 public class Movie {
     @Id
     private ObjectId id;
+    // single weighted text index backing GET /movies/search, a title hit counts three times a description hit
+    @TextIndexed(weight = 3)
     private String title;
+    @TextIndexed
     private String description;
-    private String releaseDate;
+    private LocalDate releaseDate; // BSON date at UTC midnight
+    @Indexed // multikey, used by the genre facets and genre filters
     private List<String> genres;
-    @DocumentReference
-    private List<Review> reviewsIds;
+    // raw review references, same layout as the previous @DocumentReference so no migration is needed
+    private List<ObjectId> reviewsIds;
+    // only populated on request (?expand=reviews), resolved for a whole page at once
+    @Transient
+    private List<Review> reviews;
+    // set by auditing on save, update based writes set updatedAt themselves (see MovieUpdates)
+    @CreatedDate
+    private Instant createdAt;
+    @LastModifiedDate
+    private Instant updatedAt;
+    // incremented by every write, the strong ETag of GET /movies/{id}
+    @Version
+    private Long version;
 }
@@ -0,0 +1,35 @@
+package com.yvolabs.streamapi.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Marks a deleted movie so delta syncs can tell clients to drop it, removed by mongo once the retention is over.
+ *
+ * @author Yvonne N
+ */
+@Document(collection = "movie_tombstones")
+@CompoundIndex(name = "deletedAt_id", def = "{'deletedAt': 1, '_id': 1}")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class MovieTombstone {
+    // sync tokens older than this may have missed deletes, keep in line with expireAfter below
+    public static final Duration RETENTION = Duration.ofDays(30);
+
+    @Id
+    private ObjectId id; // id of the deleted movie
+    @Indexed(name = "deletedAt_ttl", expireAfter = "30d")
+    private Instant deletedAt;
+}
@@ -9,6 +9,8 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.bson.types.ObjectId;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
@@ -34,6 +36,7 @@ public class StreamUser {
 
     @NotEmpty(message = "email is required")
     @Email(message = "please provide a valid email")
+    @Indexed(unique = true)
     private String email;
 
     @Size(min = 6, message = "password should be at least 6 characters long")
@@ -43,4 +46,8 @@ public class StreamUser {
 
     @NotEmpty(message = "roles are required")
     private String roles; //space separated string
+
+    // incremented by every write, the strong ETag of GET /users/{id}
+    @Version
+    private Long version;
 }
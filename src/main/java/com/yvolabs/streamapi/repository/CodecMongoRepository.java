@@ -0,0 +1,27 @@
+package com.yvolabs.streamapi.repository;
+
+import org.bson.RawBsonDocument;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.repository.NoRepositoryBean;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Repository whose reads decode with the entity codecs when they are registered, see SimpleCodecMongoRepository
+ *
+ * @author Yvonne N
+ */
+@NoRepositoryBean
+public interface CodecMongoRepository<T, ID> extends MongoRepository<T, ID> {
+
+    // filter, projection, sort, skip and limit of the query are applied
+    List<T> findAll(Query query);
+
+    // backed by a live cursor, callers must close the stream
+    Stream<T> stream(Query query);
+
+    // the stored documents as they come off the wire, never mapped to T
+    List<RawBsonDocument> findRaw(Query query);
+}
@@ -0,0 +1,207 @@
+package com.yvolabs.streamapi.repository;
+
+import com.yvolabs.streamapi.dto.CursorPage;
+import com.yvolabs.streamapi.dto.MovieBulkRequest;
+import com.yvolabs.streamapi.dto.MovieFilter;
+import com.yvolabs.streamapi.exception.InvalidObjectIdException;
+import com.yvolabs.streamapi.util.PageCursors;
+import com.yvolabs.streamapi.util.ReleaseDates;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.data.mongodb.core.schema.JsonSchemaObject;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Builds the movie read and bulk queries, shared by the blocking and the reactive services
+ *
+ * @author Yvonne N
+ */
+public final class MovieQueries {
+    // the lowest ObjectId, an all-zero _id is valid and the first page starts at it inclusively
+    private static final ObjectId MIN_OBJECT_ID = new ObjectId(new byte[12]);
+
+    // position of a first (full) sync, before every audited write
+    public static final PageCursors.SyncToken FULL_SYNC = new PageCursors.SyncToken(Instant.EPOCH, MIN_OBJECT_ID);
+
+    private MovieQueries() {
+    }
+
+    // fetches one extra document to know whether a next page exists without a count query
+    public static Query page(String cursor, int limit, MovieFilter filter, Sort.Direction releaseDateOrder) {
+        boolean firstPage = cursor == null || cursor.isEmpty();
+        Criteria criteria = withFilter(new Criteria(), filter);
+        Sort sort;
+
+        if (releaseDateOrder == null) {
+            // still a range on _id for the first page, so every page is the same index scan
+            if (firstPage) {
+                criteria.and("_id").gte(MIN_OBJECT_ID);
+            } else {
+                criteria.and("_id").gt(PageCursors.decode(cursor));
+            }
+            sort = Sort.by(Sort.Direction.ASC, "id");
+        } else {
+            // missing or not yet migrated release dates would sort ahead of every date, they are left out of this view
+            if (!hasReleaseDateRange(filter)) {
+                criteria.and("releaseDate").type(JsonSchemaObject.Type.dateType());
+            }
+            if (!firstPage) {
+                criteria = new Criteria().andOperator(
+                        criteria, afterReleaseDate(PageCursors.decodeReleaseDate(cursor), releaseDateOrder));
+            }
+            sort = Sort.by(releaseDateOrder, "releaseDate", "id");
+        }
+
+        return Query.query(criteria).with(sort).limit(limit + 1);
+    }
+
+    // cuts the extra document of a page query off and turns the last kept one into the next cursor
+    public static <T> CursorPage<T> toPage(List<T> results, int limit, Sort.Direction releaseDateOrder,
+                                           Function<T, ObjectId> idOf, Function<T, LocalDate> releaseDateOf) {
+        if (results.size() <= limit) {
+            return new CursorPage<>(results, null);
+        }
+
+        List<T> page = results.subList(0, limit);
+        T last = page.get(limit - 1);
+        String nextCursor = releaseDateOrder == null
+                ? PageCursors.encode(idOf.apply(last))
+                : PageCursors.encode(releaseDateOf.apply(last), idOf.apply(last));
+        return new CursorPage<>(page, nextCursor);
+    }
+
+    // empty when the page lies outside the searchable window
+    public static Optional<Query> search(String text, int page, int size, int maxResults, String... fields) {
+        // only the top matches are pageable, deep pages would make mongo score and skip most of the hits
+        // long, a huge page would overflow the int product back into the window
+        long skip = (long) page * size;
+        if (text == null || text.isBlank() || skip >= maxResults) {
+            return Optional.empty();
+        }
+
+        Query query = TextQuery.queryText(TextCriteria.forDefaultLanguage().matching(text))
+                .sortByScore()
+                .skip(skip)
+                .limit((int) Math.min(size, maxResults - skip));
+        // the textScore projection disables the implicit dto projection, so list the fields explicitly
+        if (fields.length > 0) {
+            query.fields().include(fields);
+        }
+        return Optional.of(query);
+    }
+
+    // keyset on (timestampField, _id) for the delta sync, served by the updatedAt_id and deletedAt_id indexes.
+    // Writes stamped just before settledBefore may not be visible yet, they are left for the next sync
+    public static Query changedSince(PageCursors.SyncToken after, Instant settledBefore, String timestampField, int limit) {
+        Criteria criteria = new Criteria().andOperator(
+                where(timestampField).lt(settledBefore),
+                new Criteria().orOperator(
+                        where(timestampField).gt(after.updatedAt()),
+                        where(timestampField).is(after.updatedAt()).and("_id").gt(after.id())));
+
+        return Query.query(criteria)
+                .with(Sort.by(Sort.Direction.ASC, timestampField, "id"))
+                .limit(limit + 1);
+    }
+
+    // a null expectedVersions matches the movie unconditionally, otherwise only while it still has one of them
+    public static Query byId(ObjectId id, List<Long> expectedVersions) {
+        Criteria criteria = where("_id").is(id);
+        if (expectedVersions != null) {
+            criteria.and("version").in(expectedVersions);
+        }
+        return Query.query(criteria);
+    }
+
+    // the movie only while it still has this version, a null version matches movies written before versioning
+    public static Query byIdAtVersion(ObjectId id, Long version) {
+        return Query.query(where("_id").is(id).and("version").is(version));
+    }
+
+    public static Query bulk(MovieBulkRequest request) {
+        return Query.query(bulkCriteria(request));
+    }
+
+    // one batch of the matches in _id order, after is the last _id of the previous batch, null for the first one
+    public static Query bulkBatch(MovieBulkRequest request, ObjectId after, int batchSize) {
+        Criteria criteria = after == null
+                ? bulkCriteria(request)
+                : new Criteria().andOperator(bulkCriteria(request), where("_id").gt(after));
+
+        return Query.query(criteria)
+                .with(Sort.by(Sort.Direction.ASC, "id"))
+                .limit(batchSize);
+    }
+
+    private static Criteria bulkCriteria(MovieBulkRequest request) {
+        Criteria criteria = new Criteria();
+
+        if (request.getIds() != null && !request.getIds().isEmpty()) {
+            criteria.and("_id").in(request.getIds().stream()
+                    .map(MovieQueries::convertStringToObjectId)
+                    .toList());
+        }
+
+        return withFilter(criteria, request.getFilter());
+    }
+
+    public static ObjectId convertStringToObjectId(String movieId) {
+        // checked up front, the IllegalArgumentException of new ObjectId would carry a full stack trace
+        if (movieId == null || !ObjectId.isValid(movieId)) {
+            throw new InvalidObjectIdException("movie", movieId);
+        }
+
+        return new ObjectId(movieId);
+    }
+
+    // keyset on (releaseDate, _id), served by the releaseDate_id index in either direction
+    private static Criteria afterReleaseDate(PageCursors.ReleaseDateCursor after, Sort.Direction order) {
+        if (order.isAscending()) {
+            return new Criteria().orOperator(
+                    where("releaseDate").gt(after.releaseDate()),
+                    where("releaseDate").is(after.releaseDate()).and("_id").gt(after.id()));
+        }
+        return new Criteria().orOperator(
+                where("releaseDate").lt(after.releaseDate()),
+                where("releaseDate").is(after.releaseDate()).and("_id").lt(after.id()));
+    }
+
+    private static Criteria withFilter(Criteria criteria, MovieFilter filter) {
+        if (filter == null) {
+            return criteria;
+        }
+        if (filter.getGenre() != null && !filter.getGenre().isBlank()) {
+            criteria.and("genres").is(filter.getGenre());
+        }
+
+        LocalDate releasedFrom = ReleaseDates.parse(filter.getReleasedFrom());
+        LocalDate releasedTo = ReleaseDates.parse(filter.getReleasedTo());
+        if (releasedFrom != null || releasedTo != null) {
+            // a range only matches BSON dates, so this is an index range scan
+            Criteria releaseDate = criteria.and("releaseDate");
+            if (releasedFrom != null) {
+                releaseDate.gte(releasedFrom);
+            }
+            if (releasedTo != null) {
+                releaseDate.lte(releasedTo);
+            }
+        }
+        return criteria;
+    }
+
+    private static boolean hasReleaseDateRange(MovieFilter filter) {
+        return filter != null && (ReleaseDates.parse(filter.getReleasedFrom()) != null
+                || ReleaseDates.parse(filter.getReleasedTo()) != null);
+    }
+}
@@ -0,0 +1,54 @@
+package com.yvolabs.streamapi.repository;
+
+import com.yvolabs.streamapi.dto.MovieDto;
+import com.yvolabs.streamapi.mapper.MovieMapper;
+import com.yvolabs.streamapi.util.ReleaseDates;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Builds partial updates for movies, only the fields present in the request end up in the $set
+ *
+ * @author Yvonne N
+ */
+public final class MovieUpdates {
+
+    private MovieUpdates() {
+    }
+
+    public static Update fromDto(MovieDto movieDto) {
+        Update update = new Update();
+
+        if (movieDto.getTitle() != null) {
+            update.set("title", movieDto.getTitle());
+        }
+        if (movieDto.getDescription() != null) {
+            update.set("description", movieDto.getDescription());
+        }
+        if (movieDto.getReleaseDate() != null) {
+            update.set("releaseDate", ReleaseDates.parse(movieDto.getReleaseDate()));
+        }
+        if (movieDto.getGenres() != null) {
+            update.set("genres", movieDto.getGenres());
+        }
+        if (movieDto.getReviewsIds() != null) {
+            update.set("reviewsIds", movieDto.getReviewsIds().stream()
+                    .map(MovieMapper::stringToObjectId)
+                    .toList());
+        }
+
+        return update;
+    }
+
+    // auditing and versioning only cover saved entities, update based writes stamp updatedAt and bump the version here
+    public static Update touch(Update update, Instant updatedAt) {
+        return update.set("updatedAt", updatedAt).inc("version", 1);
+    }
+
+    // mongo dates hold milliseconds, truncating keeps local copies equal to what is stored
+    public static Instant now() {
+        return Instant.now().truncatedTo(ChronoUnit.MILLIS);
+    }
+}
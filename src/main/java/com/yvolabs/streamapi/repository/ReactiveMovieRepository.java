@@ -0,0 +1,13 @@
+package com.yvolabs.streamapi.repository;
+
+import com.yvolabs.streamapi.model.Movie;
+import org.bson.types.ObjectId;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+/**
+ * @author Yvonne N
+ */
+@Profile("reactive")
+public interface ReactiveMovieRepository extends ReactiveMongoRepository<Movie, ObjectId> {
+}
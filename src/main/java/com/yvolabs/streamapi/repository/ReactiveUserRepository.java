@@ -0,0 +1,15 @@
+package com.yvolabs.streamapi.repository;
+
+import com.yvolabs.streamapi.model.StreamUser;
+import org.bson.types.ObjectId;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Mono;
+
+/**
+ * @author Yvonne N
+ */
+@Profile("reactive")
+public interface ReactiveUserRepository extends ReactiveMongoRepository<StreamUser, ObjectId> {
+    Mono<StreamUser> findByEmail(String email);
+}
@@ -0,0 +1,10 @@
+package com.yvolabs.streamapi.repository;
+
+import com.yvolabs.streamapi.model.Review;
+import org.bson.types.ObjectId;
+
+/**
+ * @author Yvonne N
+ */
+public interface ReviewRepository extends CodecMongoRepository<Review, ObjectId> {
+}
@@ -0,0 +1,136 @@
+package com.yvolabs.streamapi.repository;
+
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.yvolabs.streamapi.codec.EntityCodecProvider;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.repository.query.MongoEntityInformation;
+import org.springframework.data.mongodb.repository.support.SimpleMongoRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Base class of all blocking repositories (see MongoConfiguration). When the mongo client has an entity codec for the
+ * domain type (api.mongo.codecs.enabled) the id and query reads run on a typed driver collection and decode straight
+ * from BSON, otherwise they go through the mapping converter like SimpleMongoRepository.
+ * Queries are still mapped by the QueryMapper, so property names and id conversion behave the same on both paths.
+ * Derived query methods and writes always use the converter.
+ *
+ * @author Yvonne N
+ */
+public class SimpleCodecMongoRepository<T, ID> extends SimpleMongoRepository<T, ID> implements CodecMongoRepository<T, ID> {
+    private final MongoEntityInformation<T, ID> entityInformation;
+    private final MongoOperations mongoOperations;
+    private final QueryMapper queryMapper;
+    private final MongoPersistentEntity<?> entity;
+
+    // resolved on the first read, null when reads go through the converter
+    private volatile MongoCollection<T> codecCollection;
+    private volatile boolean codecCollectionResolved;
+
+    public SimpleCodecMongoRepository(MongoEntityInformation<T, ID> entityInformation, MongoOperations mongoOperations) {
+        super(entityInformation, mongoOperations);
+        this.entityInformation = entityInformation;
+        this.mongoOperations = mongoOperations;
+        this.queryMapper = new QueryMapper(mongoOperations.getConverter());
+        this.entity = mongoOperations.getConverter().getMappingContext()
+                .getRequiredPersistentEntity(entityInformation.getJavaType());
+    }
+
+    @Override
+    public Optional<T> findById(ID id) {
+        MongoCollection<T> collection = codecCollection();
+        if (collection == null) {
+            return super.findById(id);
+        }
+        return Optional.ofNullable(collection.find(new Document("_id", queryMapper.convertId(id))).first());
+    }
+
+    @Override
+    public List<T> findAll() {
+        MongoCollection<T> collection = codecCollection();
+        if (collection == null) {
+            return super.findAll();
+        }
+        return collection.find().into(new ArrayList<>());
+    }
+
+    @Override
+    public List<T> findAllById(Iterable<ID> ids) {
+        MongoCollection<T> collection = codecCollection();
+        if (collection == null) {
+            return super.findAllById(ids);
+        }
+
+        List<Object> convertedIds = new ArrayList<>();
+        ids.forEach((id) -> convertedIds.add(queryMapper.convertId(id)));
+        return collection.find(new Document("_id", new Document("$in", convertedIds))).into(new ArrayList<>());
+    }
+
+    @Override
+    public List<T> findAll(Query query) {
+        MongoCollection<T> collection = codecCollection();
+        if (collection == null) {
+            return mongoOperations.find(query, entityInformation.getJavaType(), entityInformation.getCollectionName());
+        }
+        return find(collection, query).into(new ArrayList<>());
+    }
+
+    @Override
+    public Stream<T> stream(Query query) {
+        MongoCollection<T> collection = codecCollection();
+        if (collection == null) {
+            return mongoOperations.stream(query, entityInformation.getJavaType(), entityInformation.getCollectionName());
+        }
+
+        MongoCursor<T> cursor = find(collection, query).cursor();
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(cursor, Spliterator.ORDERED), false)
+                .onClose(cursor::close);
+    }
+
+    @Override
+    public List<RawBsonDocument> findRaw(Query query) {
+        MongoCollection<RawBsonDocument> collection = mongoOperations.getCollection(entityInformation.getCollectionName())
+                .withDocumentClass(RawBsonDocument.class);
+        return find(collection, query).into(new ArrayList<>());
+    }
+
+    // collation, hints and other query meta are not used by the services and not applied here
+    private <D> FindIterable<D> find(MongoCollection<D> collection, Query query) {
+        FindIterable<D> find = collection.find(queryMapper.getMappedObject(query.getQueryObject(), entity))
+                .projection(queryMapper.getMappedFields(query.getFieldsObject(), entity))
+                .sort(queryMapper.getMappedSort(query.getSortObject(), entity));
+
+        if (query.getSkip() > 0) {
+            find.skip((int) query.getSkip());
+        }
+        if (query.isLimited()) {
+            find.limit(query.getLimit());
+        }
+        return find;
+    }
+
+    private MongoCollection<T> codecCollection() {
+        if (!codecCollectionResolved) {
+            Class<T> type = entityInformation.getJavaType();
+            MongoCollection<Document> collection = mongoOperations.getCollection(entityInformation.getCollectionName());
+            codecCollection = EntityCodecProvider.isRegistered(collection.getCodecRegistry(), type)
+                    ? collection.withDocumentClass(type)
+                    : null;
+            codecCollectionResolved = true;
+        }
+        return codecCollection;
+    }
+}
@@ -0,0 +1,38 @@
+package com.yvolabs.streamapi.repository;
+
+import com.yvolabs.streamapi.dto.UserDto;
+import org.springframework.data.mongodb.core.query.Update;
+
+/**
+ * Builds partial updates for users, only the fields present in the request end up in the $set
+ *
+ * @author Yvonne N
+ */
+public final class UserUpdates {
+
+    private UserUpdates() {
+    }
+
+    public static Update fromDto(UserDto userDto) {
+        Update update = new Update();
+
+        if (userDto.getFirstName() != null) {
+            update.set("firstName", userDto.getFirstName());
+        }
+        if (userDto.getLastName() != null) {
+            update.set("lastName", userDto.getLastName());
+        }
+        if (userDto.getEmail() != null) {
+            update.set("email", userDto.getEmail());
+        }
+        if (userDto.getRoles() != null) {
+            update.set("roles", userDto.getRoles());
+        }
+        // primitive, always part of the request
+        update.set("enabled", userDto.isEnabled());
+        // the version only moves on save, partial updates bump it themselves
+        update.inc("version", 1);
+
+        return update;
+    }
+}
@@ -1,5 +1,6 @@
 package com.yvolabs.streamapi.response;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -20,4 +21,7 @@ public class Result<T> {
     private String message; // Response message
 
     private T data; // The response payload
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor; // Opaque cursor for the next page, absent on the last page
 }
@@ -14,5 +14,7 @@ public class StatusCode {
 
     public static final int NOT_FOUND = 404; // Not found
 
+    public static final int PRECONDITION_FAILED = 412; // If-Match did not match the current version
+
     public static final int INTERNAL_SERVER_ERROR = 500; // Server internal error
 }
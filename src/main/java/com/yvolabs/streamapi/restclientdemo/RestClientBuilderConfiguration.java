@@ -1,10 +1,15 @@
 package com.yvolabs.streamapi.restclientdemo;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
 import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.web.client.RestClient;
 
+import java.net.http.HttpClient;
+
 /**
  * @author Yvonne N
  */
@@ -12,8 +17,21 @@ import org.springframework.web.client.RestClient;
 public class RestClientBuilderConfiguration {
 
     @Bean
+    @ConditionalOnThreading(Threading.PLATFORM)
     public RestClient.Builder restClientBuilder() {
         return RestClient.builder()
                 .requestFactory(new JdkClientHttpRequestFactory());
     }
+
+    // spring.threads.virtual.enabled on java 21, the jdk client hands its response handling to virtual threads too
+    @Bean
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public RestClient.Builder virtualThreadRestClientBuilder() {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .executor(new VirtualThreadTaskExecutor("rest-client-"))
+                .build();
+
+        return RestClient.builder()
+                .requestFactory(new JdkClientHttpRequestFactory(httpClient));
+    }
 }
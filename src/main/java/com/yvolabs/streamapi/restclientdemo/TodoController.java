@@ -3,6 +3,7 @@ package com.yvolabs.streamapi.restclientdemo;
 import com.yvolabs.streamapi.response.Result;
 import com.yvolabs.streamapi.response.StatusCode;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -16,6 +17,7 @@ import java.util.List;
 @RestController
 @RequestMapping("${api.endpoint.base-url}/todos")
 @RequiredArgsConstructor
+@Profile("!reactive")
 public class TodoController {
 
     private final TodoService todoService;
@@ -4,6 +4,7 @@ import com.yvolabs.streamapi.response.Result;
 import com.yvolabs.streamapi.response.StatusCode;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -19,6 +20,7 @@ import java.util.Map;
 @RequestMapping("${api.endpoint.base-url}/users")
 @RequiredArgsConstructor
 @Slf4j
+@Profile("!reactive")
 public class AuthController {
     private final AuthService authService;
 
@@ -2,6 +2,8 @@ package com.yvolabs.streamapi.security;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
@@ -9,6 +11,7 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
  * @author Yvonne N
  */
 @Configuration
+@Profile("!reactive")
 public class CorsConfiguration {
 
     @Bean
@@ -18,7 +21,8 @@ public class CorsConfiguration {
 
             @Override
             public void addCorsMappings(CorsRegistry registry) {
-                registry.addMapping("/**"); // Enable CORS for the whole application.
+                registry.addMapping("/**") // Enable CORS for the whole application.
+                        .exposedHeaders(HttpHeaders.ETAG); // readable by browser clients for conditional requests
             }
         };
     }
@@ -0,0 +1,35 @@
+package com.yvolabs.streamapi.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yvolabs.streamapi.response.Result;
+import com.yvolabs.streamapi.response.StatusCode;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.web.server.authorization.ServerAccessDeniedHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * @author Yvonne N
+ */
+@Component
+@Profile("reactive")
+@RequiredArgsConstructor
+public class CustomServerAccessDeniedHandler implements ServerAccessDeniedHandler {
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public Mono<Void> handle(ServerWebExchange exchange, AccessDeniedException denied) {
+        Result<?> result = Result.builder()
+                .flag(false)
+                .code(StatusCode.FORBIDDEN)
+                .message("No permission to access this resource")
+                .data(denied.getMessage())
+                .build();
+
+        return CustomServerAuthenticationEntryPoint.write(exchange.getResponse(), HttpStatus.FORBIDDEN, result, objectMapper);
+    }
+}
@@ -0,0 +1,76 @@
+package com.yvolabs.streamapi.security;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yvolabs.streamapi.response.Result;
+import com.yvolabs.streamapi.response.StatusCode;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.security.authentication.AccountStatusException;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.oauth2.server.resource.InvalidBearerTokenException;
+import org.springframework.security.web.server.ServerAuthenticationEntryPoint;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of the basic and bearer token entry points, there is no handler exception resolver to
+ * delegate to so the {@link Result} is written here with the same messages as the servlet exception handlers
+ *
+ * @author Yvonne N
+ */
+@Component
+@Profile("reactive")
+@RequiredArgsConstructor
+public class CustomServerAuthenticationEntryPoint implements ServerAuthenticationEntryPoint {
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public Mono<Void> commence(ServerWebExchange exchange, AuthenticationException ex) {
+        exchange.getResponse().getHeaders().add(HttpHeaders.WWW_AUTHENTICATE, "Basic realm=\"Realm\"");
+
+        Result<?> result = Result.builder()
+                .flag(false)
+                .code(StatusCode.UNAUTHORIZED)
+                .message(messageFor(ex))
+                .data(ex.getMessage())
+                .build();
+
+        return write(exchange.getResponse(), HttpStatus.UNAUTHORIZED, result, objectMapper);
+    }
+
+    private static String messageFor(AuthenticationException ex) {
+        if (ex instanceof UsernameNotFoundException || ex instanceof BadCredentialsException) {
+            return "username or password is incorrect";
+        }
+        if (ex instanceof AccountStatusException) {
+            return "User account is abnormal";
+        }
+        if (ex instanceof InvalidBearerTokenException) {
+            return "The access token provided is expired, revoked, malformed or invalid for other reasons.";
+        }
+        return "Login credentials are missing.";
+    }
+
+    static Mono<Void> write(ServerHttpResponse response, HttpStatus status, Result<?> result, ObjectMapper objectMapper) {
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(result);
+        } catch (JsonProcessingException e) {
+            return Mono.error(e);
+        }
+
+        response.setStatusCode(status);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        DataBuffer buffer = response.bufferFactory().wrap(body);
+        return response.writeWith(Mono.just(buffer));
+    }
+}
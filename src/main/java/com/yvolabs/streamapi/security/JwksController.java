@@ -0,0 +1,34 @@
+package com.yvolabs.streamapi.security;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * The public jwt keys as a JSON Web Key Set (RFC 7517), for services validating our tokens themselves.
+ * Plain JWKS rather than a Result envelope, that is what JWKS clients expect. Served on both profiles.
+ *
+ * @author Yvonne N
+ */
+@RestController
+public class JwksController {
+    public static final String PATH = "/.well-known/jwks.json";
+
+    // the keys only change with a restart
+    private final Map<String, Object> jwks;
+
+    public JwksController(JwtKeys jwtKeys) {
+        this.jwks = jwtKeys.verificationKeys().toJSONObject();
+    }
+
+    @GetMapping(PATH)
+    public ResponseEntity<Map<String, Object>> getJwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofMinutes(5)).cachePublic())
+                .body(jwks);
+    }
+}
@@ -0,0 +1,144 @@
+package com.yvolabs.streamapi.security;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import org.springframework.core.io.Resource;
+import org.springframework.security.converter.RsaKeyConverters;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.KeyStore;
+import java.security.interfaces.RSAPrivateCrtKey;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.RSAPublicKeySpec;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * The RSA keys of the jwt signatures. One key signs new tokens, every key verifies tokens carrying its kid, so a
+ * retired key keeps verifying the tokens it signed until it is removed. The public keys are published as the JWKS
+ * of /.well-known/jwks.json.
+ *
+ * @author Yvonne N
+ */
+public final class JwtKeys {
+    private final RSAKey signingKey;
+    private final JWKSet verificationKeys;
+
+    private JwtKeys(RSAKey signingKey, List<RSAKey> verificationKeys) {
+        this.signingKey = signingKey;
+        this.verificationKeys = new JWKSet(verificationKeys.stream()
+                .<JWK>map(RSAKey::toPublicJWK)
+                .toList());
+    }
+
+    // every RSA key entry of the keystore, the alias is its kid. Certificate only entries verify but never sign
+    public static JwtKeys fromKeyStore(Resource location, String type, char[] password, String signingKeyId) {
+        List<RSAKey> keys;
+        try (InputStream in = location.getInputStream()) {
+            KeyStore keyStore = KeyStore.getInstance(type);
+            keyStore.load(in, password);
+            keys = JWKSet.load(keyStore, (alias) -> password).getKeys().stream()
+                    .filter(RSAKey.class::isInstance)
+                    .map(RSAKey.class::cast)
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("jwt keystore " + location + " could not be read", e);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("jwt keystore " + location + " could not be loaded", e);
+        }
+
+        List<RSAKey> signingKeys = keys.stream()
+                .filter(RSAKey::isPrivate)
+                .filter((key) -> signingKeyId == null || signingKeyId.isEmpty() || signingKeyId.equals(key.getKeyID()))
+                .toList();
+        if (signingKeys.size() != 1) {
+            throw new IllegalStateException("jwt keystore " + location + " has " + signingKeys.size()
+                    + " signing keys matching signing-key-id '" + signingKeyId + "', exactly one is needed");
+        }
+        return new JwtKeys(signingKeys.get(0), keys);
+    }
+
+    // a PKCS#8 private key that signs and X.509 public keys of retired keys, the kid is the RFC 7638 thumbprint
+    public static JwtKeys fromPem(Resource privateKey, List<Resource> retiredPublicKeys) {
+        RSAPrivateKey rsaPrivateKey = read(privateKey, RsaKeyConverters.pkcs8()::convert);
+        if (!(rsaPrivateKey instanceof RSAPrivateCrtKey crtKey)) {
+            throw new IllegalStateException("jwt private key " + privateKey + " has no public exponent");
+        }
+
+        RSAKey signingKey = withThumbprint(new RSAKey.Builder(publicKeyOf(crtKey)).privateKey(crtKey));
+        List<RSAKey> keys = new ArrayList<>(List.of(signingKey));
+        retiredPublicKeys.forEach((resource) ->
+                keys.add(withThumbprint(new RSAKey.Builder(read(resource, RsaKeyConverters.x509()::convert)))));
+        return new JwtKeys(signingKey, keys);
+    }
+
+    // tokens only verify on this instance and only until it restarts
+    public static JwtKeys generate() {
+        try {
+            KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+            keyPairGenerator.initialize(2048);
+            KeyPair keyPair = keyPairGenerator.generateKeyPair();
+            RSAKey signingKey = withThumbprint(new RSAKey.Builder((RSAPublicKey) keyPair.getPublic())
+                    .privateKey((RSAPrivateKey) keyPair.getPrivate()));
+            return new JwtKeys(signingKey, List.of(signingKey));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("jwt key pair could not be generated", e);
+        }
+    }
+
+    public RSAKey signingKey() {
+        return signingKey;
+    }
+
+    public String signingKeyId() {
+        return signingKey.getKeyID();
+    }
+
+    // public keys only
+    public JWKSet verificationKeys() {
+        return verificationKeys;
+    }
+
+    // the keys a token with this header may be signed with, by kid, or all of them for tokens without one
+    public List<JWK> select(JWSHeader header) {
+        return new JWKSelector(JWKMatcher.forJWSHeader(header)).select(verificationKeys);
+    }
+
+    private static RSAKey withThumbprint(RSAKey.Builder key) {
+        try {
+            return key.keyIDFromThumbprint().build();
+        } catch (JOSEException e) {
+            throw new IllegalStateException("jwt key thumbprint could not be computed", e);
+        }
+    }
+
+    private static RSAPublicKey publicKeyOf(RSAPrivateCrtKey privateKey) {
+        try {
+            return (RSAPublicKey) KeyFactory.getInstance("RSA").generatePublic(
+                    new RSAPublicKeySpec(privateKey.getModulus(), privateKey.getPublicExponent()));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("jwt public key could not be derived", e);
+        }
+    }
+
+    private static <T> T read(Resource resource, Function<InputStream, T> converter) {
+        try (InputStream in = resource.getInputStream()) {
+            return converter.apply(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("jwt key " + resource + " could not be read", e);
+        }
+    }
+}
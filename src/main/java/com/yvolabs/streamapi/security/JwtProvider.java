@@ -4,6 +4,8 @@ package com.yvolabs.streamapi.security;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
 import org.springframework.security.oauth2.jwt.JwtClaimsSet;
 import org.springframework.security.oauth2.jwt.JwtEncoder;
 import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
@@ -21,6 +23,7 @@ import java.util.stream.Collectors;
 public class JwtProvider {
 
     private final JwtEncoder jwtEncoder;
+    private final JwtKeys jwtKeys;
 
     public String createToken(Authentication authentication) {
 
@@ -39,8 +42,13 @@ public class JwtProvider {
                 .claim("authorities", authorities)
                 .build();
 
+        // the kid tells every instance which key verifies the token, also after the signing key is rotated
+        JwsHeader header = JwsHeader.with(SignatureAlgorithm.RS256)
+                .keyId(jwtKeys.signingKeyId())
+                .build();
+
         return this.jwtEncoder
-                .encode(JwtEncoderParameters.from(claims))
+                .encode(JwtEncoderParameters.from(header, claims))
                 .getTokenValue();
     }
 }
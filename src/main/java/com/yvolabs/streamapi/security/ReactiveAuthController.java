@@ -0,0 +1,41 @@
+package com.yvolabs.streamapi.security;
+
+import com.yvolabs.streamapi.response.Result;
+import com.yvolabs.streamapi.response.StatusCode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Same contract as {@link AuthController}, served on the reactive profile
+ *
+ * @author Yvonne N
+ */
+@RestController
+@RequestMapping("${api.endpoint.base-url}/users")
+@RequiredArgsConstructor
+@Profile("reactive")
+@Slf4j
+public class ReactiveAuthController {
+    private final AuthService authService;
+
+    @PostMapping("/login")
+    public Result<?> getLoginInfo(Authentication authentication) {
+        log.info("Authenticated user: {}", authentication.getPrincipal().toString());
+
+        Map<String, Object> loginInfo = authService.createLoginInfo(authentication);
+
+        return Result.builder()
+                .flag(true)
+                .code(StatusCode.SUCCESS)
+                .message("User Info and JSON Web Token")
+                .data(loginInfo)
+                .build();
+    }
+}
@@ -0,0 +1,98 @@
+package com.yvolabs.streamapi.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.config.Customizer;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.security.oauth2.server.resource.authentication.ReactiveJwtAuthenticationConverterAdapter;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import org.springframework.web.cors.reactive.CorsConfigurationSource;
+import org.springframework.web.cors.reactive.UrlBasedCorsConfigurationSource;
+import reactor.core.publisher.Flux;
+
+import static org.springframework.http.HttpMethod.*;
+
+/**
+ * {@link SecurityConfiguration} ported to a {@link SecurityWebFilterChain} for the reactive profile
+ *
+ * @author Yvonne N
+ */
+@Configuration
+@EnableWebFluxSecurity
+@Profile("reactive")
+public class ReactiveSecurityConfiguration {
+
+    @Value("${api.endpoint.base-url}")
+    String baseUrl;
+
+    private final CustomServerAuthenticationEntryPoint customServerAuthenticationEntryPoint;
+    private final CustomServerAccessDeniedHandler customServerAccessDeniedHandler;
+
+    // jwt signature verification keys
+    private final JwtKeys jwtKeys;
+
+    public ReactiveSecurityConfiguration(CustomServerAuthenticationEntryPoint customServerAuthenticationEntryPoint,
+                                         CustomServerAccessDeniedHandler customServerAccessDeniedHandler,
+                                         JwtKeys jwtKeys) {
+        this.customServerAuthenticationEntryPoint = customServerAuthenticationEntryPoint;
+        this.customServerAccessDeniedHandler = customServerAccessDeniedHandler;
+        this.jwtKeys = jwtKeys;
+    }
+
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http,
+                                                         JwtAuthenticationConverter jwtAuthenticationConverter) {
+        return http
+                .authorizeExchange((exchanges) -> exchanges
+                        .pathMatchers(GET, baseUrl + "/movies/**").permitAll()
+                        .pathMatchers(POST, baseUrl + "/movies/**").hasAuthority("ROLE_user")
+                        .pathMatchers(PATCH, baseUrl + "/movies/**").hasAuthority("ROLE_user")
+                        .pathMatchers(DELETE, baseUrl + "/movies/**").hasAuthority("ROLE_user")
+
+                        .pathMatchers(GET, baseUrl + "/users/**").hasAuthority("ROLE_admin")
+                        .pathMatchers(POST, baseUrl + "/users/**").hasAuthority("ROLE_admin")
+                        .pathMatchers(PUT, baseUrl + "/users/**").hasAuthority("ROLE_admin")
+                        .pathMatchers(DELETE, baseUrl + "/users/**").hasAuthority("ROLE_admin")
+
+                        .pathMatchers(GET, "/actuator/health").permitAll()
+                        .pathMatchers(GET, JwksController.PATH).permitAll()
+                        .pathMatchers("/actuator/**").hasAuthority("ROLE_admin")
+                        .anyExchange().authenticated())
+                .csrf(ServerHttpSecurity.CsrfSpec::disable)
+                .cors(Customizer.withDefaults())
+                .httpBasic((httpBasic) -> httpBasic.authenticationEntryPoint(this.customServerAuthenticationEntryPoint))
+                .oauth2ResourceServer((oauth2) -> oauth2
+                        .jwt((jwt) -> jwt.jwtAuthenticationConverter(
+                                new ReactiveJwtAuthenticationConverterAdapter(jwtAuthenticationConverter)))
+                        .authenticationEntryPoint(this.customServerAuthenticationEntryPoint)
+                        .accessDeniedHandler(this.customServerAccessDeniedHandler))
+                .exceptionHandling((exceptionHandling) -> exceptionHandling
+                        .authenticationEntryPoint(this.customServerAuthenticationEntryPoint)
+                        .accessDeniedHandler(this.customServerAccessDeniedHandler))
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance()) // stateless, like the servlet chain
+                .build();
+    }
+
+    // used by spring-security to decode Encoded token when used to authenticate a request, the kid picks the key
+    @Bean
+    public ReactiveJwtDecoder reactiveJwtDecoder() {
+        return NimbusReactiveJwtDecoder
+                .withJwkSource((jwt) -> Flux.fromIterable(jwtKeys.select(jwt.getHeader())))
+                .build();
+    }
+
+    // picked up by cors(), the reactive equivalent of CorsConfiguration
+    @Bean
+    public CorsConfigurationSource corsConfigurationSource() {
+        UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
+        source.registerCorsConfiguration("/**", new org.springframework.web.cors.CorsConfiguration().applyPermitDefaultValues());
+        return source;
+    }
+}
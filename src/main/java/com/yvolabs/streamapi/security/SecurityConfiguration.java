@@ -1,41 +1,30 @@
 package com.yvolabs.streamapi.security;
 
-import com.nimbusds.jose.jwk.JWK;
-import com.nimbusds.jose.jwk.JWKSet;
-import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.JWSAlgorithm;
 import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
-import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
 import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
-import org.springframework.security.oauth2.jwt.JwtEncoder;
 import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
-import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
-import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
-import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
 import org.springframework.security.web.SecurityFilterChain;
 
-import java.security.KeyPair;
-import java.security.KeyPairGenerator;
-import java.security.NoSuchAlgorithmException;
-import java.security.interfaces.RSAPrivateKey;
-import java.security.interfaces.RSAPublicKey;
-
 import static org.springframework.http.HttpMethod.*;
 
 /**
  * @author Yvonne N
  */
 @Configuration
+@Profile("!reactive")
 public class SecurityConfiguration {
 
     @Value("${api.endpoint.base-url}")
@@ -45,26 +34,18 @@ public class SecurityConfiguration {
     private final CustomBearerTokenAuthenticationEntryPoint customBearerTokenAuthenticationEntryPoint;
     private final CustomBearerTokenAccessDeniedHandler customBearerTokenAccessDeniedHandler;
 
-    // jwt signing keys
-    private final RSAPublicKey publicKey;
-    private final RSAPrivateKey privateKey;
+    // jwt signature verification keys
+    private final JwtKeys jwtKeys;
 
 
     public SecurityConfiguration(CustomBasicAuthenticationEntryPoint customBasicAuthenticationEntryPoint,
                                  CustomBearerTokenAuthenticationEntryPoint customBearerTokenAuthenticationEntryPoint,
-                                 CustomBearerTokenAccessDeniedHandler customBearerTokenAccessDeniedHandler)
-            throws NoSuchAlgorithmException {
+                                 CustomBearerTokenAccessDeniedHandler customBearerTokenAccessDeniedHandler,
+                                 JwtKeys jwtKeys) {
         this.customBasicAuthenticationEntryPoint = customBasicAuthenticationEntryPoint;
         this.customBearerTokenAuthenticationEntryPoint = customBearerTokenAuthenticationEntryPoint;
         this.customBearerTokenAccessDeniedHandler = customBearerTokenAccessDeniedHandler;
-
-        // Generate a public/private key pair in java, everytime we restart the project will have a new set of keys
-        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
-        keyPairGenerator.initialize(2048);
-        KeyPair keyPair = keyPairGenerator.generateKeyPair();
-        this.publicKey = (RSAPublicKey) keyPair.getPublic();
-        this.privateKey = (RSAPrivateKey) keyPair.getPrivate();
-
+        this.jwtKeys = jwtKeys;
     }
 
     @Bean
@@ -84,6 +65,10 @@ public class SecurityConfiguration {
                             .requestMatchers(HttpMethod.POST, baseUrl + "/users/**").hasAuthority("ROLE_admin")
                             .requestMatchers(HttpMethod.PUT, baseUrl + "/users/**").hasAuthority("ROLE_admin")
                             .requestMatchers(HttpMethod.DELETE, baseUrl + "/users/**").hasAuthority("ROLE_admin")
+
+                            .requestMatchers(GET, "/actuator/health").permitAll()
+                            .requestMatchers(GET, JwksController.PATH).permitAll()
+                            .requestMatchers("/actuator/**").hasAuthority("ROLE_admin")
                             .anyRequest().authenticated();
                 })
                 .csrf(AbstractHttpConfigurer::disable)
@@ -97,41 +82,17 @@ public class SecurityConfiguration {
                 .build();
     }
 
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
-    }
-
-    // used when login returns encoded token
-    @Bean
-    public JwtEncoder jwtEncoder() {
-        JWK jsonWebKey = new RSAKey.Builder(this.publicKey)
-                .privateKey(this.privateKey)
-                .build();
-
-        JWKSource<SecurityContext> jwkSet = new ImmutableJWKSet<>(new JWKSet(jsonWebKey));
-
-        return new NimbusJwtEncoder(jwkSet);
-    }
-
-    // used by spring-security to decode Encoded token when used to authenticate a request
+    // used by spring-security to decode Encoded token when used to authenticate a request, the kid picks the key
     @Bean
     public JwtDecoder jwtDecoder() {
-        return NimbusJwtDecoder
-                .withPublicKey(this.publicKey)
-                .build();
+        DefaultJWTProcessor<SecurityContext> jwtProcessor = new DefaultJWTProcessor<>();
+        jwtProcessor.setJWSKeySelector(new JWSVerificationKeySelector<>(
+                JWSAlgorithm.RS256, new ImmutableJWKSet<>(this.jwtKeys.verificationKeys())));
+        // the decoder validates the claims itself, like NimbusJwtDecoder.withPublicKey
+        jwtProcessor.setJWTClaimsSetVerifier((claims, context) -> {
+        });
+
+        return new NimbusJwtDecoder(jwtProcessor);
     }
 
-    @Bean
-    public JwtAuthenticationConverter jwtAuthenticationConverter() {
-        JwtGrantedAuthoritiesConverter jwtGrantedAuthoritiesConverter = new JwtGrantedAuthoritiesConverter();
-        jwtGrantedAuthoritiesConverter.setAuthoritiesClaimName("authorities");
-        jwtGrantedAuthoritiesConverter.setAuthorityPrefix("");
-
-        JwtAuthenticationConverter converter = new JwtAuthenticationConverter();
-        converter.setJwtGrantedAuthoritiesConverter(jwtGrantedAuthoritiesConverter);
-        return converter;
-    }
-
-
 }
@@ -0,0 +1,92 @@
+package com.yvolabs.streamapi.security;
+
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Keys and encoders shared by the servlet and the reactive security filter chains
+ *
+ * @author Yvonne N
+ */
+@Configuration
+@Slf4j
+public class SecurityKeyConfiguration {
+
+    @Value("${api.security.jwt.keystore.location:}")
+    String keyStoreLocation;
+
+    @Value("${api.security.jwt.keystore.type:PKCS12}")
+    String keyStoreType;
+
+    @Value("${api.security.jwt.keystore.password:}")
+    String keyStorePassword;
+
+    @Value("${api.security.jwt.signing-key-id:}")
+    String signingKeyId;
+
+    @Value("${api.security.jwt.pem.private-key:}")
+    String pemPrivateKey;
+
+    @Value("${api.security.jwt.pem.retired-public-keys:}")
+    String[] pemRetiredPublicKeys;
+
+    // every instance has to load the same keys, otherwise a token only verifies on the instance that issued it
+    @Bean
+    public JwtKeys jwtKeys(ResourceLoader resourceLoader) {
+        if (!keyStoreLocation.isEmpty()) {
+            return JwtKeys.fromKeyStore(resourceLoader.getResource(keyStoreLocation), keyStoreType,
+                    keyStorePassword.toCharArray(), signingKeyId);
+        }
+        if (!pemPrivateKey.isEmpty()) {
+            List<Resource> retiredPublicKeys = Arrays.stream(pemRetiredPublicKeys)
+                    .filter((location) -> !location.isBlank())
+                    .map((location) -> resourceLoader.getResource(location.trim()))
+                    .toList();
+            return JwtKeys.fromPem(resourceLoader.getResource(pemPrivateKey), retiredPublicKeys);
+        }
+
+        log.warn("no jwt keys configured (api.security.jwt), tokens are signed with a generated key and stop verifying on restart");
+        return JwtKeys.generate();
+    }
+
+    @Bean
+    public PasswordEncoder passwordEncoder() {
+        return new BCryptPasswordEncoder();
+    }
+
+    // used when login returns encoded token, only the signing key is offered
+    @Bean
+    public JwtEncoder jwtEncoder(JwtKeys jwtKeys) {
+        JWKSource<SecurityContext> jwkSet = new ImmutableJWKSet<>(new JWKSet(jwtKeys.signingKey()));
+
+        return new NimbusJwtEncoder(jwkSet);
+    }
+
+    @Bean
+    public JwtAuthenticationConverter jwtAuthenticationConverter() {
+        JwtGrantedAuthoritiesConverter jwtGrantedAuthoritiesConverter = new JwtGrantedAuthoritiesConverter();
+        jwtGrantedAuthoritiesConverter.setAuthoritiesClaimName("authorities");
+        jwtGrantedAuthoritiesConverter.setAuthorityPrefix("");
+
+        JwtAuthenticationConverter converter = new JwtAuthenticationConverter();
+        converter.setJwtGrantedAuthoritiesConverter(jwtGrantedAuthoritiesConverter);
+        return converter;
+    }
+}
@@ -0,0 +1,129 @@
+package com.yvolabs.streamapi.service;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Coalesces concurrent point lookups into one batch query (api.batching.find-by-id).
+ * The first caller of a batch waits out the window and then runs the query for every key collected meanwhile,
+ * or the caller that fills the batch up to maxBatchSize runs it straight away. Callers asking for a key that is
+ * already in flight wait for that lookup instead of adding it again. No extra threads are involved, a caller
+ * blocks for at most the window plus one query.
+ *
+ * @author Yvonne N
+ */
+class BatchLoader<K, V> {
+    // one query for all keys of a batch, keys without a value are left out of the map
+    private final Function<Set<K>, Map<K, V>> batchQuery;
+    private final long windowNanos;
+    private final int maxBatchSize;
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    // guards current, the batch still collecting keys, and its leader, the caller waiting out its window
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile Set<K> current;
+    private Thread leader;
+
+    BatchLoader(Function<Set<K>, Map<K, V>> batchQuery, Duration window, int maxBatchSize) {
+        this.batchQuery = batchQuery;
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+    }
+
+    // null when the batch query has no value for the key, failures of the query are rethrown to every caller
+    V load(K key) {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> pending = inFlight.putIfAbsent(key, future);
+        if (pending != null) {
+            return join(pending);
+        }
+
+        Set<K> full = null;
+        Set<K> led = null;
+        Thread waiting = null;
+        lock.lock();
+        try {
+            if (current == null) {
+                current = new LinkedHashSet<>();
+                leader = Thread.currentThread();
+                led = current;
+            }
+            current.add(key);
+            if (current.size() >= maxBatchSize) {
+                full = current;
+                waiting = leader;
+                current = null;
+                leader = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (full != null) {
+            // the leader would otherwise sleep out the window of a batch that is already answered
+            if (waiting != Thread.currentThread()) {
+                LockSupport.unpark(waiting);
+            }
+            run(full);
+        } else if (led != null) {
+            waitForWindow(led);
+            lock.lock();
+            try {
+                // otherwise it filled up meanwhile and the caller that filled it runs it
+                if (current == led) {
+                    current = null;
+                    leader = null;
+                } else {
+                    led = null;
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (led != null) {
+                run(led);
+            }
+        }
+        return join(future);
+    }
+
+    private void run(Set<K> keys) {
+        Map<K, V> values;
+        try {
+            values = batchQuery.apply(keys);
+        } catch (RuntimeException | Error e) {
+            keys.forEach((key) -> inFlight.remove(key).completeExceptionally(e));
+            return;
+        }
+        // removed before completion, so a lookup started after the answer queries again
+        keys.forEach((key) -> inFlight.remove(key).complete(values.get(key)));
+    }
+
+    // until the window ends or the batch fills up. parkNanos may return early, an interrupt ends the wait
+    private void waitForWindow(Set<K> batch) {
+        long deadline = System.nanoTime() + windowNanos;
+        long remaining;
+        while (current == batch && (remaining = deadline - System.nanoTime()) > 0
+                && !Thread.currentThread().isInterrupted()) {
+            LockSupport.parkNanos(this, remaining);
+        }
+    }
+
+    private static <V> V join(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.yvolabs.streamapi.service;
+
+import com.yvolabs.streamapi.dto.GenreCount;
+import com.yvolabs.streamapi.model.Movie;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory genre counts, adjusted by every single movie write of this instance and rebuilt from an $unwind/$group
+ * aggregation on startup, after bulk writes and every reconcile interval. Reads never touch mongo. The change feed has
+ * no previous genres of updates and deletes, so writes of other instances are only counted from the next reconcile,
+ * the counts can be up to api.movies.facets.reconcile-interval-ms behind them.
+ *
+ * @author Yvonne N
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class GenreFacetCache {
+    private final MongoTemplate mongoTemplate;
+
+    private volatile Map<String, Long> counts = new ConcurrentHashMap<>();
+
+    public List<GenreCount> findAll() {
+        return counts.entrySet().stream()
+                .map((entry) -> new GenreCount(entry.getKey(), entry.getValue()))
+                .sorted(Comparator.comparingLong(GenreCount::getCount).reversed()
+                        .thenComparing(GenreCount::getGenre))
+                .toList();
+    }
+
+    public void added(List<String> genres) {
+        if (genres != null) {
+            // null genres of movies stored before they were validated are not counted
+            genres.stream()
+                    .filter(Objects::nonNull)
+                    .forEach((genre) -> counts.merge(genre, 1L, Long::sum));
+        }
+    }
+
+    public void removed(List<String> genres) {
+        if (genres != null) {
+            // a count reaching zero drops the genre
+            genres.stream()
+                    .filter(Objects::nonNull)
+                    .forEach((genre) -> counts.computeIfPresent(genre, (key, count) -> count > 1 ? count - 1 : null));
+        }
+    }
+
+    public void changed(List<String> previousGenres, List<String> genres) {
+        removed(previousGenres);
+        added(genres);
+    }
+
+    // writes racing with a rebuild can leave the counts slightly off until the next one
+    @Scheduled(initialDelayString = "${api.movies.facets.initial-delay-ms:0}",
+            fixedDelayString = "${api.movies.facets.reconcile-interval-ms:600000}")
+    public void reconcile() {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.unwind("genres"),
+                Aggregation.group("genres").count().as("count"),
+                Aggregation.project("count").and("genre").previousOperation());
+
+        List<GenreCount> genreCounts = mongoTemplate.aggregate(aggregation, Movie.class, GenreCount.class)
+                .getMappedResults();
+
+        counts = genreCounts.stream()
+                .filter((genreCount) -> genreCount.getGenre() != null)
+                .collect(Collectors.toConcurrentMap(GenreCount::getGenre, GenreCount::getCount, Long::sum, ConcurrentHashMap::new));
+        log.debug("reconciled {} genre facets", genreCounts.size());
+    }
+}
@@ -0,0 +1,117 @@
+package com.yvolabs.streamapi.service;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.yvolabs.streamapi.model.Movie;
+import com.yvolabs.streamapi.util.ObjectIdBloomFilter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bloom filter of the stored movie ids (api.lookup-filter), so lookups of ids that were never stored are answered
+ * without a query. Built by streaming the _ids on startup and every rebuild interval, kept current by the service
+ * writes and, for inserts of other instances, the change feed. Those inserts are only seen while the feed is tracking,
+ * so nothing is answered as missing otherwise, and ids created after the build started are always looked up, the feed
+ * may not have delivered them yet. Deleted ids stay in until the next rebuild, they only cost the query they would
+ * have cost anyway. Users have no change feed, an id inserted by another instance would be a false 404 until the next
+ * rebuild, so user lookups always query.
+ *
+ * @author Yvonne N
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class KnownIds {
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${api.lookup-filter.enabled:false}")
+    boolean enabled;
+
+    @Value("${api.lookup-filter.expected-ids:100000}")
+    long expectedIds;
+
+    @Value("${api.lookup-filter.false-positive-rate:0.01}")
+    double falsePositiveRate;
+
+    // the clocks of the other instances, ObjectIds carry the creation time of the node that made them
+    @Value("${api.lookup-filter.clock-skew-ms:5000}")
+    long clockSkewMs;
+
+    // current answers lookups, building also receives the writes while a rebuild streams the collection
+    private volatile Built current;
+    private volatile ObjectIdBloomFilter building;
+    private volatile boolean tracking;
+
+    // true only for movie ids that were never stored, false while disabled, before the first build, while the change
+    // feed is not tracking and for ids newer than the build
+    public boolean isMissing(ObjectId id) {
+        Built built = current;
+        if (built == null || !tracking) {
+            return false;
+        }
+        if (id.getDate().getTime() >= built.startedAt() - clockSkewMs) {
+            return false;
+        }
+        return !built.filter().mightContain(id);
+    }
+
+    // set by MovieChangeFeed while its change stream is open, inserts of other instances go unseen otherwise
+    void setTracking(boolean tracking) {
+        this.tracking = tracking;
+    }
+
+    // call once the write is acknowledged, a rebuild streaming meanwhile could miss it otherwise
+    public void added(ObjectId id) {
+        if (!enabled || id == null) {
+            return;
+        }
+        // building before current, a rebuild publishes its filter as current before it stops building
+        ObjectIdBloomFilter building = this.building;
+        Built current = this.current;
+        if (building != null) {
+            building.add(id);
+        }
+        if (current != null) {
+            current.filter().add(id);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${api.lookup-filter.initial-delay-ms:0}",
+            fixedDelayString = "${api.lookup-filter.rebuild-interval-ms:3600000}")
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+
+        MongoCollection<Document> collection = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Movie.class));
+        // room to grow until the next rebuild without the false positive rate going up
+        ObjectIdBloomFilter building = new ObjectIdBloomFilter(
+                Math.max(expectedIds, 2 * collection.estimatedDocumentCount()), falsePositiveRate);
+
+        long count = 0;
+        long startedAt = System.currentTimeMillis();
+        this.building = building;
+        try (MongoCursor<Document> cursor = collection.find().projection(new Document("_id", 1)).cursor()) {
+            while (cursor.hasNext()) {
+                if (cursor.next().get("_id") instanceof ObjectId id) {
+                    building.add(id);
+                    count++;
+                }
+            }
+            current = new Built(building, startedAt);
+        } finally {
+            this.building = null;
+        }
+        log.debug("rebuilt the movie id filter from {} ids", count);
+    }
+
+    // startedAt is when the streaming began, ids created later can be missing from the filter
+    private record Built(ObjectIdBloomFilter filter, long startedAt) {
+    }
+}
@@ -0,0 +1,38 @@
+package com.yvolabs.streamapi.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts writes to the movies collection, the weak ETag of GET /movies so conditional requests need no query.
+ * Local writes count straight away, writes of other instances arrive through the change feed. While the feed is
+ * not connected those could be missed, so no tag is handed out then.
+ *
+ * @author Yvonne N
+ */
+@Component
+public class MovieChangeCounter {
+    // a restart starts counting from zero again, the boot time keeps older tags from matching
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong generation = new AtomicLong();
+    private volatile boolean tracking;
+
+    public void changed() {
+        generation.incrementAndGet();
+    }
+
+    // set by MovieChangeFeed while its change stream is open
+    void setTracking(boolean tracking) {
+        this.tracking = tracking;
+        changed();
+    }
+
+    public Optional<String> etag() {
+        if (!tracking) {
+            return Optional.empty();
+        }
+        return Optional.of("W/\"" + epoch + "-" + generation.get() + "\"");
+    }
+}
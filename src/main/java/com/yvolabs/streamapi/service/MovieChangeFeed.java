@@ -0,0 +1,356 @@
+package com.yvolabs.streamapi.service;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.yvolabs.streamapi.dto.MovieChangeEvent;
+import com.yvolabs.streamapi.model.Movie;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static com.yvolabs.streamapi.mapper.MovieMapper.INSTANCE;
+
+/**
+ * Tails one change stream on the movies collection and fans every change out to all subscribers.
+ * Each subscriber gets a bounded queue drained on the task executor, a subscriber that falls a full queue behind is
+ * closed and reconnects with its Last-Event-ID. The most recent events are kept so such reconnects resume without
+ * gaps, older ids get a reset event instead. The shared cursor itself resumes from its last token after failures.
+ * Every change also evicts the movie from the local caches, so writes of other instances are not served stale.
+ *
+ * @author Yvonne N
+ */
+@Component
+@Profile("!reactive")
+@Slf4j
+public class MovieChangeFeed implements SmartLifecycle {
+    private final MongoTemplate mongoTemplate;
+    private final AsyncTaskExecutor taskExecutor;
+    private final MovieChangeCounter changeCounter;
+    private final KnownIds knownIds;
+    private final CacheManager cacheManager;
+
+    @Value("${api.movies.changes.subscriber-buffer:256}")
+    int subscriberBuffer;
+
+    @Value("${api.movies.changes.replay-size:1000}")
+    int replaySize;
+
+    @Value("${api.movies.changes.retry-delay-ms:5000}")
+    long retryDelayMs;
+
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    // guards recent and the registration of new subscribers, so a reconnect sees every event exactly once
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ArrayDeque<MovieChangeEvent> recent = new ArrayDeque<>();
+
+    private volatile BsonDocument resumeToken;
+    private volatile boolean running;
+    private Thread watcher;
+
+    public MovieChangeFeed(MongoTemplate mongoTemplate,
+                           @Qualifier("applicationTaskExecutor") AsyncTaskExecutor taskExecutor,
+                           MovieChangeCounter changeCounter,
+                           KnownIds knownIds,
+                           CacheManager cacheManager) {
+        this.mongoTemplate = mongoTemplate;
+        this.taskExecutor = taskExecutor;
+        this.changeCounter = changeCounter;
+        this.knownIds = knownIds;
+        this.cacheManager = cacheManager;
+    }
+
+    public interface Listener {
+        void onEvent(MovieChangeEvent event) throws IOException;
+
+        // the subscriber fell behind or the feed stopped, the client has to reconnect
+        void onClose();
+    }
+
+    // lastEventId may be null, events after it are replayed before the live ones
+    public Subscription subscribe(String lastEventId, Listener listener) {
+        // room for a full replay, otherwise a late reconnect would overflow straight away
+        Subscription subscription = new Subscription(listener, Math.max(subscriberBuffer, replaySize));
+
+        lock.lock();
+        try {
+            if (lastEventId != null && !lastEventId.isEmpty()) {
+                replay(lastEventId, subscription);
+            }
+            subscriptions.add(subscription);
+        } finally {
+            lock.unlock();
+        }
+        subscription.scheduleDrain();
+        return subscription;
+    }
+
+    public int subscriberCount() {
+        return subscriptions.size();
+    }
+
+    @Scheduled(fixedDelayString = "${api.movies.changes.heartbeat-interval-ms:15000}")
+    public void heartbeat() {
+        subscriptions.forEach((subscription) -> subscription.offer(MovieChangeEvent.HEARTBEAT));
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        watcher = new Thread(this::watch, "movie-change-stream");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        setTracking(false);
+        subscriptions.forEach(Subscription::close);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void watch() {
+        try {
+            while (running) {
+                try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = openCursor()) {
+                    setTracking(true);
+                    while (running) {
+                        // returns null after maxAwaitTime so stop() is noticed
+                        ChangeStreamDocument<Document> change = cursor.tryNext();
+                        if (change == null) {
+                            continue;
+                        }
+                        resumeToken = change.getResumeToken();
+                        if (!handle(change)) {
+                            break; // the stream was invalidated, start a new one
+                        }
+                    }
+                } catch (MongoException | IllegalStateException e) {
+                    // writes of other instances go unseen until the stream is resumed
+                    setTracking(false);
+                    if (!running) {
+                        return;
+                    }
+                    log.warn("movie change stream failed, resuming in {} ms", retryDelayMs, e);
+                    sleepBeforeRetry();
+                }
+            }
+        } finally {
+            // whatever ended the loop, the etag and the id filter must not rely on the feed any longer
+            setTracking(false);
+            if (running) {
+                running = false;
+                subscriptions.forEach(Subscription::close);
+            }
+        }
+    }
+
+    // false once the stream was invalidated
+    private boolean handle(ChangeStreamDocument<Document> change) {
+        MovieChangeEvent event;
+        try {
+            event = toEvent(change);
+        } catch (RuntimeException e) {
+            // one change that cannot be read must not end the feed, subscribers refetch instead of missing it
+            log.warn("movie change {} could not be read, sending a reset", change.getOperationTypeString(), e);
+            publish(MovieChangeEvent.reset());
+            return true;
+        }
+        publish(event);
+        return !MovieChangeEvent.RESET.equals(event.getType());
+    }
+
+    private void setTracking(boolean tracking) {
+        changeCounter.setTracking(tracking);
+        knownIds.setTracking(tracking);
+    }
+
+    private MongoChangeStreamCursor<ChangeStreamDocument<Document>> openCursor() {
+        ChangeStreamIterable<Document> changeStream = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Movie.class))
+                .watch()
+                .fullDocument(FullDocument.UPDATE_LOOKUP)
+                .maxAwaitTime(1, TimeUnit.SECONDS);
+
+        if (resumeToken != null) {
+            changeStream = changeStream.resumeAfter(resumeToken);
+        }
+        return changeStream.cursor();
+    }
+
+    private MovieChangeEvent toEvent(ChangeStreamDocument<Document> change) {
+        if (change.getDocumentKey() == null) {
+            // drop, rename or invalidate, the collection is gone and so is the position in it
+            resumeToken = null;
+            return MovieChangeEvent.reset();
+        }
+
+        ObjectId movieId = change.getDocumentKey().getObjectId("_id").getValue();
+        // inserts of other instances, the filter already knows the ones made here
+        knownIds.added(movieId);
+
+        MovieChangeEvent.MovieChangeEventBuilder event = MovieChangeEvent.builder()
+                .id(change.getResumeToken().getString("_data").getValue())
+                .type(change.getOperationType().getValue())
+                .movieId(movieId.toString());
+
+        // an update looked up after a later delete has no document left
+        if (change.getFullDocument() != null) {
+            Movie movie = mongoTemplate.getConverter().read(Movie.class, change.getFullDocument());
+            event.movie(INSTANCE.movieToMovieDtoMapper(movie));
+        }
+        return event.build();
+    }
+
+    void publish(MovieChangeEvent event) {
+        List<Subscription> receivers;
+        changeCounter.changed();
+        evict(event);
+
+        lock.lock();
+        try {
+            if (event.getId() != null) {
+                recent.addLast(event);
+                if (recent.size() > replaySize) {
+                    recent.removeFirst();
+                }
+            }
+            receivers = new ArrayList<>(subscriptions);
+        } finally {
+            lock.unlock();
+        }
+
+        receivers.forEach((subscription) -> subscription.offer(event));
+    }
+
+    // same caches and keys as MovieServiceImpl, hex ids are lower case
+    private void evict(MovieChangeEvent event) {
+        for (String cacheName : List.of("movies", "movieDocuments")) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache == null) {
+                continue;
+            }
+            if (event.getMovieId() != null) {
+                cache.evict(event.getMovieId());
+            } else {
+                // a reset does not say which movies changed
+                cache.clear();
+            }
+        }
+    }
+
+    private void replay(String lastEventId, Subscription subscription) {
+        boolean found = false;
+        for (Iterator<MovieChangeEvent> iterator = recent.iterator(); iterator.hasNext(); ) {
+            MovieChangeEvent event = iterator.next();
+            if (found) {
+                subscription.offer(event);
+            } else if (lastEventId.equals(event.getId())) {
+                found = true;
+            }
+        }
+        // the id is older than the replay window (or from before a restart), the client has to refetch
+        if (!found) {
+            subscription.offer(MovieChangeEvent.reset());
+        }
+    }
+
+    private void sleepBeforeRetry() {
+        try {
+            Thread.sleep(retryDelayMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    public final class Subscription {
+        private final Listener listener;
+        private final BlockingQueue<MovieChangeEvent> queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+
+        private Subscription(Listener listener, int capacity) {
+            this.listener = listener;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+
+        public void cancel() {
+            closed = true;
+            subscriptions.remove(this);
+        }
+
+        private void offer(MovieChangeEvent event) {
+            if (closed) {
+                return;
+            }
+            // never block the shared cursor on one slow client
+            if (!queue.offer(event)) {
+                log.debug("movie change subscriber is {} events behind, closing it", queue.size());
+                close();
+                return;
+            }
+            scheduleDrain();
+        }
+
+        private void close() {
+            cancel();
+            queue.clear();
+            listener.onClose();
+        }
+
+        // at most one drain task per subscriber, started when events are waiting
+        private void scheduleDrain() {
+            if (!queue.isEmpty() && draining.compareAndSet(false, true)) {
+                taskExecutor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                MovieChangeEvent event;
+                while (!closed && (event = queue.poll()) != null) {
+                    listener.onEvent(event);
+                }
+            } catch (IOException | RuntimeException e) {
+                // the client went away
+                cancel();
+            } finally {
+                draining.set(false);
+            }
+            if (!closed) {
+                scheduleDrain();
+            }
+        }
+    }
+}
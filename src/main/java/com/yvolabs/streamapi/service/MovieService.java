@@ -1,9 +1,21 @@
 package com.yvolabs.streamapi.service;
 
+import com.yvolabs.streamapi.dto.BatchReport;
+import com.yvolabs.streamapi.dto.BulkResult;
+import com.yvolabs.streamapi.dto.CursorPage;
+import com.yvolabs.streamapi.dto.GenreCount;
+import com.yvolabs.streamapi.dto.MovieBulkRequest;
+import com.yvolabs.streamapi.dto.MovieChanges;
 import com.yvolabs.streamapi.dto.MovieDto;
+import com.yvolabs.streamapi.dto.MovieFilter;
+import com.yvolabs.streamapi.dto.MovieSummary;
 import com.yvolabs.streamapi.model.Movie;
+import org.bson.RawBsonDocument;
+import org.springframework.data.domain.Sort;
 
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * @author Yvonne N
@@ -11,11 +23,49 @@ import java.util.List;
 public interface MovieService {
     List<Movie> findAll();
 
+    // filter may be null, a null releaseDateOrder keeps the default _id order
+    CursorPage<Movie> findPage(String cursor, int limit, MovieFilter filter, Sort.Direction releaseDateOrder);
+
+    CursorPage<MovieSummary> findSummaryPage(String cursor, int limit, MovieFilter filter, Sort.Direction releaseDateOrder);
+
+    // the stored documents of findPage, rendered as json without mapping (api.movies.raw-json.enabled)
+    CursorPage<RawBsonDocument> findRawPage(String cursor, int limit, MovieFilter filter, Sort.Direction releaseDateOrder);
+
+    Stream<Movie> streamAll();
+
+    // text search ordered by relevance, page is zero based
+    List<Movie> search(String text, int page, int size);
+
+    List<MovieSummary> searchSummaries(String text, int page, int size);
+
     Movie add(Movie movie);
 
+    // validates and inserts the movies in unordered bulk chunks, consuming the iterator as it goes
+    BatchReport addAll(Iterator<MovieDto> movieDtos);
+
     Movie findById(String movieId);
 
-    Movie update(String movieId, MovieDto movieDto);
+    RawBsonDocument findRawById(String movieId);
+
+    // in the order of movieIds, null where no movie has the id. Cached movies are used, the rest is one $in query
+    List<Movie> findByIds(List<String> movieIds);
+
+    // resolves the referenced reviews of all given movies with a single query
+    List<Movie> withReviews(List<Movie> movies);
+
+    // expectedVersions come from If-Match, null writes unconditionally, otherwise a stale version fails with 412
+    Movie update(String movieId, MovieDto movieDto, List<Long> expectedVersions);
+
+    void delete(String movieId, List<Long> expectedVersions);
+
+    // a single updateMany/deleteMany over the ids or filter of the request
+    BulkResult updateMany(MovieBulkRequest request);
+
+    BulkResult deleteMany(MovieBulkRequest request);
+
+    // movies changed or deleted after the sync token, a null token starts a full sync
+    MovieChanges findChanges(String since, int limit);
 
-    void delete(String movieId);
+    // served from the in-memory facet table, most frequent genre first
+    List<GenreCount> findGenreCounts();
 }
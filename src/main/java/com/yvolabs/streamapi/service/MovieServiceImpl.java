@@ -1,16 +1,59 @@
 package com.yvolabs.streamapi.service;
 
+import com.mongodb.client.result.UpdateResult;
+import com.yvolabs.streamapi.annotations.CreateValidationGroup;
+import com.yvolabs.streamapi.dto.BatchItemResult;
+import com.yvolabs.streamapi.dto.BatchReport;
+import com.yvolabs.streamapi.dto.BulkResult;
+import com.yvolabs.streamapi.dto.CursorPage;
+import com.yvolabs.streamapi.dto.GenreCount;
+import com.yvolabs.streamapi.dto.MovieBulkRequest;
+import com.yvolabs.streamapi.dto.MovieChanges;
 import com.yvolabs.streamapi.dto.MovieDto;
-import com.yvolabs.streamapi.exception.InvalidObjectIdException;
+import com.yvolabs.streamapi.dto.MovieFilter;
+import com.yvolabs.streamapi.dto.MovieSummary;
 import com.yvolabs.streamapi.exception.ObjectNotFoundException;
-import com.yvolabs.streamapi.mapper.MovieMapper;
+import com.yvolabs.streamapi.exception.PreconditionFailedException;
 import com.yvolabs.streamapi.model.Movie;
+import com.yvolabs.streamapi.model.MovieTombstone;
+import com.yvolabs.streamapi.model.Review;
+import com.yvolabs.streamapi.repository.MovieQueries;
 import com.yvolabs.streamapi.repository.MovieRepository;
+import com.yvolabs.streamapi.repository.MovieUpdates;
+import com.yvolabs.streamapi.repository.ReviewRepository;
+import com.yvolabs.streamapi.util.PageCursors;
+import jakarta.annotation.PostConstruct;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import org.bson.RawBsonDocument;
 import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.yvolabs.streamapi.mapper.MovieMapper.INSTANCE;
+import static com.yvolabs.streamapi.repository.MovieQueries.convertStringToObjectId;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
 
 /**
  * @author Yvonne N
@@ -19,51 +62,530 @@ import java.util.List;
 @RequiredArgsConstructor
 public class MovieServiceImpl implements MovieService {
     private final MovieRepository movieRepository;
+    private final ReviewRepository reviewRepository;
+    private final MongoTemplate mongoTemplate;
+    private final Validator validator;
+    private final GenreFacetCache genreFacetCache;
+    private final MovieChangeCounter changeCounter;
+    private final CacheManager cacheManager;
+    private final KnownIds knownIds;
+
+    @Value("${api.movies.batch.chunk-size:1000}")
+    int batchChunkSize;
+
+    @Value("${api.movies.search.max-results:1000}")
+    int searchMaxResults;
+
+    @Value("${api.movies.sync.settle-ms:5000}")
+    long syncSettleMs;
+
+    @Value("${api.movies.update.max-attempts:5}")
+    int updateMaxAttempts;
+
+    @Value("${api.movies.bulk.delete-batch-size:1000}")
+    int deleteBatchSize;
+
+    @Value("${api.batching.find-by-id.enabled:false}")
+    boolean batchFindById;
+
+    @Value("${api.batching.find-by-id.window-ms:1}")
+    long batchWindowMs;
+
+    @Value("${api.batching.find-by-id.max-batch-size:64}")
+    int batchMaxSize;
+
+    // concurrent cache misses of findById share one $in query, null unless batching is enabled
+    private BatchLoader<ObjectId, Movie> findByIdLoader;
+
+    @PostConstruct
+    void initFindByIdLoader() {
+        if (batchFindById) {
+            findByIdLoader = new BatchLoader<>(
+                    (ids) -> movieRepository.findAllById(ids).stream()
+                            .collect(Collectors.toMap(Movie::getId, Function.identity())),
+                    Duration.ofMillis(batchWindowMs),
+                    batchMaxSize);
+        }
+    }
 
     @Override
     public List<Movie> findAll() {
         return movieRepository.findAll();
     }
 
+    @Override
+    public CursorPage<Movie> findPage(String cursor, int limit, MovieFilter filter, Sort.Direction releaseDateOrder) {
+        List<Movie> results = movieRepository.findAll(MovieQueries.page(cursor, limit, filter, releaseDateOrder));
+
+        return MovieQueries.toPage(results, limit, releaseDateOrder, Movie::getId, Movie::getReleaseDate);
+    }
+
+    @Override
+    public CursorPage<MovieSummary> findSummaryPage(String cursor, int limit, MovieFilter filter, Sort.Direction releaseDateOrder) {
+        List<MovieSummary> results = mongoTemplate.query(Movie.class)
+                .as(MovieSummary.class)
+                .matching(MovieQueries.page(cursor, limit, filter, releaseDateOrder))
+                .all();
+
+        return MovieQueries.toPage(results, limit, releaseDateOrder,
+                (summary) -> new ObjectId(summary.getId()), MovieSummary::getReleaseDate);
+    }
+
+    @Override
+    public CursorPage<RawBsonDocument> findRawPage(String cursor, int limit, MovieFilter filter, Sort.Direction releaseDateOrder) {
+        List<RawBsonDocument> results = movieRepository.findRaw(MovieQueries.page(cursor, limit, filter, releaseDateOrder));
+
+        // a release date order only returns movies stored with a BSON date
+        return MovieQueries.toPage(results, limit, releaseDateOrder,
+                (document) -> document.getObjectId("_id").getValue(),
+                (document) -> LocalDate.ofInstant(
+                        Instant.ofEpochMilli(document.getDateTime("releaseDate").getValue()), ZoneOffset.UTC));
+    }
+
+    @Override
+    public Stream<Movie> streamAll() {
+        return movieRepository.stream(new Query());
+    }
+
+    @Override
+    public List<Movie> search(String text, int page, int size) {
+        return search(text, page, size, Movie.class);
+    }
+
+    @Override
+    public List<MovieSummary> searchSummaries(String text, int page, int size) {
+        return search(text, page, size, MovieSummary.class, "title", "releaseDate", "genres");
+    }
+
+    private <T> List<T> search(String text, int page, int size, Class<T> type, String... fields) {
+        return MovieQueries.search(text, page, size, searchMaxResults, fields)
+                .map((query) -> mongoTemplate.query(Movie.class)
+                        .as(type)
+                        .matching(query)
+                        .all())
+                .orElse(List.of());
+    }
+
     @Override
     public Movie add(Movie movie) {
-        return movieRepository.save(movie);
+        // only ids given by the client can belong to a deleted movie
+        boolean recreated = movie.getId() != null;
+        Movie savedMovie = movieRepository.save(movie);
+        if (recreated) {
+            removeTombstones(List.of(savedMovie.getId()));
+        }
+        knownIds.added(savedMovie.getId());
+        genreFacetCache.added(savedMovie.getGenres());
+        changeCounter.changed();
+        return savedMovie;
     }
 
     @Override
+    public BatchReport addAll(Iterator<MovieDto> movieDtos) {
+        List<BatchItemResult> items = new ArrayList<>();
+        List<Movie> chunk = new ArrayList<>(batchChunkSize);
+        List<Integer> chunkIndexes = new ArrayList<>(batchChunkSize);
+
+        while (movieDtos.hasNext()) {
+            int index = items.size();
+            MovieDto movieDto = movieDtos.next();
+
+            Set<ConstraintViolation<MovieDto>> violations = validator.validate(movieDto, CreateValidationGroup.class);
+            if (!violations.isEmpty()) {
+                items.add(BatchItemResult.failure(index, violations.stream()
+                        .collect(Collectors.toMap(
+                                (violation) -> violation.getPropertyPath().toString(),
+                                ConstraintViolation::getMessage,
+                                (first, second) -> first))));
+                continue;
+            }
+            if (movieDto.getId() != null && !ObjectId.isValid(movieDto.getId())) {
+                items.add(BatchItemResult.failure(index, Map.of("id", "id: " + movieDto.getId() + " is not a valid ObjectId")));
+                continue;
+            }
+            Optional<String> invalidReviewsId = invalidReviewsId(movieDto);
+            if (invalidReviewsId.isPresent()) {
+                items.add(BatchItemResult.failure(index, Map.of("reviewsIds",
+                        "reviews id: " + invalidReviewsId.get() + " is not a valid ObjectId")));
+                continue;
+            }
+
+            items.add(null); // filled in once its chunk is written
+            chunk.add(INSTANCE.movieDtoToMovieMapper(movieDto));
+            chunkIndexes.add(index);
+
+            if (chunk.size() == batchChunkSize) {
+                insertChunk(chunk, chunkIndexes, items);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            insertChunk(chunk, chunkIndexes, items);
+        }
+
+        int inserted = (int) items.stream().filter(BatchItemResult::isSuccess).count();
+        return BatchReport.builder()
+                .received(items.size())
+                .inserted(inserted)
+                .failed(items.size() - inserted)
+                .items(items)
+                .build();
+    }
+
+    // the mapper skips null and empty reviews ids, anything else has to be an ObjectId
+    private static Optional<String> invalidReviewsId(MovieDto movieDto) {
+        if (movieDto.getReviewsIds() == null) {
+            return Optional.empty();
+        }
+        return movieDto.getReviewsIds().stream()
+                .filter((reviewsId) -> reviewsId != null && !reviewsId.isEmpty() && !ObjectId.isValid(reviewsId))
+                .findFirst();
+    }
+
+    private void insertChunk(List<Movie> chunk, List<Integer> chunkIndexes, List<BatchItemResult> items) {
+        // ids are assigned here so every item can be reported even if part of the chunk is rejected
+        Set<ObjectId> givenIds = new HashSet<>();
+        chunk.forEach((movie) -> {
+            if (movie.getId() == null) {
+                movie.setId(new ObjectId());
+            } else {
+                givenIds.add(movie.getId());
+            }
+            // bulk inserts skip the version initialisation of save
+            if (movie.getVersion() == null) {
+                movie.setVersion(0L);
+            }
+        });
+
+        Map<Integer, String> rejected = new HashMap<>();
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Movie.class)
+                    .insert(chunk)
+                    .execute();
+        } catch (BulkOperationException e) {
+            e.getErrors().forEach((error) -> rejected.put(error.getIndex(), error.getMessage()));
+        }
+        changeCounter.changed();
+
+        List<ObjectId> recreatedIds = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            int index = chunkIndexes.get(i);
+            if (rejected.containsKey(i)) {
+                items.set(index, BatchItemResult.failure(index, Map.of("movie", rejected.get(i))));
+            } else {
+                if (givenIds.contains(chunk.get(i).getId())) {
+                    recreatedIds.add(chunk.get(i).getId());
+                }
+                items.set(index, BatchItemResult.success(index, chunk.get(i).getId().toString()));
+                knownIds.added(chunk.get(i).getId());
+                genreFacetCache.added(chunk.get(i).getGenres());
+            }
+        }
+        removeTombstones(recreatedIds);
+
+        chunk.clear();
+        chunkIndexes.clear();
+    }
+
+    @Override
+    @Cacheable(cacheNames = "movies", key = "#movieId.toLowerCase()")
     public Movie findById(String movieId) {
-        return movieRepository.findById(convertStringToObjectId(movieId))
-                .orElseThrow(() -> new ObjectNotFoundException("movie", movieId));
+        ObjectId id = convertStringToObjectId(movieId);
+        // ids that were never stored are answered without a query
+        if (knownIds.isMissing(id)) {
+            throw new ObjectNotFoundException("movie", movieId);
+        }
+        Optional<Movie> movie = findByIdLoader == null
+                ? movieRepository.findById(id)
+                : Optional.ofNullable(findByIdLoader.load(id));
+
+        return movie.orElseThrow(() -> new ObjectNotFoundException("movie", movieId));
 
     }
 
     @Override
-    public Movie update(String movieId, MovieDto movieDto) {
-        return movieRepository.findById(convertStringToObjectId(movieId))
-                .map((movie) -> {
-                    Movie movieUpdate = MovieMapper.INSTANCE.updateMovieDto(movieDto, movie);
-                    return movieRepository.save(movieUpdate);
-                })
+    @Cacheable(cacheNames = "movieDocuments", key = "#movieId.toLowerCase()")
+    public RawBsonDocument findRawById(String movieId) {
+        ObjectId id = convertStringToObjectId(movieId);
+        if (knownIds.isMissing(id)) {
+            throw new ObjectNotFoundException("movie", movieId);
+        }
+        return movieRepository.findRaw(MovieQueries.byId(id, null)).stream()
+                .findFirst()
                 .orElseThrow(() -> new ObjectNotFoundException("movie", movieId));
     }
 
     @Override
-    public void delete(String movieId) {
-        Movie movie = movieRepository.findById(convertStringToObjectId(movieId))
-                .orElseThrow(() -> new ObjectNotFoundException("movie", movieId));
-        movieRepository.delete(movie);
+    public List<Movie> findByIds(List<String> movieIds) {
+        // every id is checked before anything is read
+        List<ObjectId> ids = movieIds.stream()
+                .map(MovieQueries::convertStringToObjectId)
+                .toList();
+
+        // same keys as findById, hex ids are lower case
+        Cache cache = cacheManager.getCache("movies");
+        Map<ObjectId, Movie> moviesById = new HashMap<>();
+        Set<ObjectId> missing = new LinkedHashSet<>();
+        for (ObjectId id : ids) {
+            Movie cached = cache == null ? null : cache.get(id.toHexString(), Movie.class);
+            if (cached != null) {
+                moviesById.put(id, cached);
+            } else if (!knownIds.isMissing(id)) {
+                missing.add(id);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            for (Movie movie : movieRepository.findAllById(missing)) {
+                moviesById.put(movie.getId(), movie);
+                if (cache != null) {
+                    cache.put(movie.getId().toHexString(), movie);
+                }
+            }
+        }
+
+        return ids.stream()
+                .map(moviesById::get)
+                .toList();
     }
 
-    private static ObjectId convertStringToObjectId(String userId) {
-        ObjectId userIdToObjectId;
+    @Override
+    public List<Movie> withReviews(List<Movie> movies) {
+        Set<ObjectId> reviewIds = movies.stream()
+                .map(Movie::getReviewsIds)
+                .filter(Objects::nonNull)
+                .flatMap(List::stream)
+                .collect(Collectors.toSet());
 
-        try {
-            userIdToObjectId = new ObjectId(userId);
-        } catch (IllegalArgumentException e) {
-            throw new InvalidObjectIdException("movie", userId);
+        // one $in query for the whole page instead of one lookup per movie
+        Map<ObjectId, Review> reviewsById = reviewIds.isEmpty()
+                ? Map.of()
+                : reviewRepository.findAllById(reviewIds).stream()
+                .collect(Collectors.toMap(Review::getId, Function.identity()));
+
+        // copies, the given movies may be shared (e.g. cached) instances
+        return movies.stream()
+                .map((movie) -> movie.toBuilder()
+                        .reviews(movie.getReviewsIds() == null
+                                ? List.of()
+                                : movie.getReviewsIds().stream()
+                                .map(reviewsById::get)
+                                .filter(Objects::nonNull)
+                                .toList())
+                        .build())
+                .toList();
+    }
+
+    @Override
+    @CacheEvict(cacheNames = {"movies", "movieDocuments"}, key = "#movieId.toLowerCase()")
+    public Movie update(String movieId, MovieDto movieDto, List<Long> expectedVersions) {
+        ObjectId id = convertStringToObjectId(movieId);
+        Update update = MovieUpdates.fromDto(movieDto);
+
+        if (update.getUpdateObject().isEmpty()) {
+            Movie movie = movieRepository.findById(id)
+                    .orElseThrow(() -> new ObjectNotFoundException("movie", movieId));
+            if (expectedVersions != null && !expectedVersions.contains(versionOf(movie))) {
+                throw new PreconditionFailedException("movie", movieId);
+            }
+            return movie;
+        }
+        MovieUpdates.touch(update, MovieUpdates.now());
+
+        // single atomic round trip, only the fields present in the request are written
+        if (movieDto.getGenres() == null) {
+            Movie updatedMovie = mongoTemplate.findAndModify(
+                    MovieQueries.byId(id, expectedVersions),
+                    update,
+                    FindAndModifyOptions.options().returnNew(true),
+                    Movie.class);
+
+            if (updatedMovie == null) {
+                throw writeFailed(id, movieId, expectedVersions);
+            }
+            changeCounter.changed();
+            return updatedMovie;
+        }
+
+        // genre changes need the previous genres for the facet counts. They are read first and the write only applies
+        // while the movie still has the version they were read at, a write in between means reading them again
+        for (int attempt = 0; attempt < updateMaxAttempts; attempt++) {
+            Query previousGenres = MovieQueries.byId(id, expectedVersions);
+            previousGenres.fields().include("genres", "version");
+            Movie previousMovie = mongoTemplate.findOne(previousGenres, Movie.class);
+
+            if (previousMovie == null) {
+                throw writeFailed(id, movieId, expectedVersions);
+            }
+            Movie updatedMovie = mongoTemplate.findAndModify(
+                    MovieQueries.byIdAtVersion(id, previousMovie.getVersion()),
+                    update,
+                    FindAndModifyOptions.options().returnNew(true),
+                    Movie.class);
+
+            if (updatedMovie != null) {
+                genreFacetCache.changed(previousMovie.getGenres(), updatedMovie.getGenres());
+                changeCounter.changed();
+                return updatedMovie;
+            }
+        }
+        // every attempt lost to another write, the client retries instead of this thread spinning
+        throw new PreconditionFailedException("movie", movieId);
+    }
+
+    @Override
+    @CacheEvict(cacheNames = {"movies", "movieDocuments"}, key = "#movieId.toLowerCase()")
+    public void delete(String movieId, List<Long> expectedVersions) {
+        ObjectId id = convertStringToObjectId(movieId);
+        Movie deletedMovie = mongoTemplate.findAndRemove(MovieQueries.byId(id, expectedVersions), Movie.class);
+
+        if (deletedMovie == null) {
+            throw writeFailed(id, movieId, expectedVersions);
+        }
+        writeTombstones(List.of(deletedMovie.getId()));
+        genreFacetCache.removed(deletedMovie.getGenres());
+        changeCounter.changed();
+    }
+
+    @Override
+    @CacheEvict(cacheNames = {"movies", "movieDocuments"}, allEntries = true)
+    public BulkResult updateMany(MovieBulkRequest request) {
+        UpdateResult result = mongoTemplate.updateMulti(
+                MovieQueries.bulk(request),
+                MovieUpdates.touch(MovieUpdates.fromDto(request.getUpdate()), MovieUpdates.now()),
+                Movie.class);
+        // the previous genres of the matched movies are unknown, rebuild the counts
+        if (request.getUpdate().getGenres() != null && result.getModifiedCount() > 0) {
+            genreFacetCache.reconcile();
+        }
+        if (result.getModifiedCount() > 0) {
+            changeCounter.changed();
+        }
+
+        return BulkResult.builder()
+                .matched(result.getMatchedCount())
+                .modified(result.getModifiedCount())
+                .build();
+    }
+
+    @Override
+    @CacheEvict(cacheNames = {"movies", "movieDocuments"}, allEntries = true)
+    public BulkResult deleteMany(MovieBulkRequest request) {
+        long deleted = 0;
+        ObjectId after = null;
+
+        // one bounded batch of matches at a time, found first and removed by id, the ids are needed for the tombstones
+        while (true) {
+            Query query = MovieQueries.bulkBatch(request, after, deleteBatchSize);
+            query.fields().include("_id", "genres");
+            List<Movie> batch = mongoTemplate.find(query, Movie.class);
+            if (batch.isEmpty()) {
+                break;
+            }
+
+            List<ObjectId> ids = batch.stream().map(Movie::getId).toList();
+            mongoTemplate.remove(Query.query(where("_id").in(ids)), Movie.class);
+            writeTombstones(ids);
+            batch.forEach((movie) -> genreFacetCache.removed(movie.getGenres()));
+            changeCounter.changed();
+
+            deleted += batch.size();
+            if (batch.size() < deleteBatchSize) {
+                break;
+            }
+            after = ids.get(ids.size() - 1);
+        }
+
+        return BulkResult.builder()
+                .deleted(deleted)
+                .build();
+    }
+
+    // the version filter matched nothing, only a second lookup tells a stale version from a missing movie
+    private RuntimeException writeFailed(ObjectId id, String movieId, List<Long> expectedVersions) {
+        if (expectedVersions != null && mongoTemplate.exists(Query.query(where("_id").is(id)), Movie.class)) {
+            return new PreconditionFailedException("movie", movieId);
         }
+        return new ObjectNotFoundException("movie", movieId);
+    }
 
-        return userIdToObjectId;
+    // movies written before versioning count as version 0
+    private static long versionOf(Movie movie) {
+        return movie.getVersion() == null ? 0L : movie.getVersion();
+    }
+
+    // a movie recreated under the id of a deleted one syncs as changed, its tombstone would also report it deleted
+    private void removeTombstones(List<ObjectId> movieIds) {
+        if (!movieIds.isEmpty()) {
+            mongoTemplate.remove(Query.query(where("_id").in(movieIds)), MovieTombstone.class);
+        }
+    }
+
+    // upserts, a movie recreated under the same id may be deleted again
+    private void writeTombstones(List<ObjectId> movieIds) {
+        Instant deletedAt = MovieUpdates.now();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MovieTombstone.class);
+        movieIds.forEach((movieId) -> bulk.upsert(
+                Query.query(where("_id").is(movieId)), Update.update("deletedAt", deletedAt)));
+        bulk.execute();
+    }
+
+    @Override
+    public MovieChanges findChanges(String since, int limit) {
+        boolean fullSync = since == null || since.isEmpty();
+        PageCursors.SyncToken after = fullSync ? MovieQueries.FULL_SYNC : PageCursors.decodeSyncToken(since);
+        Instant now = Instant.now();
+
+        // expired tombstones would leave deleted movies on the client
+        if (!fullSync && after.updatedAt().isBefore(now.minus(MovieTombstone.RETENTION))) {
+            return MovieChanges.builder()
+                    .reset(true)
+                    .build();
+        }
+
+        Instant settledBefore = now.minusMillis(syncSettleMs);
+        List<Movie> changed = movieRepository.findAll(MovieQueries.changedSince(after, settledBefore, "updatedAt", limit));
+        // a full sync starts from an empty client, there is nothing to delete
+        List<MovieTombstone> deleted = fullSync
+                ? List.of()
+                : mongoTemplate.find(MovieQueries.changedSince(after, settledBefore, "deletedAt", limit), MovieTombstone.class);
+
+        // both lists are in (timestamp, _id) order, the first limit entries of their merge form the page
+        List<MovieDto> changedPage = new ArrayList<>();
+        List<String> deletedPage = new ArrayList<>();
+        PageCursors.SyncToken last = after;
+        int c = 0;
+        int d = 0;
+        while (c + d < limit && (c < changed.size() || d < deleted.size())) {
+            boolean takeChanged = d == deleted.size() || (c < changed.size()
+                    && compareSyncPosition(changed.get(c).getUpdatedAt(), changed.get(c).getId(),
+                    deleted.get(d).getDeletedAt(), deleted.get(d).getId()) <= 0);
+            if (takeChanged) {
+                Movie movie = changed.get(c++);
+                changedPage.add(INSTANCE.movieToMovieDtoMapper(movie));
+                last = new PageCursors.SyncToken(movie.getUpdatedAt(), movie.getId());
+            } else {
+                MovieTombstone tombstone = deleted.get(d++);
+                deletedPage.add(tombstone.getId().toString());
+                last = new PageCursors.SyncToken(tombstone.getDeletedAt(), tombstone.getId());
+            }
+        }
+
+        return MovieChanges.builder()
+                .changed(changedPage)
+                .deleted(deletedPage)
+                .syncToken(PageCursors.encodeSyncToken(last.updatedAt(), last.id()))
+                .hasMore(c < changed.size() || d < deleted.size())
+                .build();
+    }
+
+    private static int compareSyncPosition(Instant at, ObjectId id, Instant otherAt, ObjectId otherId) {
+        int byTime = at.compareTo(otherAt);
+        return byTime != 0 ? byTime : id.compareTo(otherId);
+    }
+
+    @Override
+    public List<GenreCount> findGenreCounts() {
+        return genreFacetCache.findAll();
     }
 
 }
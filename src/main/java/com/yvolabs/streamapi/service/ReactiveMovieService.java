@@ -0,0 +1,56 @@
+package com.yvolabs.streamapi.service;
+
+import com.yvolabs.streamapi.dto.BulkResult;
+import com.yvolabs.streamapi.dto.CursorPage;
+import com.yvolabs.streamapi.dto.GenreCount;
+import com.yvolabs.streamapi.dto.MovieBulkRequest;
+import com.yvolabs.streamapi.dto.MovieDto;
+import com.yvolabs.streamapi.dto.MovieFilter;
+import com.yvolabs.streamapi.dto.MovieSummary;
+import com.yvolabs.streamapi.model.Movie;
+import org.springframework.data.domain.Sort;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Non-blocking counterpart of {@link MovieService}, served under the reactive profile
+ *
+ * @author Yvonne N
+ */
+public interface ReactiveMovieService {
+
+    // filter may be null, a null releaseDateOrder keeps the default _id order
+    Mono<CursorPage<Movie>> findPage(String cursor, int limit, MovieFilter filter, Sort.Direction releaseDateOrder);
+
+    Mono<CursorPage<MovieSummary>> findSummaryPage(String cursor, int limit, MovieFilter filter, Sort.Direction releaseDateOrder);
+
+    // pulls documents from the cursor only as fast as the subscriber requests them
+    Flux<Movie> streamAll();
+
+    // text search ordered by relevance, page is zero based
+    Flux<Movie> search(String text, int page, int size);
+
+    Flux<MovieSummary> searchSummaries(String text, int page, int size);
+
+    Mono<Movie> add(Movie movie);
+
+    Mono<Movie> findById(String movieId);
+
+    // resolves the referenced reviews of all given movies with a single query
+    Mono<List<Movie>> withReviews(List<Movie> movies);
+
+    // expectedVersions come from If-Match, null writes unconditionally, otherwise a stale version fails with 412
+    Mono<Movie> update(String movieId, MovieDto movieDto, List<Long> expectedVersions);
+
+    Mono<Void> delete(String movieId, List<Long> expectedVersions);
+
+    // a single updateMany/deleteMany over the ids or filter of the request
+    Mono<BulkResult> updateMany(MovieBulkRequest request);
+
+    Mono<BulkResult> deleteMany(MovieBulkRequest request);
+
+    // served from the in-memory facet table, most frequent genre first
+    List<GenreCount> findGenreCounts();
+}
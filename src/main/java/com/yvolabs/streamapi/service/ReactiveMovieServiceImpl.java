@@ -0,0 +1,298 @@
+package com.yvolabs.streamapi.service;
+
+import com.yvolabs.streamapi.dto.BulkResult;
+import com.yvolabs.streamapi.dto.CursorPage;
+import com.yvolabs.streamapi.dto.GenreCount;
+import com.yvolabs.streamapi.dto.MovieBulkRequest;
+import com.yvolabs.streamapi.dto.MovieDto;
+import com.yvolabs.streamapi.dto.MovieFilter;
+import com.yvolabs.streamapi.dto.MovieSummary;
+import com.yvolabs.streamapi.exception.ObjectNotFoundException;
+import com.yvolabs.streamapi.exception.PreconditionFailedException;
+import com.yvolabs.streamapi.model.Movie;
+import com.yvolabs.streamapi.model.MovieTombstone;
+import com.yvolabs.streamapi.model.Review;
+import com.yvolabs.streamapi.repository.MovieQueries;
+import com.yvolabs.streamapi.repository.MovieUpdates;
+import com.yvolabs.streamapi.repository.ReactiveMovieRepository;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.yvolabs.streamapi.repository.MovieQueries.convertStringToObjectId;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * @author Yvonne N
+ */
+@Service
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveMovieServiceImpl implements ReactiveMovieService {
+    private final ReactiveMovieRepository movieRepository;
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final GenreFacetCache genreFacetCache;
+
+    @Value("${api.movies.search.max-results:1000}")
+    int searchMaxResults;
+
+    @Value("${api.movies.update.max-attempts:5}")
+    int updateMaxAttempts;
+
+    @Value("${api.movies.bulk.delete-batch-size:1000}")
+    int deleteBatchSize;
+
+    @Override
+    public Mono<CursorPage<Movie>> findPage(String cursor, int limit, MovieFilter filter, Sort.Direction releaseDateOrder) {
+        return findPage(cursor, limit, filter, releaseDateOrder, Movie.class, Movie::getId, Movie::getReleaseDate);
+    }
+
+    @Override
+    public Mono<CursorPage<MovieSummary>> findSummaryPage(String cursor, int limit, MovieFilter filter, Sort.Direction releaseDateOrder) {
+        return findPage(cursor, limit, filter, releaseDateOrder, MovieSummary.class,
+                (summary) -> new ObjectId(summary.getId()), MovieSummary::getReleaseDate);
+    }
+
+    private <T> Mono<CursorPage<T>> findPage(String cursor, int limit, MovieFilter filter, Sort.Direction releaseDateOrder,
+                                             Class<T> type, Function<T, ObjectId> idOf, Function<T, LocalDate> releaseDateOf) {
+        // deferred so an invalid cursor surfaces as an error signal
+        return Mono.defer(() -> mongoTemplate.query(Movie.class)
+                .as(type)
+                .matching(MovieQueries.page(cursor, limit, filter, releaseDateOrder))
+                .all()
+                .collectList()
+                .map((results) -> MovieQueries.toPage(results, limit, releaseDateOrder, idOf, releaseDateOf)));
+    }
+
+    @Override
+    public Flux<Movie> streamAll() {
+        return movieRepository.findAll();
+    }
+
+    @Override
+    public Flux<Movie> search(String text, int page, int size) {
+        return search(text, page, size, Movie.class);
+    }
+
+    @Override
+    public Flux<MovieSummary> searchSummaries(String text, int page, int size) {
+        return search(text, page, size, MovieSummary.class, "title", "releaseDate", "genres");
+    }
+
+    private <T> Flux<T> search(String text, int page, int size, Class<T> type, String... fields) {
+        return MovieQueries.search(text, page, size, searchMaxResults, fields)
+                .map((query) -> mongoTemplate.query(Movie.class)
+                        .as(type)
+                        .matching(query)
+                        .all())
+                .orElse(Flux.empty());
+    }
+
+    @Override
+    public Mono<Movie> add(Movie movie) {
+        // only ids given by the client can belong to a deleted movie, its tombstone would also report it deleted
+        boolean recreated = movie.getId() != null;
+        return movieRepository.save(movie)
+                .doOnNext((savedMovie) -> genreFacetCache.added(savedMovie.getGenres()))
+                .flatMap((savedMovie) -> recreated
+                        ? mongoTemplate.remove(Query.query(where("_id").is(savedMovie.getId())), MovieTombstone.class)
+                        .thenReturn(savedMovie)
+                        : Mono.just(savedMovie));
+    }
+
+    @Override
+    public Mono<Movie> findById(String movieId) {
+        return Mono.defer(() -> movieRepository.findById(convertStringToObjectId(movieId)))
+                .switchIfEmpty(Mono.error(() -> new ObjectNotFoundException("movie", movieId)));
+    }
+
+    @Override
+    public Mono<List<Movie>> withReviews(List<Movie> movies) {
+        Set<ObjectId> reviewIds = movies.stream()
+                .map(Movie::getReviewsIds)
+                .filter(Objects::nonNull)
+                .flatMap(List::stream)
+                .collect(Collectors.toSet());
+
+        // one $in query for the whole page instead of one lookup per movie
+        Mono<Map<ObjectId, Review>> reviewsById = reviewIds.isEmpty()
+                ? Mono.just(Map.of())
+                : mongoTemplate.find(Query.query(where("_id").in(reviewIds)), Review.class)
+                .collectMap(Review::getId);
+
+        return reviewsById.map((reviews) -> movies.stream()
+                .map((movie) -> movie.toBuilder()
+                        .reviews(movie.getReviewsIds() == null
+                                ? List.of()
+                                : movie.getReviewsIds().stream()
+                                .map(reviews::get)
+                                .filter(Objects::nonNull)
+                                .toList())
+                        .build())
+                .toList());
+    }
+
+    @Override
+    public Mono<Movie> update(String movieId, MovieDto movieDto, List<Long> expectedVersions) {
+        return Mono.defer(() -> {
+            ObjectId id = convertStringToObjectId(movieId);
+            Update update = MovieUpdates.fromDto(movieDto);
+
+            if (update.getUpdateObject().isEmpty()) {
+                return movieRepository.findById(id)
+                        .switchIfEmpty(Mono.error(() -> new ObjectNotFoundException("movie", movieId)))
+                        .flatMap((movie) -> expectedVersions != null && !expectedVersions.contains(versionOf(movie))
+                                ? Mono.error(new PreconditionFailedException("movie", movieId))
+                                : Mono.just(movie));
+            }
+            MovieUpdates.touch(update, MovieUpdates.now());
+            if (movieDto.getGenres() == null) {
+                return mongoTemplate.findAndModify(
+                                MovieQueries.byId(id, expectedVersions),
+                                update,
+                                FindAndModifyOptions.options().returnNew(true),
+                                Movie.class)
+                        .switchIfEmpty(writeFailed(id, movieId, expectedVersions));
+            }
+
+            // genre changes need the previous genres for the facet counts. They are read first and the write only applies
+            // while the movie still has the version they were read at, an empty write means reading them again
+            Query previousGenres = MovieQueries.byId(id, expectedVersions);
+            previousGenres.fields().include("genres", "version");
+            return mongoTemplate.findOne(previousGenres, Movie.class)
+                    .switchIfEmpty(writeFailed(id, movieId, expectedVersions))
+                    .flatMap((previousMovie) -> mongoTemplate.findAndModify(
+                                    MovieQueries.byIdAtVersion(id, previousMovie.getVersion()),
+                                    update,
+                                    FindAndModifyOptions.options().returnNew(true),
+                                    Movie.class)
+                            .doOnNext((updatedMovie) ->
+                                    genreFacetCache.changed(previousMovie.getGenres(), updatedMovie.getGenres())))
+                    .repeatWhenEmpty((emptyWrites) -> emptyWrites.take(updateMaxAttempts - 1))
+                    // every attempt lost to another write, the client retries
+                    .switchIfEmpty(Mono.error(() -> new PreconditionFailedException("movie", movieId)));
+        });
+    }
+
+    @Override
+    public Mono<Void> delete(String movieId, List<Long> expectedVersions) {
+        return Mono.defer(() -> {
+                    ObjectId id = convertStringToObjectId(movieId);
+                    return mongoTemplate.findAndRemove(MovieQueries.byId(id, expectedVersions), Movie.class)
+                            .switchIfEmpty(writeFailed(id, movieId, expectedVersions));
+                })
+                .doOnNext((deletedMovie) -> genreFacetCache.removed(deletedMovie.getGenres()))
+                .flatMap((deletedMovie) -> writeTombstones(List.of(deletedMovie.getId())));
+    }
+
+    // the version filter matched nothing, only a second lookup tells a stale version from a missing movie
+    private <T> Mono<T> writeFailed(ObjectId id, String movieId, List<Long> expectedVersions) {
+        if (expectedVersions == null) {
+            return Mono.error(() -> new ObjectNotFoundException("movie", movieId));
+        }
+        return mongoTemplate.exists(Query.query(where("_id").is(id)), Movie.class)
+                .flatMap((exists) -> Mono.error(exists
+                        ? new PreconditionFailedException("movie", movieId)
+                        : new ObjectNotFoundException("movie", movieId)));
+    }
+
+    // movies written before versioning count as version 0
+    private static long versionOf(Movie movie) {
+        return movie.getVersion() == null ? 0L : movie.getVersion();
+    }
+
+    @Override
+    public Mono<BulkResult> updateMany(MovieBulkRequest request) {
+        return Mono.defer(() -> mongoTemplate.updateMulti(
+                        MovieQueries.bulk(request),
+                        MovieUpdates.touch(MovieUpdates.fromDto(request.getUpdate()), MovieUpdates.now()),
+                        Movie.class))
+                .flatMap((result) -> {
+                    BulkResult bulkResult = BulkResult.builder()
+                            .matched(result.getMatchedCount())
+                            .modified(result.getModifiedCount())
+                            .build();
+                    // the previous genres of the matched movies are unknown, rebuild the counts
+                    return request.getUpdate().getGenres() != null && result.getModifiedCount() > 0
+                            ? reconcileGenreFacets().thenReturn(bulkResult)
+                            : Mono.just(bulkResult);
+                });
+    }
+
+    @Override
+    public Mono<BulkResult> deleteMany(MovieBulkRequest request) {
+        // one bounded batch of matches at a time, the next batch starts after the last _id of the previous one
+        return deleteBatch(request, null)
+                .expand((batch) -> batch.size() < deleteBatchSize
+                        ? Mono.empty()
+                        : deleteBatch(request, batch.get(batch.size() - 1).getId()))
+                .map((batch) -> (long) batch.size())
+                .reduce(0L, Long::sum)
+                .map((deleted) -> BulkResult.builder()
+                        .deleted(deleted)
+                        .build());
+    }
+
+    // finds the matches, then removes them by id, the ids are needed for the tombstones
+    private Mono<List<Movie>> deleteBatch(MovieBulkRequest request, ObjectId after) {
+        return Mono.defer(() -> {
+                    Query query = MovieQueries.bulkBatch(request, after, deleteBatchSize);
+                    query.fields().include("_id", "genres");
+                    return mongoTemplate.find(query, Movie.class).collectList();
+                })
+                .flatMap((batch) -> {
+                    if (batch.isEmpty()) {
+                        return Mono.just(batch);
+                    }
+                    List<ObjectId> ids = batch.stream().map(Movie::getId).toList();
+                    return mongoTemplate.remove(Query.query(where("_id").in(ids)), Movie.class)
+                            .then(writeTombstones(ids))
+                            .doOnSuccess((done) -> batch.forEach((movie) -> genreFacetCache.removed(movie.getGenres())))
+                            .thenReturn(batch);
+                });
+    }
+
+    // upserts, a movie recreated under the same id may be deleted again
+    private Mono<Void> writeTombstones(List<ObjectId> movieIds) {
+        return Mono.defer(() -> {
+            Instant deletedAt = MovieUpdates.now();
+            ReactiveBulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MovieTombstone.class);
+            movieIds.forEach((movieId) -> bulk.upsert(
+                    Query.query(where("_id").is(movieId)), Update.update("deletedAt", deletedAt)));
+            return bulk.execute().then();
+        });
+    }
+
+    @Override
+    public List<GenreCount> findGenreCounts() {
+        return genreFacetCache.findAll();
+    }
+
+    // the facet rebuild runs a blocking aggregation, keep it off the event loop
+    private Mono<Void> reconcileGenreFacets() {
+        return Mono.fromRunnable(genreFacetCache::reconcile)
+                .subscribeOn(Schedulers.boundedElastic())
+                .then();
+    }
+}
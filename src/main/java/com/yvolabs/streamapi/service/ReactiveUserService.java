@@ -0,0 +1,27 @@
+package com.yvolabs.streamapi.service;
+
+import com.yvolabs.streamapi.dto.UserDto;
+import com.yvolabs.streamapi.model.StreamUser;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Non-blocking counterpart of {@link UserService}, served under the reactive profile
+ *
+ * @author Yvonne N
+ */
+public interface ReactiveUserService {
+    Flux<StreamUser> findAll();
+
+    Mono<StreamUser> save(StreamUser streamUserRequest);
+
+    Mono<StreamUser> findById(String userId);
+
+    // expectedVersions come from If-Match, null writes unconditionally, otherwise a stale version fails with 412
+    Mono<StreamUser> update(String userId, UserDto userDto, List<Long> expectedVersions);
+
+    Mono<Void> delete(String userId, List<Long> expectedVersions);
+
+}
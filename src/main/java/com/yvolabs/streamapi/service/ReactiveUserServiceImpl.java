@@ -0,0 +1,128 @@
+package com.yvolabs.streamapi.service;
+
+import com.yvolabs.streamapi.dto.UserDto;
+import com.yvolabs.streamapi.exception.InvalidObjectIdException;
+import com.yvolabs.streamapi.exception.ObjectNotFoundException;
+import com.yvolabs.streamapi.exception.PreconditionFailedException;
+import com.yvolabs.streamapi.exception.UserAlreadyExistsException;
+import com.yvolabs.streamapi.model.StreamUser;
+import com.yvolabs.streamapi.repository.ReactiveUserRepository;
+import com.yvolabs.streamapi.repository.UserUpdates;
+import com.yvolabs.streamapi.security.MyUserPrincipal;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * @author Yvonne N
+ */
+@Service
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveUserServiceImpl implements ReactiveUserService, ReactiveUserDetailsService {
+    private final ReactiveUserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    @Override
+    public Flux<StreamUser> findAll() {
+        return userRepository.findAll();
+    }
+
+    @Override
+    public Mono<StreamUser> save(StreamUser user) {
+        // bcrypt is deliberately slow, hash off the event loop
+        return Mono.fromCallable(() -> passwordEncoder.encode(user.getPassword()))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap((encoded) -> {
+                    user.setPassword(encoded);
+                    // the unique index on email rejects duplicates, no check-then-insert race
+                    return userRepository.insert(user);
+                })
+                .onErrorMap(DuplicateKeyException.class, (e) -> new UserAlreadyExistsException(user.getEmail()));
+    }
+
+    @Override
+    public Mono<StreamUser> findById(String userId) {
+        return Mono.defer(() -> userRepository.findById(convertStringToObjectId(userId)))
+                .switchIfEmpty(Mono.error(() -> new ObjectNotFoundException("user", userId)));
+    }
+
+    @Override
+    public Mono<StreamUser> update(String userId, UserDto userDto, List<Long> expectedVersions) {
+        return Mono.defer(() -> {
+            ObjectId convertedUserId = convertStringToObjectId(userId);
+            return mongoTemplate.findAndModify(
+                            byId(convertedUserId, expectedVersions),
+                            UserUpdates.fromDto(userDto),
+                            FindAndModifyOptions.options().returnNew(true),
+                            StreamUser.class)
+                    .onErrorMap(DuplicateKeyException.class, (e) -> new UserAlreadyExistsException(userDto.getEmail()))
+                    .switchIfEmpty(writeFailed(convertedUserId, userId, expectedVersions));
+        });
+    }
+
+    @Override
+    public Mono<Void> delete(String userId, List<Long> expectedVersions) {
+        return Mono.defer(() -> {
+            ObjectId convertedUserId = convertStringToObjectId(userId);
+            return mongoTemplate.remove(byId(convertedUserId, expectedVersions), StreamUser.class)
+                    .flatMap((result) -> result.getDeletedCount() == 0
+                            ? writeFailed(convertedUserId, userId, expectedVersions)
+                            : Mono.<Void>empty());
+        });
+    }
+
+    //security, an unknown email completes empty and is rejected as bad credentials
+    @Override
+    public Mono<UserDetails> findByUsername(String username) {
+        return userRepository.findByEmail(username)
+                .<UserDetails>map(MyUserPrincipal::new);
+    }
+
+
+    private static ObjectId convertStringToObjectId(String userId) {
+        if (userId == null || !ObjectId.isValid(userId)) {
+            throw new InvalidObjectIdException("user", userId);
+        }
+
+        return new ObjectId(userId);
+    }
+
+    private static Query byId(ObjectId userId, List<Long> expectedVersions) {
+        Criteria criteria = where("_id").is(userId);
+        if (expectedVersions != null) {
+            criteria.and("version").in(expectedVersions);
+        }
+        return Query.query(criteria);
+    }
+
+    // the version filter matched nothing, only a second lookup tells a stale version from a missing user
+    private <T> Mono<T> writeFailed(ObjectId convertedUserId, String userId, List<Long> expectedVersions) {
+        if (expectedVersions == null) {
+            return Mono.error(() -> new ObjectNotFoundException("user", userId));
+        }
+        return mongoTemplate.exists(Query.query(where("_id").is(convertedUserId)), StreamUser.class)
+                .flatMap((exists) -> Mono.error(exists
+                        ? new PreconditionFailedException("user", userId)
+                        : new ObjectNotFoundException("user", userId)));
+    }
+
+
+}
@@ -4,6 +4,7 @@ import com.yvolabs.streamapi.dto.UserDto;
 import com.yvolabs.streamapi.model.StreamUser;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * @author Yvonne N
@@ -11,13 +12,16 @@ import java.util.List;
 public interface UserService {
     List<StreamUser> findAll();
 
+    Stream<StreamUser> streamAll();
+
     StreamUser save(StreamUser streamUserRequest);
 
     StreamUser findById(String userId);
 
 
-    StreamUser update(String userId, UserDto userDto);
+    // expectedVersions come from If-Match, null writes unconditionally, otherwise a stale version fails with 412
+    StreamUser update(String userId, UserDto userDto, List<Long> expectedVersions);
 
-    void delete(String userId);
+    void delete(String userId, List<Long> expectedVersions);
 
 }
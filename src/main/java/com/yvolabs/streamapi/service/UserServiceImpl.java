@@ -3,21 +3,35 @@ package com.yvolabs.streamapi.service;
 import com.yvolabs.streamapi.dto.UserDto;
 import com.yvolabs.streamapi.exception.InvalidObjectIdException;
 import com.yvolabs.streamapi.exception.ObjectNotFoundException;
+import com.yvolabs.streamapi.exception.PreconditionFailedException;
 import com.yvolabs.streamapi.exception.UserAlreadyExistsException;
 import com.yvolabs.streamapi.model.StreamUser;
 import com.yvolabs.streamapi.repository.UserRepository;
+import com.yvolabs.streamapi.repository.UserUpdates;
 import com.yvolabs.streamapi.security.MyUserPrincipal;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
-import static com.yvolabs.streamapi.mapper.UserMapper.INSTANCE;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
 
 /**
  * @author Yvonne N
@@ -27,51 +41,113 @@ import static com.yvolabs.streamapi.mapper.UserMapper.INSTANCE;
 public class UserServiceImpl implements UserService, UserDetailsService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${api.batching.find-by-id.enabled:false}")
+    boolean batchFindById;
+
+    @Value("${api.batching.find-by-id.window-ms:1}")
+    long batchWindowMs;
+
+    @Value("${api.batching.find-by-id.max-batch-size:64}")
+    int batchMaxSize;
+
+    // concurrent findById calls share one $in query, null unless batching is enabled
+    private BatchLoader<ObjectId, StreamUser> findByIdLoader;
+
+    @PostConstruct
+    void initFindByIdLoader() {
+        if (batchFindById) {
+            findByIdLoader = new BatchLoader<>(
+                    (ids) -> userRepository.findAllById(ids).stream()
+                            .collect(Collectors.toMap(StreamUser::getId, Function.identity())),
+                    Duration.ofMillis(batchWindowMs),
+                    batchMaxSize);
+        }
+    }
 
     @Override
     public List<StreamUser> findAll() {
         return userRepository.findAll();
     }
 
+    @Override
+    public Stream<StreamUser> streamAll() {
+        return userRepository.stream(new Query());
+    }
+
     @Override
     public StreamUser save(StreamUser user) {
         String encoded = passwordEncoder.encode(user.getPassword());
         user.setPassword(encoded);
-        userRepository.findByEmail(user.getEmail())
-                .ifPresent((foundUser) -> {
-                    throw new UserAlreadyExistsException(foundUser.getEmail());
-                });
 
-        return userRepository.save(user);
+        // the unique index on email rejects duplicates, no check-then-insert race
+        try {
+            return userRepository.insert(user);
+        } catch (DuplicateKeyException e) {
+            throw new UserAlreadyExistsException(user.getEmail());
+        }
     }
 
     @Override
     public StreamUser findById(String userId) {
         ObjectId convertedUserId = convertStringToObjectId(userId);
 
-        return userRepository.findById(convertedUserId)
-                .orElseThrow(() -> new ObjectNotFoundException("user", userId));
+        Optional<StreamUser> user = findByIdLoader == null
+                ? userRepository.findById(convertedUserId)
+                : Optional.ofNullable(findByIdLoader.load(convertedUserId));
+
+        return user.orElseThrow(() -> new ObjectNotFoundException("user", userId));
 
     }
 
     @Override
-    public StreamUser update(String userId, UserDto userDto) {
+    public StreamUser update(String userId, UserDto userDto, List<Long> expectedVersions) {
         ObjectId convertedUserId = convertStringToObjectId(userId);
 
-        return userRepository.findById(convertedUserId)
-                .map((foundUser) -> {
-                    StreamUser userUpdate = INSTANCE.updateUserDto(userDto, foundUser);
-                    return userRepository.save(userUpdate);
-                })
-                .orElseThrow(() -> new ObjectNotFoundException("user", userId));
+        StreamUser updatedUser;
+        try {
+            updatedUser = mongoTemplate.findAndModify(
+                    byId(convertedUserId, expectedVersions),
+                    UserUpdates.fromDto(userDto),
+                    FindAndModifyOptions.options().returnNew(true),
+                    StreamUser.class);
+        } catch (DuplicateKeyException e) {
+            throw new UserAlreadyExistsException(userDto.getEmail());
+        }
+
+        if (updatedUser == null) {
+            throw writeFailed(convertedUserId, userId, expectedVersions);
+        }
+        return updatedUser;
     }
 
     @Override
-    public void delete(String userId) {
-        userRepository.findById(convertStringToObjectId(userId))
-                .orElseThrow(() -> new ObjectNotFoundException("user", userId));
-        userRepository.deleteById(convertStringToObjectId(userId));
+    public void delete(String userId, List<Long> expectedVersions) {
+        ObjectId convertedUserId = convertStringToObjectId(userId);
+        long deletedCount = mongoTemplate.remove(byId(convertedUserId, expectedVersions), StreamUser.class).getDeletedCount();
+
+        if (deletedCount == 0) {
+            throw writeFailed(convertedUserId, userId, expectedVersions);
+        }
+
+    }
 
+    // the version check is part of the filter, a concurrent write in between simply no longer matches
+    private static Query byId(ObjectId userId, List<Long> expectedVersions) {
+        Criteria criteria = where("_id").is(userId);
+        if (expectedVersions != null) {
+            criteria.and("version").in(expectedVersions);
+        }
+        return Query.query(criteria);
+    }
+
+    // the version filter matched nothing, only a second lookup tells a stale version from a missing user
+    private RuntimeException writeFailed(ObjectId convertedUserId, String userId, List<Long> expectedVersions) {
+        if (expectedVersions != null && mongoTemplate.exists(Query.query(where("_id").is(convertedUserId)), StreamUser.class)) {
+            return new PreconditionFailedException("user", userId);
+        }
+        return new ObjectNotFoundException("user", userId);
     }
 
     //security
@@ -84,15 +160,11 @@ public class UserServiceImpl implements UserService, UserDetailsService {
 
 
     private static ObjectId convertStringToObjectId(String userId) {
-        ObjectId userIdToObjectId;
-
-        try {
-            userIdToObjectId = new ObjectId(userId);
-        } catch (IllegalArgumentException e) {
+        if (userId == null || !ObjectId.isValid(userId)) {
             throw new InvalidObjectIdException("user", userId);
         }
 
-        return userIdToObjectId;
+        return new ObjectId(userId);
     }
 
 
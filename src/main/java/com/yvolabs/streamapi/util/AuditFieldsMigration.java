@@ -0,0 +1,54 @@
+package com.yvolabs.streamapi.util;
+
+import com.mongodb.client.result.UpdateResult;
+import com.yvolabs.streamapi.model.Movie;
+import com.yvolabs.streamapi.model.StreamUser;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ConvertOperators;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Backfills createdAt/updatedAt of movies saved before auditing from the creation time in their ObjectId, so they
+ * take part in the delta sync, and starts unversioned movies and users at version 0. Single server side updates,
+ * a no-op once every document has the fields.
+ *
+ * @author Yvonne N
+ */
+@Component
+@ConditionalOnProperty(name = "api.migrations.audit-fields.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class AuditFieldsMigration implements ApplicationRunner {
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        AggregationUpdate backfill = AggregationUpdate.update()
+                .set("createdAt").toValue(ConvertOperators.ToDate.toDate("$_id"))
+                .set("updatedAt").toValue(ConvertOperators.ToDate.toDate("$_id"));
+
+        UpdateResult result = mongoTemplate.updateMulti(
+                Query.query(where("updatedAt").exists(false)), backfill, Movie.class);
+
+        if (result.getModifiedCount() > 0) {
+            log.info("audit fields migration: {} movies backfilled", result.getModifiedCount());
+        }
+
+        Query unversioned = Query.query(where("version").exists(false));
+        long movies = mongoTemplate.updateMulti(unversioned, Update.update("version", 0L), Movie.class).getModifiedCount();
+        long users = mongoTemplate.updateMulti(unversioned, Update.update("version", 0L), StreamUser.class).getModifiedCount();
+        if (movies > 0 || users > 0) {
+            log.info("audit fields migration: {} movies and {} users versioned", movies, users);
+        }
+    }
+}
@@ -6,6 +6,7 @@ import com.yvolabs.streamapi.repository.MovieRepository;
 import com.yvolabs.streamapi.repository.UserRepository;
 import org.bson.types.ObjectId;
 
+import java.time.LocalDate;
 import java.util.List;
 
 /**
@@ -22,14 +23,14 @@ public class DbInitializeTestData {
                     .id(new ObjectId("663fed2ac3bb554bca098c59"))
                     .title("some-title")
                     .description("some-description")
-                    .releaseDate("01-01-2020")
+                    .releaseDate(LocalDate.of(2020, 1, 1))
                     .genres(List.of("Genre 1", "Genre 2"))
                     .build();
             Movie movie2 = Movie.builder()
                     .id(new ObjectId("663fed2ac3bb554bca098c58"))
                     .title("some-title-2")
                     .description("some-description")
-                    .releaseDate("01-01-2020")
+                    .releaseDate(LocalDate.of(2020, 1, 1))
                     .genres(List.of("Genre 1", "Genre 2"))
                     .build();
             movieRepo.save(movie1);
@@ -0,0 +1,42 @@
+package com.yvolabs.streamapi.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Entity tags derived from the @Version field of a document
+ *
+ * @author Yvonne N
+ */
+public final class ETags {
+
+    private ETags() {
+    }
+
+    // strong, every write bumps the version. Documents written before versioning count as version 0
+    public static String of(Long version) {
+        return "\"" + (version == null ? 0 : version) + "\"";
+    }
+
+    // versions listed in an If-Match header, null when there is none or it is *. Weak and foreign tags never
+    // match a write, a header with nothing else gives an empty list
+    public static List<Long> parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+
+        List<Long> versions = new ArrayList<>();
+        for (String tag : ifMatch.split(",")) {
+            String value = tag.trim();
+            if (value.length() < 3 || !value.startsWith("\"") || !value.endsWith("\"")) {
+                continue;
+            }
+            try {
+                versions.add(Long.parseLong(value.substring(1, value.length() - 1)));
+            } catch (NumberFormatException e) {
+                // not one of ours
+            }
+        }
+        return versions;
+    }
+}
@@ -0,0 +1,46 @@
+package com.yvolabs.streamapi.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes a stream of values as newline delimited json, one document per line.
+ * Only the first line is flushed explicitly so the client gets its first byte straight away,
+ * after that the generator and servlet buffers flush as they fill up.
+ *
+ * @author Yvonne N
+ */
+public final class NdJsonWriter {
+
+    private NdJsonWriter() {
+    }
+
+    public static void write(OutputStream outputStream, Stream<?> values, ObjectMapper objectMapper) throws IOException {
+        ObjectWriter writer = objectMapper.writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator("");
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+            Iterator<?> iterator = values.iterator();
+            boolean first = true;
+            while (iterator.hasNext()) {
+                writer.writeValue(generator, iterator.next());
+                generator.writeRaw('\n');
+                if (first) {
+                    generator.flush();
+                    first = false;
+                }
+            }
+            generator.flush();
+        }
+    }
+}
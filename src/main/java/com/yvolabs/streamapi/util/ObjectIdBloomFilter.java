@@ -0,0 +1,104 @@
+package com.yvolabs.streamapi.util;
+
+import org.bson.types.ObjectId;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter over ObjectIds. mightContain never misses an added id, ids never added answer false except for the
+ * configured false positive rate. Adds and lookups are lock free, ids cannot be removed.
+ *
+ * @author Yvonne N
+ */
+public final class ObjectIdBloomFilter {
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    public ObjectIdBloomFilter(long expectedIds, double falsePositiveRate) {
+        long n = Math.max(1, expectedIds);
+        double p = Math.min(0.5, Math.max(1e-9, falsePositiveRate));
+
+        // the usual optimum, m = -n ln p / (ln 2)^2 bits and k = m / n ln 2 hashes
+        long m = (long) Math.ceil(-n * Math.log(p) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (m + 63) >>> 6));
+        this.bits = new AtomicLongArray(words);
+        this.bitCount = (long) words << 6;
+        this.hashCount = (int) Math.max(1, Math.min(16, Math.round((double) bitCount / n * Math.log(2))));
+    }
+
+    public void add(ObjectId id) {
+        byte[] bytes = id.toByteArray();
+        long h1 = hash1(bytes);
+        long h2 = hash2(bytes);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = index(h1 + i * h2);
+            bits.accumulateAndGet((int) (bit >>> 6), 1L << bit, ObjectIdBloomFilter::or);
+        }
+    }
+
+    public boolean mightContain(ObjectId id) {
+        byte[] bytes = id.toByteArray();
+        long h1 = hash1(bytes);
+        long h2 = hash2(bytes);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = index(h1 + i * h2);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    long bitCount() {
+        return bitCount;
+    }
+
+    int hashCount() {
+        return hashCount;
+    }
+
+    private long index(long hash) {
+        return Long.remainderUnsigned(hash, bitCount);
+    }
+
+    // two independent hashes of the 12 id bytes (timestamp, random value, counter) for double hashing
+    private static long hash1(byte[] bytes) {
+        return mix(high(bytes) ^ mix(low(bytes)));
+    }
+
+    private static long hash2(byte[] bytes) {
+        // odd, so the k probes never collapse onto one bit
+        return mix(low(bytes) * GOLDEN_GAMMA + Long.rotateLeft(high(bytes), 29)) | 1L;
+    }
+
+    // the timestamp and four bytes of the random value
+    private static long high(byte[] bytes) {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = value << 8 | (bytes[i] & 0xFF);
+        }
+        return value;
+    }
+
+    // the last random byte and the counter
+    private static long low(byte[] bytes) {
+        return (bytes[8] & 0xFFL) << 24 | (bytes[9] & 0xFFL) << 16 | (bytes[10] & 0xFFL) << 8 | (bytes[11] & 0xFFL);
+    }
+
+    // the murmur3 finalizer, spreads every input bit over the whole result
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xFF51AFD7ED558CCDL;
+        value ^= value >>> 33;
+        value *= 0xC4CEB9FE1A85EC53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    private static long or(long left, long right) {
+        return left | right;
+    }
+}
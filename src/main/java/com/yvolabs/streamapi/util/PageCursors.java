@@ -0,0 +1,97 @@
+package com.yvolabs.streamapi.util;
+
+import com.yvolabs.streamapi.exception.InvalidCursorException;
+import org.bson.types.ObjectId;
+
+import java.nio.ByteBuffer;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Base64;
+
+/**
+ * Encodes the keyset position of a page into an opaque, url safe cursor.
+ *
+ * @author Yvonne N
+ */
+public final class PageCursors {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    // leading byte of sync tokens, keeps them from decoding as a 20 byte release date cursor
+    private static final byte SYNC_TOKEN_VERSION = 1;
+
+    private PageCursors() {
+    }
+
+    // position in a (releaseDate, _id) ordered listing
+    public record ReleaseDateCursor(LocalDate releaseDate, ObjectId id) {
+    }
+
+    // position in the (updatedAt, _id) order of the delta sync
+    public record SyncToken(Instant updatedAt, ObjectId id) {
+    }
+
+    public static String encode(ObjectId lastId) {
+        return ENCODER.encodeToString(lastId.toByteArray());
+    }
+
+    public static ObjectId decode(String cursor) {
+        try {
+            byte[] bytes = DECODER.decode(cursor);
+            if (bytes.length != 12) {
+                throw new InvalidCursorException(cursor);
+            }
+            return new ObjectId(bytes);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException(cursor);
+        }
+    }
+
+    public static String encode(LocalDate releaseDate, ObjectId lastId) {
+        ByteBuffer buffer = ByteBuffer.allocate(20);
+        buffer.putLong(releaseDate.toEpochDay());
+        buffer.put(lastId.toByteArray());
+        return ENCODER.encodeToString(buffer.array());
+    }
+
+    public static ReleaseDateCursor decodeReleaseDate(String cursor) {
+        try {
+            byte[] bytes = DECODER.decode(cursor);
+            if (bytes.length != 20) {
+                throw new InvalidCursorException(cursor);
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            LocalDate releaseDate = LocalDate.ofEpochDay(buffer.getLong());
+            byte[] id = new byte[12];
+            buffer.get(id);
+            return new ReleaseDateCursor(releaseDate, new ObjectId(id));
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new InvalidCursorException(cursor);
+        }
+    }
+
+    public static String encodeSyncToken(Instant updatedAt, ObjectId lastId) {
+        ByteBuffer buffer = ByteBuffer.allocate(21);
+        buffer.put(SYNC_TOKEN_VERSION);
+        buffer.putLong(updatedAt.toEpochMilli());
+        buffer.put(lastId.toByteArray());
+        return ENCODER.encodeToString(buffer.array());
+    }
+
+    public static SyncToken decodeSyncToken(String token) {
+        try {
+            byte[] bytes = DECODER.decode(token);
+            if (bytes.length != 21 || bytes[0] != SYNC_TOKEN_VERSION) {
+                throw new InvalidCursorException("since", token, "syncToken");
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(bytes, 1, 20);
+            Instant updatedAt = Instant.ofEpochMilli(buffer.getLong());
+            byte[] id = new byte[12];
+            buffer.get(id);
+            return new SyncToken(updatedAt, new ObjectId(id));
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new InvalidCursorException("since", token, "syncToken");
+        }
+    }
+}
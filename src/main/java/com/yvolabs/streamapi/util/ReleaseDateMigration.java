@@ -0,0 +1,79 @@
+package com.yvolabs.streamapi.util;
+
+import com.yvolabs.streamapi.model.Movie;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.schema.JsonSchemaObject;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Rewrites string release dates as BSON dates. Runs once the web server is up, reads tolerate both
+ * representations meanwhile, and it is a no-op once every movie has been migrated.
+ *
+ * @author Yvonne N
+ */
+@Component
+@ConditionalOnProperty(name = "api.migrations.release-date.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class ReleaseDateMigration implements ApplicationRunner {
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${api.migrations.release-date.batch-size:500}")
+    int batchSize;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        String collection = mongoTemplate.getCollectionName(Movie.class);
+        Query legacy = Query.query(where("releaseDate").type(JsonSchemaObject.Type.stringType()));
+        legacy.fields().include("releaseDate");
+
+        long migrated = 0;
+        long unparseable = 0;
+        int pending = 0;
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, collection);
+
+        try (Stream<Document> documents = mongoTemplate.stream(legacy, Document.class, collection)) {
+            for (Document document : (Iterable<Document>) documents::iterator) {
+                String value = document.getString("releaseDate");
+                Optional<LocalDate> releaseDate = ReleaseDates.tryParse(value);
+                if (releaseDate.isEmpty()) {
+                    unparseable++;
+                    continue;
+                }
+
+                // the old value is part of the filter so a date written meanwhile is never overwritten
+                bulk.updateOne(
+                        Query.query(where("_id").is(document.get("_id")).and("releaseDate").is(value)),
+                        Update.update("releaseDate", releaseDate.get()));
+                if (++pending == batchSize) {
+                    migrated += bulk.execute().getModifiedCount();
+                    bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, collection);
+                    pending = 0;
+                }
+            }
+        }
+        if (pending > 0) {
+            migrated += bulk.execute().getModifiedCount();
+        }
+
+        if (migrated > 0 || unparseable > 0) {
+            log.info("release date migration: {} movies migrated, {} left as unparseable strings", migrated, unparseable);
+        }
+    }
+}
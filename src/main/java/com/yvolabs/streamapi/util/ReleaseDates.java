@@ -0,0 +1,55 @@
+package com.yvolabs.streamapi.util;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Release dates travel as dd-MM-yyyy strings in the api and are stored as dates in mongo.
+ * dd/MM/yyyy and ISO yyyy-MM-dd are accepted on input as well.
+ *
+ * @author Yvonne N
+ */
+public final class ReleaseDates {
+
+    public static final DateTimeFormatter FORMAT = DateTimeFormatter.ofPattern("dd-MM-uuuu")
+            .withResolverStyle(ResolverStyle.STRICT);
+
+    private static final List<DateTimeFormatter> ACCEPTED_FORMATS = List.of(
+            FORMAT,
+            DateTimeFormatter.ofPattern("dd/MM/uuuu").withResolverStyle(ResolverStyle.STRICT),
+            DateTimeFormatter.ISO_LOCAL_DATE);
+
+    private ReleaseDates() {
+    }
+
+    public static Optional<LocalDate> tryParse(String value) {
+        if (value == null) {
+            return Optional.empty();
+        }
+        String trimmed = value.trim();
+        for (DateTimeFormatter format : ACCEPTED_FORMATS) {
+            try {
+                return Optional.of(LocalDate.parse(trimmed, format));
+            } catch (DateTimeParseException ignored) {
+                // try the next format
+            }
+        }
+        return Optional.empty();
+    }
+
+    public static LocalDate parse(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        return tryParse(value).orElseThrow(() -> new IllegalArgumentException(
+                "releaseDate: " + value + " is not a valid date, use dd-MM-yyyy"));
+    }
+
+    public static String format(LocalDate date) {
+        return date == null ? null : FORMAT.format(date);
+    }
+}
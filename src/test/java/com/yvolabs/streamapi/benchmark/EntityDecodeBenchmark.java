@@ -0,0 +1,98 @@
+package com.yvolabs.streamapi.benchmark;
+
+import com.yvolabs.streamapi.codec.MovieCodec;
+import com.yvolabs.streamapi.codec.StreamUserCodec;
+import com.yvolabs.streamapi.model.Movie;
+import com.yvolabs.streamapi.model.StreamUser;
+import com.yvolabs.streamapi.utils.TestConverters;
+import com.yvolabs.streamapi.utils.UserTestData;
+import org.bson.RawBsonDocument;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Decode cost per document, from the bytes the driver receives to the entity: MongoTemplate (Document, then the
+ * mapping converter) against the entity codecs. A list page of movies is decoded per invocation.
+ * Run with: mvn -Pbenchmark test-compile exec:exec
+ *
+ * @author Yvonne N
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntityDecodeBenchmark {
+    private static final int PAGE_SIZE = 100;
+
+    private MappingMongoConverter converter;
+    private final MovieCodec movieCodec = new MovieCodec();
+    private final StreamUserCodec userCodec = new StreamUserCodec();
+
+    private List<RawBsonDocument> movies;
+    private RawBsonDocument user;
+
+    @Setup
+    public void setUp() {
+        converter = TestConverters.mappingConverter();
+        movies = IntStream.range(0, PAGE_SIZE)
+                .mapToObj((i) -> TestConverters.write(converter, movie(i)))
+                .toList();
+        user = TestConverters.write(converter, UserTestData.setUsersTestData().get(0));
+    }
+
+    @Benchmark
+    public List<Movie> moviePageConverter() {
+        return movies.stream()
+                .map((document) -> converter.read(Movie.class, document.decode(TestConverters.DOCUMENT_CODEC)))
+                .toList();
+    }
+
+    @Benchmark
+    public List<Movie> moviePageCodec() {
+        return movies.stream()
+                .map((document) -> document.decode(movieCodec))
+                .toList();
+    }
+
+    @Benchmark
+    public StreamUser userConverter() {
+        return converter.read(StreamUser.class, user.decode(TestConverters.DOCUMENT_CODEC));
+    }
+
+    @Benchmark
+    public StreamUser userCodec() {
+        return user.decode(userCodec);
+    }
+
+    private static Movie movie(int i) {
+        return Movie.builder()
+                .id(new ObjectId())
+                .title("Title " + i)
+                .description("Description of movie " + i + ", long enough to be a realistic synopsis of the film")
+                .releaseDate(LocalDate.of(2000, 1, 1).plusDays(i * 37L))
+                .genres(List.of("Drama", "Thriller"))
+                .reviewsIds(List.of(new ObjectId(), new ObjectId(), new ObjectId()))
+                .createdAt(Instant.now())
+                .updatedAt(Instant.now())
+                .version((long) i)
+                .build();
+    }
+}
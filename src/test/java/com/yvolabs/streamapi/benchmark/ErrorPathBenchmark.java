@@ -0,0 +1,98 @@
+package com.yvolabs.streamapi.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yvolabs.streamapi.exception.ObjectNotFoundException;
+import com.yvolabs.streamapi.repository.MovieQueries;
+import com.yvolabs.streamapi.response.Result;
+import com.yvolabs.streamapi.response.StatusCode;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of 4xx answers, from the failing id check to the serialized error envelope, thrown stackDepth frames
+ * below the catch like under the servlet filter chain. The *WithStackTrace variants reproduce the previous error
+ * path: ids parsed by new ObjectId with the IllegalArgumentException caught, and exceptions that fill in their stack.
+ * Run with: mvn -Pbenchmark test-compile exec:exec
+ *
+ * @author Yvonne N
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ErrorPathBenchmark {
+    private static final String INVALID_ID = "not-an-object-id";
+    private static final String MISSING_ID = new ObjectId().toHexString();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // a typical request thread has a hundred and more frames between the filter chain and the service
+    @Param({"20", "150"})
+    int stackDepth;
+
+    @Benchmark
+    public byte[] invalidIdWithStackTrace() throws JsonProcessingException {
+        return handle(StatusCode.INVALID_ARGUMENT, () -> {
+            try {
+                new ObjectId(INVALID_ID);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalStateException("movie id: " + INVALID_ID + " is invalid, should be 24 characters long");
+            }
+        });
+    }
+
+    @Benchmark
+    public byte[] invalidIdStackless() throws JsonProcessingException {
+        return handle(StatusCode.INVALID_ARGUMENT, () -> MovieQueries.convertStringToObjectId(INVALID_ID));
+    }
+
+    @Benchmark
+    public byte[] notFoundWithStackTrace() throws JsonProcessingException {
+        return handle(StatusCode.NOT_FOUND, () -> {
+            throw new IllegalStateException("Could not find movie with id " + MISSING_ID);
+        });
+    }
+
+    @Benchmark
+    public byte[] notFoundStackless() throws JsonProcessingException {
+        return handle(StatusCode.NOT_FOUND, () -> {
+            throw new ObjectNotFoundException("movie", MISSING_ID);
+        });
+    }
+
+    // what ExceptionHandlerAdvice and the message converter do with the exception
+    private byte[] handle(int code, Runnable request) throws JsonProcessingException {
+        try {
+            atDepth(stackDepth, request);
+            throw new AssertionError("the request did not fail");
+        } catch (RuntimeException e) {
+            return objectMapper.writeValueAsBytes(Result.builder()
+                    .flag(false)
+                    .code(code)
+                    .message(e.getMessage())
+                    .build());
+        }
+    }
+
+    private static void atDepth(int depth, Runnable request) {
+        if (depth == 0) {
+            request.run();
+        } else {
+            atDepth(depth - 1, request);
+        }
+    }
+}
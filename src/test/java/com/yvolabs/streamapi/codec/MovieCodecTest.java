@@ -0,0 +1,72 @@
+package com.yvolabs.streamapi.codec;
+
+import com.yvolabs.streamapi.model.Movie;
+import com.yvolabs.streamapi.utils.TestConverters;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Yvonne N
+ */
+class MovieCodecTest {
+    private final MovieCodec codec = new MovieCodec();
+
+    @Test
+    void decodesWhatTheConverterWrites() {
+        MappingMongoConverter converter = TestConverters.mappingConverter();
+        Movie movie = movie();
+
+        RawBsonDocument stored = TestConverters.write(converter, movie);
+
+        // _class is written by the converter and skipped by the codec
+        assertTrue(stored.containsKey("_class"));
+        assertEquals(movie, stored.decode(codec));
+        assertEquals(converter.read(Movie.class, stored.decode(TestConverters.DOCUMENT_CODEC)), stored.decode(codec));
+    }
+
+    @Test
+    void encodeDecodeRoundTrip() {
+        Movie movie = movie();
+
+        assertEquals(movie, new RawBsonDocument(movie, codec).decode(codec));
+    }
+
+    @Test
+    void decodesLegacyLayouts() {
+        Document legacy = new Document("_id", new ObjectId("662329256487b26751b3d406"))
+                .append("title", "Title 1")
+                .append("releaseDate", "01-02-2020")
+                .append("description", null)
+                .append("version", 3);
+
+        Movie movie = new RawBsonDocument(legacy, TestConverters.DOCUMENT_CODEC).decode(codec);
+
+        assertEquals(LocalDate.of(2020, 2, 1), movie.getReleaseDate());
+        assertEquals(3L, movie.getVersion());
+        assertNull(movie.getDescription());
+        assertNull(movie.getGenres());
+    }
+
+    private static Movie movie() {
+        return Movie.builder()
+                .id(new ObjectId("662329256487b26751b3d406"))
+                .title("Title 1")
+                .description("Description 1")
+                .releaseDate(LocalDate.of(2020, 1, 1))
+                .genres(List.of("Genre 1", "Genre 2"))
+                .reviewsIds(List.of(new ObjectId("662329256487b26751b3d507")))
+                .createdAt(Instant.parse("2024-04-20T10:15:30.123Z"))
+                .updatedAt(Instant.parse("2024-04-21T10:15:30.456Z"))
+                .version(2L)
+                .build();
+    }
+}
@@ -0,0 +1,58 @@
+package com.yvolabs.streamapi.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yvolabs.streamapi.model.Movie;
+import com.yvolabs.streamapi.utils.TestConverters;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+import static com.yvolabs.streamapi.mapper.MovieMapper.INSTANCE;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Yvonne N
+ */
+class RawMovieJsonTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void writesTheSameJsonAsTheDto() throws Exception {
+        Movie movie = Movie.builder()
+                .id(new ObjectId("662329256487b26751b3d406"))
+                .title("Title \"1\"")
+                .releaseDate(LocalDate.of(2020, 1, 1))
+                .genres(List.of("Genre 1", "Genre 2"))
+                .reviewsIds(List.of(new ObjectId("662329256487b26751b3d507")))
+                .createdAt(Instant.parse("2024-04-20T10:15:30.123Z"))
+                .version(4L)
+                .build();
+        RawBsonDocument stored = TestConverters.write(TestConverters.mappingConverter(), movie);
+
+        String rawJson = objectMapper.writeValueAsString(new RawMovieJson(stored));
+        String dtoJson = objectMapper.writeValueAsString(INSTANCE.movieToMovieDtoMapper(movie));
+
+        // description is missing in the document and null in both
+        assertEquals(objectMapper.readTree(dtoJson), objectMapper.readTree(rawJson));
+        assertEquals(4L, RawMovieJson.versionOf(stored));
+    }
+
+    @Test
+    void formatsLegacyReleaseDates() throws Exception {
+        Document legacy = new Document("_id", new ObjectId("662329256487b26751b3d406"))
+                .append("releaseDate", "01/02/2020")
+                .append("_class", "com.yvolabs.streamapi.model.Movie");
+
+        String json = objectMapper.writeValueAsString(
+                new RawMovieJson(new RawBsonDocument(legacy, TestConverters.DOCUMENT_CODEC)));
+
+        assertEquals("01-02-2020", objectMapper.readTree(json).get("releaseDate").asText());
+        assertFalse(objectMapper.readTree(json).has("_class"));
+        assertNull(RawMovieJson.versionOf(new RawBsonDocument(legacy, TestConverters.DOCUMENT_CODEC)));
+    }
+}
@@ -0,0 +1,34 @@
+package com.yvolabs.streamapi.codec;
+
+import com.yvolabs.streamapi.model.StreamUser;
+import com.yvolabs.streamapi.utils.TestConverters;
+import com.yvolabs.streamapi.utils.UserTestData;
+import org.bson.RawBsonDocument;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Yvonne N
+ */
+class StreamUserCodecTest {
+    private final StreamUserCodec codec = new StreamUserCodec();
+
+    @Test
+    void decodesWhatTheConverterWrites() {
+        StreamUser user = UserTestData.setUsersTestData().get(0);
+        user.setVersion(1L);
+
+        RawBsonDocument stored = TestConverters.write(TestConverters.mappingConverter(), user);
+
+        assertTrue(stored.containsKey("firstname"));
+        assertEquals(user, stored.decode(codec));
+    }
+
+    @Test
+    void encodeDecodeRoundTrip() {
+        StreamUser user = UserTestData.setUsersTestData().get(1);
+
+        assertEquals(user, new RawBsonDocument(user, codec).decode(codec));
+    }
+}
@@ -0,0 +1,128 @@
+package com.yvolabs.streamapi.controller;
+
+import com.yvolabs.streamapi.dto.CursorPage;
+import com.yvolabs.streamapi.dto.MovieFilter;
+import com.yvolabs.streamapi.exception.ObjectNotFoundException;
+import com.yvolabs.streamapi.model.Movie;
+import com.yvolabs.streamapi.response.StatusCode;
+import com.yvolabs.streamapi.service.MovieChangeCounter;
+import com.yvolabs.streamapi.service.MovieChangeFeed;
+import com.yvolabs.streamapi.service.MovieService;
+import com.yvolabs.streamapi.utils.MovieTestData;
+import com.yvolabs.streamapi.utils.TestConverters;
+import org.bson.RawBsonDocument;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.List;
+
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * GET /movies and GET /movies/{movieId} with api.movies.raw-json.enabled
+ *
+ * @author Yvonne N
+ */
+@WebMvcTest(controllers = MovieController.class, properties = "api.movies.raw-json.enabled=true")
+@AutoConfigureMockMvc(addFilters = false)
+class MovieControllerRawJsonTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private MovieService movieService;
+
+    @MockBean
+    private MovieChangeFeed movieChangeFeed;
+
+    @MockBean
+    private MovieChangeCounter movieChangeCounter;
+
+    @Value("${api.endpoint.base-url}/movies")
+    private String PATH;
+
+    List<Movie> movies;
+    List<RawBsonDocument> documents;
+
+    @BeforeEach
+    void setUp() {
+        MappingMongoConverter converter = TestConverters.mappingConverter();
+        movies = MovieTestData.setMoviesTestData();
+        movies.get(0).setVersion(3L);
+        documents = movies.stream()
+                .map((movie) -> TestConverters.write(converter, movie))
+                .toList();
+    }
+
+    @Test
+    void testGetAllMoviesFromStoredDocuments() throws Exception {
+        given(movieService.findRawPage(isNull(), eq(20), any(MovieFilter.class), isNull()))
+                .willReturn(new CursorPage<>(documents, "next-cursor"));
+
+        mockMvc.perform(MockMvcRequestBuilders.get(PATH).accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.flag").value(true))
+                .andExpect(jsonPath("$.code").value(StatusCode.SUCCESS))
+                .andExpect(jsonPath("$.message").value("Find All Success"))
+                .andExpect(jsonPath("$.data", Matchers.hasSize(movies.size())))
+                .andExpect(jsonPath("$.data[0].id").value(movies.get(0).getId().toString()))
+                .andExpect(jsonPath("$.data[0].releaseDate").value("01-01-2020"))
+                .andExpect(jsonPath("$.data[0].genres", Matchers.contains("Genre 1", "Genre 2")))
+                .andExpect(jsonPath("$.data[0]._id").doesNotExist())
+                .andExpect(jsonPath("$.data[0]._class").doesNotExist())
+                .andExpect(jsonPath("$.nextCursor").value("next-cursor"));
+        verify(movieService, never()).findPage(any(), anyInt(), any(), any());
+    }
+
+    @Test
+    void testGetMovieByIdFromStoredDocument() throws Exception {
+        String movieId = movies.get(0).getId().toString();
+        given(movieService.findRawById(movieId)).willReturn(documents.get(0));
+
+        mockMvc.perform(MockMvcRequestBuilders.get(PATH + "/" + movieId).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(jsonPath("$.message").value("Find One Success"))
+                .andExpect(jsonPath("$.data.id").value(movieId))
+                .andExpect(jsonPath("$.data.title").value("Title 1"))
+                .andExpect(jsonPath("$.data.version").doesNotExist());
+        verify(movieService, never()).findById(any());
+    }
+
+    @Test
+    void testGetMovieByIdExpandsReviewsThroughEntities() throws Exception {
+        String movieId = movies.get(0).getId().toString();
+        given(movieService.findById(movieId)).willReturn(movies.get(0));
+        given(movieService.withReviews(List.of(movies.get(0)))).willReturn(List.of(movies.get(0)));
+
+        mockMvc.perform(MockMvcRequestBuilders.get(PATH + "/" + movieId)
+                        .param("expand", "reviews")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.id").value(movieId));
+        verify(movieService, never()).findRawById(any());
+    }
+
+    @Test
+    void testGetMovieByIdNotFound() throws Exception {
+        String movieId = "662329256487b26751b3d406";
+        given(movieService.findRawById(movieId)).willThrow(new ObjectNotFoundException("movie", movieId));
+
+        mockMvc.perform(MockMvcRequestBuilders.get(PATH + "/" + movieId).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.code").value(StatusCode.NOT_FOUND));
+    }
+}
@@ -1,34 +1,60 @@
 package com.yvolabs.streamapi.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yvolabs.streamapi.dto.BatchItemResult;
+import com.yvolabs.streamapi.dto.BatchReport;
+import com.yvolabs.streamapi.dto.BulkResult;
+import com.yvolabs.streamapi.dto.CursorPage;
+import com.yvolabs.streamapi.dto.GenreCount;
+import com.yvolabs.streamapi.dto.MovieBulkRequest;
+import com.yvolabs.streamapi.dto.MovieChangeEvent;
+import com.yvolabs.streamapi.dto.MovieChanges;
 import com.yvolabs.streamapi.dto.MovieDto;
+import com.yvolabs.streamapi.dto.MovieFilter;
+import com.yvolabs.streamapi.dto.MovieSummary;
+import com.yvolabs.streamapi.exception.InvalidCursorException;
 import com.yvolabs.streamapi.exception.ObjectNotFoundException;
+import com.yvolabs.streamapi.exception.PreconditionFailedException;
 import com.yvolabs.streamapi.model.Movie;
+import com.yvolabs.streamapi.model.Review;
 import com.yvolabs.streamapi.response.StatusCode;
+import com.yvolabs.streamapi.service.MovieChangeCounter;
+import com.yvolabs.streamapi.service.MovieChangeFeed;
 import com.yvolabs.streamapi.service.MovieService;
 import com.yvolabs.streamapi.utils.MovieTestData;
 import org.bson.types.ObjectId;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
 
+import static com.yvolabs.streamapi.mapper.MovieMapper.INSTANCE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 /**
  * @author Yvonne N
@@ -43,6 +69,12 @@ class MovieControllerTest {
     @MockBean
     private MovieService movieService;
 
+    @MockBean
+    private MovieChangeFeed movieChangeFeed;
+
+    @MockBean
+    private MovieChangeCounter movieChangeCounter;
+
     @Autowired
     ObjectMapper objectMapper;
 
@@ -58,14 +90,139 @@ class MovieControllerTest {
 
     @Test
     void testGetAllMovies() throws Exception {
-        given(movieService.findAll()).willReturn(movies);
+        given(movieService.findPage(isNull(), eq(20), any(MovieFilter.class), isNull())).willReturn(new CursorPage<>(movies, null));
 
         mockMvc.perform(MockMvcRequestBuilders.get(PATH).accept(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.flag").value(true))
                 .andExpect(jsonPath("$.code").value(StatusCode.SUCCESS))
                 .andExpect(jsonPath("$.message").value("Find All Success"))
-                .andExpect(jsonPath("$.data", Matchers.hasSize(movies.size())));
-        verify(movieService).findAll();
+                .andExpect(jsonPath("$.data", Matchers.hasSize(movies.size())))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+        verify(movieService).findPage(isNull(), eq(20), any(MovieFilter.class), isNull());
+    }
+
+    @Test
+    void testGetAllMoviesReturnsNextCursorAndClampsLimit() throws Exception {
+        given(movieService.findPage(eq("some-cursor"), eq(100), any(MovieFilter.class), isNull())).willReturn(new CursorPage<>(movies, "next-cursor"));
+
+        mockMvc.perform(MockMvcRequestBuilders.get(PATH)
+                        .param("cursor", "some-cursor")
+                        .param("limit", "5000")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.flag").value(true))
+                .andExpect(jsonPath("$.data", Matchers.hasSize(movies.size())))
+                .andExpect(jsonPath("$.nextCursor").value("next-cursor"));
+        verify(movieService).findPage(eq("some-cursor"), eq(100), any(MovieFilter.class), isNull());
+    }
+
+    @Test
+    void testGetMovieSummaries() throws Exception {
+        List<MovieSummary> summaries = List.of(MovieSummary.builder()
+                .id("662329256487b26751b3d406")
+                .title("Title 1")
+                .releaseDate(LocalDate.of(2020, 1, 1))
+                .genres(List.of("Genre 1"))
+                .build());
+        given(movieService.findSummaryPage(isNull(), eq(20), any(MovieFilter.class), isNull())).willReturn(new CursorPage<>(summaries, "next-cursor"));
+
+        mockMvc.perform(MockMvcRequestBuilders.get(PATH).param("view", "summary").accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.flag").value(true))
+                .andExpect(jsonPath("$.message").value("Find All Success"))
+                .andExpect(jsonPath("$.data", Matchers.hasSize(1)))
+                .andExpect(jsonPath("$.data[0].title").value("Title 1"))
+                .andExpect(jsonPath("$.data[0].description").doesNotExist())
+                .andExpect(jsonPath("$.nextCursor").value("next-cursor"));
+        verify(movieService).findSummaryPage(isNull(), eq(20), any(MovieFilter.class), isNull());
+        verify(movieService, never()).findPage(any(), anyInt(), any(), any());
+    }
+
+    @Test
+    void testGetAllMoviesWithReleaseDateRangeNewestFirst() throws Exception {
+        ArgumentCaptor<MovieFilter> filterCaptor = ArgumentCaptor.forClass(MovieFilter.class);
+        given(movieService.findPage(isNull(), eq(20), filterCaptor.capture(), eq(Sort.Direction.DESC)))
+                .willReturn(new CursorPage<>(movies, null));
+
+        mockMvc.perform(MockMvcRequestBuilders.get(PATH)
+                        .param("releasedFrom", "01-01-2019")
+                        .param("releasedTo", "2020-12-31")
+                        .param("genre", "Genre 1")
+                        .param("sort", "-releaseDate")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.flag").value(true))
+                .andExpect(jsonPath("$.data[0].releaseDate").value("01-01-2020"));
+
+        assertEquals(new MovieFilter("Genre 1", "01-01-2019", "2020-12-31"), filterCaptor.getValue());
+    }
+
+    @Test
+    void testGetAllMoviesRejectsShortReleaseDate() throws Exception {
+        // too short for the length rule of MovieDto, the filter has none
+        mockMvc.perform(MockMvcRequestBuilders.get(PATH).param("releasedFrom", "1").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value(StatusCode.INVALID_ARGUMENT))
+                .andExpect(jsonPath("$.data.releasedFrom").value("releasedFrom must be a date formatted as dd-MM-yyyy"));
+
+        mockMvc.perform(MockMvcRequestBuilders.get(PATH).param("releasedTo", "12").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.data.releasedTo").value("releasedTo must be a date formatted as dd-MM-yyyy"));
+        verifyNoInteractions(movieService);
+    }
+
+    @Test
+    void testGetAllMoviesRejectsInvalidReleaseDateAndSort() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get(PATH).param("releasedFrom", "2020-13-45").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value(StatusCode.INVALID_ARGUMENT))
+                .andExpect(jsonPath("$.data.releasedFrom").value("releasedFrom must be a date formatted as dd-MM-yyyy"));
+
+        mockMvc.perform(MockMvcRequestBuilders.get(PATH).param("sort", "title").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("sort: title is not supported, use releaseDate or -releaseDate"));
+        verifyNoInteractions(movieService);
+    }
+
+    @Test
+    void testStreamAllMoviesAsNdJson() throws Exception {
+        given(movieService.streamAll()).willReturn(movies.stream());
+
+        MvcResult mvcResult = mockMvc.perform(get(PATH).accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(Matchers.containsString("\"title\":\"Title 1\"")))
+                .andExpect(content().string(Matchers.containsString("\"title\":\"Title 2\"")))
+                .andExpect(result -> assertEquals(movies.size(), result.getResponse().getContentAsString().lines().count()));
+        verify(movieService).streamAll();
+    }
+
+    @Test
+    void testStreamMovieChangesWritesServerSentEvents() throws Exception {
+        MovieChangeEvent event = MovieChangeEvent.builder()
+                .id("8263")
+                .type("insert")
+                .movieId(movies.get(0).getId().toString())
+                .build();
+        given(movieChangeFeed.subscribe(Mockito.eq("8262"), Mockito.any())).willAnswer(invocation -> {
+            MovieChangeFeed.Listener listener = invocation.getArgument(1);
+            listener.onEvent(event);
+            listener.onClose();
+            return Mockito.mock(MovieChangeFeed.Subscription.class);
+        });
+
+        MvcResult mvcResult = mockMvc.perform(get(PATH + "/changes/stream")
+                        .header("Last-Event-ID", "8262")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(content().string(Matchers.containsString("id:8263\nevent:insert\n")))
+                .andExpect(content().string(Matchers.containsString("\"movieId\":\"" + movies.get(0).getId() + "\"")));
     }
 
     @Test
@@ -83,7 +240,7 @@ class MovieControllerTest {
                 .id(new ObjectId())
                 .title("Title 1")
                 .description("Description 1")
-                .releaseDate("01-01-2020")
+                .releaseDate(LocalDate.of(2020, 1, 1))
                 .genres(List.of("Genre 1", "Genre 2"))
                 .build();
 
@@ -97,7 +254,7 @@ class MovieControllerTest {
                 .andExpect(jsonPath("$.message").value("Add Success"))
                 .andExpect(jsonPath("$.data.title").value(savedMovie.getTitle()))
                 .andExpect(jsonPath("$.data.description").value(savedMovie.getDescription()))
-                .andExpect(jsonPath("$.data.releaseDate").value(savedMovie.getReleaseDate()))
+                .andExpect(jsonPath("$.data.releaseDate").value("01-01-2020"))
                 .andExpect(jsonPath("$.data.genres", Matchers.hasSize(2)));
 
         verify(movieService).add(Mockito.any(Movie.class));
@@ -149,6 +306,81 @@ class MovieControllerTest {
         verify(movieService, times(0)).add(Mockito.any(Movie.class));
     }
 
+    @Test
+    void testAddMovieRejectsNullGenre() throws Exception {
+        String newMovieJson = "{\"title\":\"Title 1\",\"description\":\"Description 1\","
+                + "\"releaseDate\":\"01-01-2020\",\"genres\":[\"Drama\",null]}";
+
+        mockMvc.perform(post(PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(newMovieJson).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value(StatusCode.INVALID_ARGUMENT))
+                .andExpect(jsonPath("$.data['genres[1]']").value("genres must not contain empty values"));
+
+        verify(movieService, times(0)).add(Mockito.any(Movie.class));
+    }
+
+    @Test
+    void testAddMoviesFromJsonArray() throws Exception {
+        List<String> titles = new ArrayList<>();
+        given(movieService.addAll(Mockito.any())).willAnswer(invocation -> {
+            Iterator<MovieDto> movieDtos = invocation.getArgument(0);
+            movieDtos.forEachRemaining(movieDto -> titles.add(movieDto.getTitle()));
+            return BatchReport.builder()
+                    .received(titles.size())
+                    .inserted(titles.size())
+                    .items(List.of(BatchItemResult.success(0, new ObjectId().toString()), BatchItemResult.success(1, new ObjectId().toString())))
+                    .build();
+        });
+
+        mockMvc.perform(post(PATH + "/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"title\":\"Title 1\"},{\"title\":\"Title 2\"}]"))
+                .andExpect(jsonPath("$.flag").value(true))
+                .andExpect(jsonPath("$.message").value("Batch Add Success"))
+                .andExpect(jsonPath("$.data.received").value(2))
+                .andExpect(jsonPath("$.data.inserted").value(2))
+                .andExpect(jsonPath("$.data.items", Matchers.hasSize(2)));
+
+        assertEquals(List.of("Title 1", "Title 2"), titles);
+    }
+
+    @Test
+    void testAddMoviesFromNdJson() throws Exception {
+        List<String> titles = new ArrayList<>();
+        given(movieService.addAll(Mockito.any())).willAnswer(invocation -> {
+            Iterator<MovieDto> movieDtos = invocation.getArgument(0);
+            movieDtos.forEachRemaining(movieDto -> titles.add(movieDto.getTitle()));
+            return BatchReport.builder().received(titles.size()).items(List.of()).build();
+        });
+
+        mockMvc.perform(post(PATH + "/batch")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"title\":\"Title 1\"}\n{\"title\":\"Title 2\"}\n{\"title\":\"Title 3\"}\n"))
+                .andExpect(jsonPath("$.flag").value(true))
+                .andExpect(jsonPath("$.data.received").value(3));
+
+        assertEquals(List.of("Title 1", "Title 2", "Title 3"), titles);
+    }
+
+    @Test
+    void testAddMoviesMalformedBody() throws Exception {
+        given(movieService.addAll(Mockito.any())).willAnswer(invocation -> {
+            Iterator<MovieDto> movieDtos = invocation.getArgument(0);
+            movieDtos.forEachRemaining(movieDto -> {
+            });
+            return BatchReport.builder().build();
+        });
+
+        mockMvc.perform(post(PATH + "/batch")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"title\":\"Title 1\"}\n{\"title\": [1, }\n"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.flag").value(false))
+                .andExpect(jsonPath("$.code").value(StatusCode.INVALID_ARGUMENT));
+    }
+
 
     @Test
     void testGetMovieByIdSuccess() throws Exception {
@@ -167,6 +399,137 @@ class MovieControllerTest {
         verify(movieService).findById(movieId);
     }
 
+    @Test
+    void testGetMovieByIdReturnsVersionETag() throws Exception {
+        String movieId = "662329256487b26751b3d406";
+        given(movieService.findById(movieId)).willReturn(movies.get(0).toBuilder().version(3L).build());
+
+        mockMvc.perform(get(PATH + "/" + movieId).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3\""));
+    }
+
+    @Test
+    void testGetMovieByIdNotModified() throws Exception {
+        String movieId = "662329256487b26751b3d406";
+        given(movieService.findById(movieId)).willReturn(movies.get(0).toBuilder().version(3L).build());
+
+        mockMvc.perform(get(PATH + "/" + movieId).header("If-None-Match", "\"3\"").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void testGetMovieByIdModifiedSinceETag() throws Exception {
+        String movieId = "662329256487b26751b3d406";
+        given(movieService.findById(movieId)).willReturn(movies.get(0).toBuilder().version(4L).build());
+
+        mockMvc.perform(get(PATH + "/" + movieId).header("If-None-Match", "\"3\"").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4\""))
+                .andExpect(jsonPath("$.data.title").value("Title 1"));
+    }
+
+    @Test
+    void testGetAllMoviesNotModifiedWithoutQuery() throws Exception {
+        given(movieChangeCounter.etag()).willReturn(Optional.of("W/\"boot-7\""));
+
+        mockMvc.perform(get(PATH).header("If-None-Match", "W/\"boot-7\"").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotModified());
+
+        verifyNoInteractions(movieService);
+    }
+
+    @Test
+    void testGetAllMoviesReturnsCollectionETag() throws Exception {
+        given(movieChangeCounter.etag()).willReturn(Optional.of("W/\"boot-8\""));
+        given(movieService.findPage(isNull(), eq(20), any(MovieFilter.class), isNull())).willReturn(new CursorPage<>(movies, null));
+
+        mockMvc.perform(get(PATH).header("If-None-Match", "W/\"boot-7\"").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "W/\"boot-8\""))
+                .andExpect(jsonPath("$.data", Matchers.hasSize(2)));
+    }
+
+    @Test
+    void testGetMovieByIdExpandsReviews() throws Exception {
+        String movieId = "662329256487b26751b3d406";
+        Review review = Review.builder().id(new ObjectId()).body("great movie").build();
+        Movie expandedMovie = movies.get(0).toBuilder()
+                .reviewsIds(List.of(review.getId()))
+                .reviews(List.of(review))
+                .build();
+        given(movieService.findById(movieId)).willReturn(movies.get(0));
+        given(movieService.withReviews(List.of(movies.get(0)))).willReturn(List.of(expandedMovie));
+
+        mockMvc.perform(MockMvcRequestBuilders.get(PATH + "/" + movieId)
+                        .param("expand", "reviews")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.flag").value(true))
+                .andExpect(jsonPath("$.data.reviewsIds[0]").value(review.getId().toString()))
+                .andExpect(jsonPath("$.data.reviews[0].body").value("great movie"));
+
+        verify(movieService).withReviews(List.of(movies.get(0)));
+    }
+
+    @Test
+    void testGetMovieByIdDoesNotExpandReviewsByDefault() throws Exception {
+        String movieId = "662329256487b26751b3d406";
+        given(movieService.findById(movieId)).willReturn(movies.get(0));
+
+        mockMvc.perform(MockMvcRequestBuilders.get(PATH + "/" + movieId).accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.flag").value(true))
+                .andExpect(jsonPath("$.data.reviews").doesNotExist());
+
+        verify(movieService, never()).withReviews(any());
+    }
+
+    @Test
+    void testGetMoviesByIdsInRequestOrder() throws Exception {
+        String missingId = "662329256487b26751b3d999";
+        List<String> ids = List.of(movies.get(1).getId().toString(), missingId, movies.get(0).getId().toString());
+        given(movieService.findByIds(ids)).willReturn(Arrays.asList(movies.get(1), null, movies.get(0)));
+
+        mockMvc.perform(MockMvcRequestBuilders.get(PATH)
+                        .param("ids", String.join(",", ids))
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.message").value("Find Many Success"))
+                .andExpect(jsonPath("$.data", Matchers.hasSize(3)))
+                .andExpect(jsonPath("$.data[0].id").value(ids.get(0)))
+                .andExpect(jsonPath("$.data[0].found").value(true))
+                .andExpect(jsonPath("$.data[0].movie.title").value("Title 2"))
+                .andExpect(jsonPath("$.data[1].id").value(missingId))
+                .andExpect(jsonPath("$.data[1].found").value(false))
+                .andExpect(jsonPath("$.data[1].movie").doesNotExist())
+                .andExpect(jsonPath("$.data[2].movie.title").value("Title 1"));
+        verify(movieService, never()).findPage(any(), anyInt(), any(), any());
+    }
+
+    @Test
+    void testGetMoviesByIdsRejectsTooManyIds() throws Exception {
+        String ids = String.join(",", Collections.nCopies(51, "662329256487b26751b3d406"));
+
+        mockMvc.perform(MockMvcRequestBuilders.get(PATH).param("ids", ids).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value(StatusCode.INVALID_ARGUMENT))
+                .andExpect(jsonPath("$.message").value("ids: 51 ids requested, at most 50 are allowed per request"));
+        verifyNoInteractions(movieService);
+    }
+
+    @Test
+    void testGetMoviesByIdsRejectsSummaryView() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get(PATH)
+                        .param("ids", "662329256487b26751b3d406")
+                        .param("view", "summary")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value(StatusCode.INVALID_ARGUMENT))
+                .andExpect(jsonPath("$.message").value(
+                        "view: summary cannot be combined with ids, lookups by ids always return full movies"));
+        verifyNoInteractions(movieService);
+    }
+
     @Test
     void testGetMovieByIdNotfound() throws Exception {
         String movieId = "662329256487b26751b3d406";
@@ -197,12 +560,12 @@ class MovieControllerTest {
                 .id(new ObjectId("662329256487b26751b3d406"))
                 .title("Title Updated")
                 .description("Description Updated")
-                .releaseDate("01-01-2021")
+                .releaseDate(LocalDate.of(2021, 1, 1))
                 .genres(List.of("Genre 1", "Genre 2"))
                 .reviewsIds(null)
                 .build();
 
-        given(movieService.update(movieId, movieUpdateDto)).willReturn(updatedMovie);
+        given(movieService.update(movieId, movieUpdateDto, null)).willReturn(updatedMovie);
 
         mockMvc.perform(
                         patch(PATH + "/" + movieId)
@@ -216,10 +579,46 @@ class MovieControllerTest {
                 .andExpect(jsonPath("$.data.description").value("Description Updated"))
                 .andExpect(jsonPath("$.data.releaseDate").value("01-01-2021"))
                 .andExpect(jsonPath("$.data.genres", Matchers.hasSize(2)));
-        verify(movieService).update(movieId, movieUpdateDto);
+        verify(movieService).update(movieId, movieUpdateDto, null);
 
     }
 
+    @Test
+    void testUpdateMovieWithIfMatchReturnsNewETag() throws Exception {
+        String movieId = "662329256487b26751b3d406";
+        MovieDto movieUpdateDto = MovieDto.builder().title("Title Updated").build();
+        Movie updatedMovie = movies.get(0).toBuilder().title("Title Updated").version(4L).build();
+        given(movieService.update(movieId, movieUpdateDto, List.of(3L))).willReturn(updatedMovie);
+
+        mockMvc.perform(
+                        patch(PATH + "/" + movieId)
+                                .header("If-Match", "\"3\"")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(movieUpdateDto))
+                                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4\""))
+                .andExpect(jsonPath("$.data.title").value("Title Updated"));
+    }
+
+    @Test
+    void testUpdateMovieWithStaleIfMatch() throws Exception {
+        String movieId = "662329256487b26751b3d406";
+        MovieDto movieUpdateDto = MovieDto.builder().title("Title Updated").build();
+        given(movieService.update(movieId, movieUpdateDto, List.of(3L)))
+                .willThrow(new PreconditionFailedException("movie", movieId));
+
+        mockMvc.perform(
+                        patch(PATH + "/" + movieId)
+                                .header("If-Match", "\"3\"")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(movieUpdateDto))
+                                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.flag").value(false))
+                .andExpect(jsonPath("$.code").value(StatusCode.PRECONDITION_FAILED));
+    }
+
     @Test
     void testUpdateMovieNotfound() throws Exception {
         String movieId = "662329256487b26751b3d406";
@@ -231,7 +630,7 @@ class MovieControllerTest {
 
         String movieUpdateDtoJson = objectMapper.writeValueAsString(movieUpdateDto);
 
-        given(movieService.update(movieId, movieUpdateDto))
+        given(movieService.update(movieId, movieUpdateDto, null))
                 .willThrow(new ObjectNotFoundException("movie", movieId));
 
         mockMvc.perform(
@@ -244,7 +643,7 @@ class MovieControllerTest {
                 .andExpect(jsonPath("$.code").value(StatusCode.NOT_FOUND))
                 .andExpect(jsonPath("$.message").value("Could not find movie with id " + movieId))
                 .andExpect(jsonPath("$.data").isEmpty());
-        verify(movieService).update(movieId, movieUpdateDto);
+        verify(movieService).update(movieId, movieUpdateDto, null);
     }
 
     @Test
@@ -287,12 +686,12 @@ class MovieControllerTest {
                 .id(new ObjectId("662329256487b26751b3d406"))
                 .title("Title Updated")
                 .description("Description Updated")
-                .releaseDate("01-01-2021")
+                .releaseDate(LocalDate.of(2021, 1, 1))
                 .genres(List.of("Genre 1", "Genre 2"))
                 .reviewsIds(null)
                 .build();
 
-        given(movieService.update(movieId, movieUpdateDto)).willReturn(updatedMovie);
+        given(movieService.update(movieId, movieUpdateDto, null)).willReturn(updatedMovie);
 
         mockMvc.perform(
                         patch(PATH + "/" + movieId)
@@ -306,26 +705,37 @@ class MovieControllerTest {
                 .andExpect(jsonPath("$.data.description").value("Description Updated"))
                 .andExpect(jsonPath("$.data.releaseDate").value("01-01-2021"))
                 .andExpect(jsonPath("$.data.genres", Matchers.hasSize(2)));
-        verify(movieService).update(movieId, movieUpdateDto);
+        verify(movieService).update(movieId, movieUpdateDto, null);
 
     }
 
     @Test
     void testDeleteMovieSuccess() throws Exception {
         String movieId = "662329256487b26751b3d406";
-        doNothing().when(movieService).delete(movieId);
+        doNothing().when(movieService).delete(movieId, null);
         mockMvc.perform(delete(PATH + "/" + movieId).accept(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.flag").value(true))
                 .andExpect(jsonPath("$.code").value(StatusCode.SUCCESS))
                 .andExpect(jsonPath("$.message").value("Delete Success"))
                 .andExpect(jsonPath("$.data").isEmpty());
-        verify(movieService).delete(movieId);
+        verify(movieService).delete(movieId, null);
+    }
+
+    @Test
+    void testDeleteMovieWithWeakIfMatchNeverMatches() throws Exception {
+        String movieId = "662329256487b26751b3d406";
+        doThrow(new PreconditionFailedException("movie", movieId)).when(movieService).delete(movieId, List.of());
+
+        mockMvc.perform(delete(PATH + "/" + movieId).header("If-Match", "W/\"3\"").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.code").value(StatusCode.PRECONDITION_FAILED));
+        verify(movieService).delete(movieId, List.of());
     }
 
     @Test
     void testDeleteMovieNotFoundException() throws Exception {
         String movieId = "662329256487b26751b3d406";
-        doThrow(new ObjectNotFoundException("movie", movieId)).when(movieService).delete(movieId);
+        doThrow(new ObjectNotFoundException("movie", movieId)).when(movieService).delete(movieId, null);
         mockMvc.perform(delete(PATH + "/" + movieId).accept(MediaType.APPLICATION_JSON))
                 .andExpect(result -> assertInstanceOf(ObjectNotFoundException.class, result.getResolvedException()))
                 .andExpect(jsonPath("$.flag").value(false))
@@ -333,4 +743,138 @@ class MovieControllerTest {
                 .andExpect(jsonPath("$.message").value("Could not find movie with id " + movieId))
                 .andExpect(jsonPath("$.data").isEmpty());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testBulkUpdateMoviesByFilter() throws Exception {
+        MovieBulkRequest request = MovieBulkRequest.builder()
+                .filter(MovieFilter.builder().genre("Drama").build())
+                .update(MovieDto.builder().genres(List.of("Drama", "Classic")).build())
+                .build();
+
+        given(movieService.updateMany(request)).willReturn(BulkResult.builder().matched(3L).modified(2L).build());
+
+        mockMvc.perform(patch(PATH + "/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request))
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.flag").value(true))
+                .andExpect(jsonPath("$.message").value("Bulk Update Success"))
+                .andExpect(jsonPath("$.data.matched").value(3))
+                .andExpect(jsonPath("$.data.modified").value(2))
+                .andExpect(jsonPath("$.data.deleted").doesNotExist());
+        verify(movieService).updateMany(request);
+    }
+
+    @Test
+    void testBulkUpdateMoviesRequiresTargetAndUpdate() throws Exception {
+        MovieBulkRequest request = MovieBulkRequest.builder()
+                .filter(new MovieFilter())
+                .update(new MovieDto())
+                .build();
+
+        mockMvc.perform(patch(PATH + "/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request))
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(result -> assertInstanceOf(MethodArgumentNotValidException.class, result.getResolvedException()))
+                .andExpect(jsonPath("$.code").value(StatusCode.INVALID_ARGUMENT))
+                .andExpect(jsonPath("$.data.targetPresent").value("ids or a filter with at least one criteria is required"))
+                .andExpect(jsonPath("$.data.updatePresent").value("update must set at least one field"));
+        verify(movieService, never()).updateMany(Mockito.any());
+    }
+
+    @Test
+    void testBulkDeleteMoviesByIds() throws Exception {
+        MovieBulkRequest request = MovieBulkRequest.builder()
+                .ids(List.of("662329256487b26751b3d406", "662329256487b26751b3d407"))
+                .build();
+
+        given(movieService.deleteMany(request)).willReturn(BulkResult.builder().deleted(2L).build());
+
+        mockMvc.perform(delete(PATH + "/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request))
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.flag").value(true))
+                .andExpect(jsonPath("$.message").value("Bulk Delete Success"))
+                .andExpect(jsonPath("$.data.deleted").value(2));
+        verify(movieService).deleteMany(request);
+    }
+
+    @Test
+    void testSearchMovies() throws Exception {
+        given(movieService.search("star wars", 0, 20)).willReturn(movies.subList(0, 2));
+
+        mockMvc.perform(get(PATH + "/search").param("q", "star wars").accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.flag").value(true))
+                .andExpect(jsonPath("$.message").value("Search Success"))
+                .andExpect(jsonPath("$.data", Matchers.hasSize(2)))
+                .andExpect(jsonPath("$.data[0].title").value(movies.get(0).getTitle()));
+    }
+
+    @Test
+    void testSearchMovieSummaries() throws Exception {
+        MovieSummary summary = MovieSummary.builder().id(new ObjectId().toString()).title("Star Wars").build();
+        given(movieService.searchSummaries("star", 1, 100)).willReturn(List.of(summary));
+
+        mockMvc.perform(get(PATH + "/search")
+                        .param("q", "star")
+                        .param("view", "summary")
+                        .param("page", "1")
+                        .param("size", "500")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.data[0].title").value("Star Wars"))
+                .andExpect(jsonPath("$.data[0].description").doesNotExist());
+    }
+
+    @Test
+    void testSearchMoviesRequiresQuery() throws Exception {
+        mockMvc.perform(get(PATH + "/search").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value(StatusCode.INVALID_ARGUMENT))
+                .andExpect(jsonPath("$.message").value("q is required"));
+        verifyNoInteractions(movieService);
+    }
+
+    @Test
+    void testGetGenreFacets() throws Exception {
+        given(movieService.findGenreCounts()).willReturn(List.of(new GenreCount("Drama", 5), new GenreCount("Comedy", 2)));
+
+        mockMvc.perform(get(PATH + "/facets/genres").accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.flag").value(true))
+                .andExpect(jsonPath("$.message").value("Find Genre Facets Success"))
+                .andExpect(jsonPath("$.data[0].genre").value("Drama"))
+                .andExpect(jsonPath("$.data[0].count").value(5))
+                .andExpect(jsonPath("$.data", Matchers.hasSize(2)));
+    }
+
+    @Test
+    void testGetMovieChangesSinceToken() throws Exception {
+        MovieChanges changes = MovieChanges.builder()
+                .changed(List.of(INSTANCE.movieToMovieDtoMapper(movies.get(0))))
+                .deleted(List.of("662329256487b26751b3d999"))
+                .syncToken("next-token")
+                .hasMore(false)
+                .build();
+        given(movieService.findChanges("some-token", 100)).willReturn(changes);
+
+        mockMvc.perform(get(PATH + "/changes").param("since", "some-token").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.message").value("Find Changes Success"))
+                .andExpect(jsonPath("$.data.changed", Matchers.hasSize(1)))
+                .andExpect(jsonPath("$.data.deleted[0]").value("662329256487b26751b3d999"))
+                .andExpect(jsonPath("$.data.syncToken").value("next-token"))
+                .andExpect(jsonPath("$.data.hasMore").value(false));
+    }
+
+    @Test
+    void testGetMovieChangesWithInvalidToken() throws Exception {
+        given(movieService.findChanges("bad-token", 100))
+                .willThrow(new InvalidCursorException("since", "bad-token", "syncToken"));
+
+        mockMvc.perform(get(PATH + "/changes").param("since", "bad-token").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.flag").value(false))
+                .andExpect(jsonPath("$.code").value(StatusCode.INVALID_ARGUMENT));
+    }
+}
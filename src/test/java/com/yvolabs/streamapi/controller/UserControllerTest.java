@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.yvolabs.streamapi.dto.UserDto;
 import com.yvolabs.streamapi.exception.InvalidObjectIdException;
 import com.yvolabs.streamapi.exception.ObjectNotFoundException;
+import com.yvolabs.streamapi.exception.PreconditionFailedException;
 import com.yvolabs.streamapi.exception.UserAlreadyExistsException;
 import com.yvolabs.streamapi.model.StreamUser;
 import com.yvolabs.streamapi.response.StatusCode;
@@ -20,16 +21,18 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 /**
  * @author Yvonne N
@@ -68,6 +71,23 @@ class UserControllerTest {
         verify(userService).findAll();
     }
 
+    @Test
+    void testStreamAllUsersAsNdJson() throws Exception {
+        given(userService.streamAll()).willReturn(usersList.stream());
+
+        MvcResult mvcResult = mockMvc.perform(get(PATH).accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(Matchers.containsString("\"email\":\"john@doe.com\"")))
+                .andExpect(content().string(Matchers.not(Matchers.containsString("password"))))
+                .andExpect(result -> assertEquals(usersList.size(), result.getResponse().getContentAsString().lines().count()));
+        verify(userService).streamAll();
+    }
+
     @Test
     void testAddUserSuccess() throws Exception {
         StreamUser newUserRequest = StreamUser.builder()
@@ -186,6 +206,19 @@ class UserControllerTest {
         verify(userService).findById(userId);
     }
 
+    @Test
+    void testFindUserByIdNotModified() throws Exception {
+        String userId = "66367b04d98bbb6418dbda61";
+        StreamUser foundUser = usersList.get(0);
+        foundUser.setVersion(2L);
+        given(userService.findById(userId)).willReturn(foundUser);
+
+        mockMvc.perform(get(PATH + "/" + userId).header("If-None-Match", "\"2\"").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"2\""))
+                .andExpect(content().string(""));
+    }
+
     @Test
     void testFindUserByIdThrowsWhenRequestUserIdIsInvalid() throws Exception {
         String userId = "invalidUserId";
@@ -237,7 +270,7 @@ class UserControllerTest {
 
         String requestJson = objectMapper.writeValueAsString(userDto);
 
-        given(userService.update(eq(userId), any())).willReturn(updatedUser);
+        given(userService.update(eq(userId), any(), isNull())).willReturn(updatedUser);
 
         mockMvc.perform(put(PATH + "/" + userId)
                         .content(requestJson)
@@ -253,7 +286,28 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.data.password").doesNotExist())
                 .andExpect(jsonPath("$.data.enabled").value(updatedUser.isEnabled()))
                 .andExpect(jsonPath("$.data.roles").value(updatedUser.getRoles()));
-        verify(userService).update(eq(userId), any());
+        verify(userService).update(eq(userId), any(), isNull());
+    }
+
+    @Test
+    void testUpdateUserWithStaleIfMatch() throws Exception {
+        String userId = "66367b04d98bbb6418dbda61";
+        UserDto userDto = UserDto.builder()
+                .firstName("john_updated")
+                .lastName("doe_updated")
+                .email("john_updated@doe.com")
+                .roles("user")
+                .build();
+        doThrow(new PreconditionFailedException("user", userId)).when(userService).update(eq(userId), any(), eq(List.of(1L)));
+
+        mockMvc.perform(put(PATH + "/" + userId)
+                        .header("If-Match", "\"1\"")
+                        .content(objectMapper.writeValueAsString(userDto))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.flag").value(false))
+                .andExpect(jsonPath("$.code").value(StatusCode.PRECONDITION_FAILED));
     }
 
     @Test
@@ -278,7 +332,7 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.data.firstName").value("firstName is required"))
                 .andExpect(jsonPath("$.data.lastName").value("lastName is required"))
                 .andExpect(jsonPath("$.data.roles").value("roles are required"));
-        verify(userService, times(0)).update(eq(userId), any());
+        verify(userService, times(0)).update(eq(userId), any(), isNull());
     }
 
     @Test
@@ -292,7 +346,7 @@ class UserControllerTest {
 
         String requestJson = objectMapper.writeValueAsString(userDto);
 
-        doThrow(new InvalidObjectIdException("user", userId)).when(userService).update(eq(userId), any());
+        doThrow(new InvalidObjectIdException("user", userId)).when(userService).update(eq(userId), any(), isNull());
 
         mockMvc.perform(put(PATH + "/" + userId)
                         .content(requestJson)
@@ -302,7 +356,7 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.flag").value("false"))
                 .andExpect(jsonPath("$.code").value(StatusCode.INVALID_ARGUMENT))
                 .andExpect(jsonPath("$.message").value("user id: " + userId + " is invalid, should be 24 characters long"));
-        verify(userService).update(eq(userId), any());
+        verify(userService).update(eq(userId), any(), isNull());
     }
 
     @Test
@@ -316,7 +370,7 @@ class UserControllerTest {
 
         String requestJson = objectMapper.writeValueAsString(userDto);
 
-        doThrow(new ObjectNotFoundException("user", userId)).when(userService).update(eq(userId), any());
+        doThrow(new ObjectNotFoundException("user", userId)).when(userService).update(eq(userId), any(), isNull());
 
         mockMvc.perform(put(PATH + "/" + userId)
                         .content(requestJson)
@@ -326,7 +380,7 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.flag").value("false"))
                 .andExpect(jsonPath("$.code").value(StatusCode.NOT_FOUND))
                 .andExpect(jsonPath("$.message").value("Could not find user with id " + userId));
-        verify(userService).update(eq(userId), any());
+        verify(userService).update(eq(userId), any(), isNull());
 
     }
 
@@ -334,39 +388,39 @@ class UserControllerTest {
     void deleteUserSuccess() throws Exception {
         String userId = "66367b04d98bbb6418dbda61";
 
-        doNothing().when(userService).delete(eq(userId));
+        doNothing().when(userService).delete(eq(userId), isNull());
         mockMvc.perform(delete(PATH + "/" + userId).accept(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.flag").value("true"))
                 .andExpect(jsonPath("$.code").value(StatusCode.SUCCESS))
                 .andExpect(jsonPath("$.message").value("Delete User Success"))
                 .andExpect(jsonPath("$.data").doesNotExist());
-        verify(userService).delete(eq(userId));
+        verify(userService).delete(eq(userId), isNull());
     }
 
     @Test
     void deleteUserThrowsWhenRequestUserIdIsInvalid() throws Exception {
         String userId = "66367b04d98bbb6418dbda61";
-        doThrow(new InvalidObjectIdException("user", userId)).when(userService).delete(eq(userId));
+        doThrow(new InvalidObjectIdException("user", userId)).when(userService).delete(eq(userId), isNull());
 
         mockMvc.perform(delete(PATH + "/" + userId).accept(MediaType.APPLICATION_JSON))
                 .andExpect(result -> assertInstanceOf(InvalidObjectIdException.class, result.getResolvedException()))
                 .andExpect(jsonPath("$.flag").value("false"))
                 .andExpect(jsonPath("$.code").value(StatusCode.INVALID_ARGUMENT))
                 .andExpect(jsonPath("$.message").value("user id: " + userId + " is invalid, should be 24 characters long"));
-        verify(userService).delete(eq(userId));
+        verify(userService).delete(eq(userId), isNull());
     }
 
     @Test
     void deleteUserThrowsWhenUserDoesNotExist() throws Exception {
         String userId = "66367b04d98bbb6418dbda61";
-        doThrow(new ObjectNotFoundException("user", userId)).when(userService).delete(eq(userId));
+        doThrow(new ObjectNotFoundException("user", userId)).when(userService).delete(eq(userId), isNull());
 
         mockMvc.perform(delete(PATH + "/" + userId).accept(MediaType.APPLICATION_JSON))
                 .andExpect(result -> assertInstanceOf(ObjectNotFoundException.class, result.getResolvedException()))
                 .andExpect(jsonPath("$.flag").value("false"))
                 .andExpect(jsonPath("$.code").value(StatusCode.NOT_FOUND))
                 .andExpect(jsonPath("$.message").value("Could not find user with id " + userId));
-        verify(userService).delete(eq(userId));
+        verify(userService).delete(eq(userId), isNull());
     }
 
 
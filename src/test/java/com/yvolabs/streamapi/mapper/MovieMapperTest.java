@@ -6,6 +6,7 @@ import org.bson.types.ObjectId;
 import org.junit.jupiter.api.Test;
 import org.mapstruct.BeforeMapping;
 
+import java.time.LocalDate;
 import java.util.List;
 
 import static com.yvolabs.streamapi.mapper.MovieMapper.INSTANCE;
@@ -22,7 +23,7 @@ class MovieMapperTest {
                 .id(new ObjectId("662329256487b26751b3d406"))
                 .title("some_movie_title")
                 .description("some_movie_description")
-                .releaseDate("01-02-2020")
+                .releaseDate(LocalDate.of(2020, 2, 1))
                 .genres(List.of("genre1", "genre2"))
                 .reviewsIds(List.of())
                 .build();
@@ -57,7 +58,7 @@ class MovieMapperTest {
         assertEquals(movie.getId(), new ObjectId(movieDto.getId()));
         assertEquals(movie.getTitle(), "some_movie_title");
         assertEquals(movie.getDescription(), "some_movie_description");
-        assertEquals(movie.getReleaseDate(), "01-02-2020");
+        assertEquals(movie.getReleaseDate(), LocalDate.of(2020, 2, 1));
         assertEquals(movie.getGenres(), List.of("genre1", "genre2"));
         assertEquals(movie.getReviewsIds(), List.of());
 
@@ -81,7 +82,7 @@ class MovieMapperTest {
                 .id(new ObjectId("662329256487b26751b3d406"))
                 .title("some_movie_title")
                 .description("some_movie_description")
-                .releaseDate("01-02-2020")
+                .releaseDate(LocalDate.of(2020, 2, 1))
                 .genres(List.of("genre1", "genre2"))
                 .reviewsIds(List.of())
                 .build();
@@ -92,7 +93,7 @@ class MovieMapperTest {
         assertEquals(updatedMovie.getId(), new ObjectId("662329256487b26751b3d406"));
         assertEquals(updatedMovie.getTitle(), "some_movie_title_updated");
         assertEquals(updatedMovie.getDescription(), "some_movie_description_updated");
-        assertEquals(updatedMovie.getReleaseDate(), "01-02-2020");
+        assertEquals(updatedMovie.getReleaseDate(), LocalDate.of(2020, 2, 1));
     }
 
     @Test
@@ -112,4 +113,19 @@ class MovieMapperTest {
         assertNull(MovieMapper.stringToObjectId(null));
 
     }
-}
\ No newline at end of file
+
+    @Test
+    void stringToLocalDate() {
+        assertEquals(LocalDate.of(2020, 2, 1), MovieMapper.stringToLocalDate("01-02-2020"));
+        assertEquals(LocalDate.of(2020, 2, 1), MovieMapper.stringToLocalDate("01/02/2020"));
+        assertEquals(LocalDate.of(2020, 2, 1), MovieMapper.stringToLocalDate("2020-02-01"));
+        assertNull(MovieMapper.stringToLocalDate(null));
+        assertThrows(IllegalArgumentException.class, () -> MovieMapper.stringToLocalDate("31-02-2020"));
+    }
+
+    @Test
+    void localDateToString() {
+        assertEquals("01-02-2020", MovieMapper.localDateToString(LocalDate.of(2020, 2, 1)));
+        assertNull(MovieMapper.localDateToString(null));
+    }
+}
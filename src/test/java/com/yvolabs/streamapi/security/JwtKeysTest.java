@@ -0,0 +1,111 @@
+package com.yvolabs.streamapi.security;
+
+import com.nimbusds.jose.jwk.JWK;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * @author Yvonne N
+ */
+class JwtKeysTest {
+    @TempDir
+    Path keyDir;
+
+    @Test
+    void testTokenCarriesKidOfSigningKey() throws Exception {
+        JwtKeys jwtKeys = JwtKeys.fromPem(privateKeyPem("current", generateKeyPair()), List.of());
+
+        Jwt jwt = decoder(jwtKeys).decode(createToken(jwtKeys));
+
+        assertThat(jwt.getHeaders()).containsEntry("kid", jwtKeys.signingKeyId());
+        assertThat(jwt.getClaimAsString("authorities")).isEqualTo("ROLE_user");
+    }
+
+    @Test
+    void testRetiredKeyStillVerifiesItsTokens() throws Exception {
+        KeyPair retired = generateKeyPair();
+        JwtKeys before = JwtKeys.fromPem(privateKeyPem("retired", retired), List.of());
+        String issuedBefore = createToken(before);
+
+        JwtKeys after = JwtKeys.fromPem(privateKeyPem("current", generateKeyPair()), List.of(publicKeyPem("retired", retired)));
+
+        assertThat(after.signingKeyId()).isNotEqualTo(before.signingKeyId());
+        assertThat(decoder(after).decode(issuedBefore).getClaimAsString("authorities")).isEqualTo("ROLE_user");
+    }
+
+    @Test
+    void testTokenOfUnknownKeyIsRejected() throws Exception {
+        JwtKeys other = JwtKeys.fromPem(privateKeyPem("other", generateKeyPair()), List.of());
+        JwtKeys jwtKeys = JwtKeys.fromPem(privateKeyPem("current", generateKeyPair()), List.of());
+
+        Throwable throwable = catchThrowable(() -> decoder(jwtKeys).decode(createToken(other)));
+
+        assertThat(throwable).isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testJwksHasPublicKeysOnly() throws Exception {
+        KeyPair retired = generateKeyPair();
+        JwtKeys jwtKeys = JwtKeys.fromPem(privateKeyPem("current", generateKeyPair()), List.of(publicKeyPem("retired", retired)));
+
+        Map<String, Object> jwks = new JwksController(jwtKeys).getJwks().getBody();
+
+        assertThat(jwtKeys.verificationKeys().getKeys()).hasSize(2).noneMatch(JWK::isPrivate);
+        // no private exponent in the published keys
+        assertThat((List<Map<String, Object>>) jwks.get("keys"))
+                .hasSize(2)
+                .noneMatch((key) -> key.containsKey("d"))
+                .anyMatch((key) -> jwtKeys.signingKeyId().equals(key.get("kid")));
+    }
+
+    private static String createToken(JwtKeys jwtKeys) {
+        JwtProvider jwtProvider = new JwtProvider(new SecurityKeyConfiguration().jwtEncoder(jwtKeys), jwtKeys);
+        return jwtProvider.createToken(new UsernamePasswordAuthenticationToken(
+                "john", null, AuthorityUtils.createAuthorityList("ROLE_user")));
+    }
+
+    private static JwtDecoder decoder(JwtKeys jwtKeys) {
+        return new SecurityConfiguration(null, null, null, jwtKeys).jwtDecoder();
+    }
+
+    private static KeyPair generateKeyPair() throws Exception {
+        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+        keyPairGenerator.initialize(2048);
+        return keyPairGenerator.generateKeyPair();
+    }
+
+    private Resource privateKeyPem(String name, KeyPair keyPair) throws Exception {
+        return pem(name + ".key", "PRIVATE KEY", keyPair.getPrivate().getEncoded());
+    }
+
+    private Resource publicKeyPem(String name, KeyPair keyPair) throws Exception {
+        return pem(name + ".pub", "PUBLIC KEY", keyPair.getPublic().getEncoded());
+    }
+
+    private Resource pem(String fileName, String type, byte[] der) throws Exception {
+        String body = Base64.getMimeEncoder(64, "\n".getBytes(StandardCharsets.US_ASCII)).encodeToString(der);
+        Path file = Files.writeString(keyDir.resolve(fileName),
+                "-----BEGIN " + type + "-----\n" + body + "\n-----END " + type + "-----\n");
+        return new FileSystemResource(file);
+    }
+}
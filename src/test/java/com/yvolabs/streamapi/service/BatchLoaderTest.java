@@ -0,0 +1,100 @@
+package com.yvolabs.streamapi.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * @author Yvonne N
+ */
+class BatchLoaderTest {
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+    private final List<Set<Integer>> queries = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentLookupsShareOneQuery() throws Exception {
+        BatchLoader<Integer, String> loader = new BatchLoader<>(recordingQuery(), Duration.ofMillis(200), 64);
+
+        List<Future<String>> results = new ArrayList<>();
+        for (int key : List.of(1, 2, 3, 2, 1, 3, 2, 1)) {
+            results.add(executor.submit(() -> loader.load(key)));
+        }
+
+        assertEquals(List.of("1", "2", "3", "2", "1", "3", "2", "1"), values(results));
+        // duplicate keys are looked up once
+        assertEquals(List.of(Set.of(1, 2, 3)), queries);
+    }
+
+    @Test
+    void fullBatchDoesNotWaitForTheWindow() throws Exception {
+        BatchLoader<Integer, String> loader = new BatchLoader<>(recordingQuery(), Duration.ofSeconds(30), 2);
+
+        Future<String> first = executor.submit(() -> loader.load(1));
+        Future<String> second = executor.submit(() -> loader.load(2));
+
+        assertEquals("1", first.get(5, TimeUnit.SECONDS));
+        assertEquals("2", second.get(5, TimeUnit.SECONDS));
+        assertEquals(List.of(Set.of(1, 2)), queries);
+    }
+
+    @Test
+    void missingKeyLoadsNull() {
+        BatchLoader<Integer, String> loader = new BatchLoader<>((keys) -> Map.of(), Duration.ZERO, 64);
+
+        assertNull(loader.load(1));
+    }
+
+    @Test
+    void failedQueryFailsEveryCaller() throws Exception {
+        BatchLoader<Integer, String> loader = new BatchLoader<>((keys) -> {
+            throw new IllegalStateException("mongo is down");
+        }, Duration.ofMillis(200), 64);
+
+        Future<String> first = executor.submit(() -> loader.load(1));
+        Future<String> second = executor.submit(() -> loader.load(2));
+
+        for (Future<String> future : List.of(first, second)) {
+            Throwable throwable = catchThrowable(() -> future.get(5, TimeUnit.SECONDS));
+            assertThat(throwable).hasCauseInstanceOf(IllegalStateException.class);
+        }
+        // nothing stays in flight, the next lookup queries again
+        assertThat(catchThrowable(() -> loader.load(1))).isInstanceOf(IllegalStateException.class);
+    }
+
+    private Function<Set<Integer>, Map<Integer, String>> recordingQuery() {
+        return (keys) -> {
+            queries.add(Set.copyOf(keys));
+            return keys.stream().collect(Collectors.toMap(Function.identity(), String::valueOf));
+        };
+    }
+
+    private static List<String> values(List<Future<String>> futures) throws Exception {
+        List<String> values = new ArrayList<>();
+        for (Future<String> future : futures) {
+            values.add(future.get(5, TimeUnit.SECONDS));
+        }
+        return values;
+    }
+}
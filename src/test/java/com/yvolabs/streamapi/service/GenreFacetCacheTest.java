@@ -0,0 +1,84 @@
+package com.yvolabs.streamapi.service;
+
+import com.yvolabs.streamapi.dto.GenreCount;
+import com.yvolabs.streamapi.model.Movie;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/**
+ * @author Yvonne N
+ */
+@ExtendWith(MockitoExtension.class)
+class GenreFacetCacheTest {
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private GenreFacetCache genreFacetCache;
+
+    @Test
+    void testIncrementalUpdates() {
+        genreFacetCache.added(List.of("Drama", "Comedy"));
+        genreFacetCache.added(List.of("Drama"));
+        genreFacetCache.changed(List.of("Comedy"), List.of("Horror"));
+        genreFacetCache.removed(List.of("Unknown"));
+
+        assertEquals(List.of(
+                new GenreCount("Drama", 2),
+                new GenreCount("Horror", 1)
+        ), genreFacetCache.findAll());
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    void testNullGenresAreNotCounted() {
+        genreFacetCache.added(Arrays.asList("Drama", null));
+        genreFacetCache.changed(Arrays.asList(null, "Drama"), Arrays.asList("Comedy", null));
+
+        assertEquals(List.of(new GenreCount("Comedy", 1)), genreFacetCache.findAll());
+    }
+
+    @Test
+    void testReconcileSkipsNullGenre() {
+        given(mongoTemplate.aggregate(Mockito.any(Aggregation.class), Mockito.eq(Movie.class), Mockito.eq(GenreCount.class)))
+                .willReturn(new AggregationResults<>(
+                        List.of(new GenreCount(null, 2), new GenreCount("Drama", 5)),
+                        new Document()));
+
+        genreFacetCache.reconcile();
+
+        assertEquals(List.of(new GenreCount("Drama", 5)), genreFacetCache.findAll());
+    }
+
+    @Test
+    void testReconcileReplacesCounts() {
+        genreFacetCache.added(List.of("Stale"));
+        given(mongoTemplate.aggregate(Mockito.any(Aggregation.class), Mockito.eq(Movie.class), Mockito.eq(GenreCount.class)))
+                .willReturn(new AggregationResults<>(
+                        List.of(new GenreCount("Comedy", 3), new GenreCount("Action", 3), new GenreCount("Drama", 5)),
+                        new Document()));
+
+        genreFacetCache.reconcile();
+
+        assertEquals(List.of(
+                new GenreCount("Drama", 5),
+                new GenreCount("Action", 3),
+                new GenreCount("Comedy", 3)
+        ), genreFacetCache.findAll());
+    }
+}
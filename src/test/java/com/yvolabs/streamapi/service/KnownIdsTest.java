@@ -0,0 +1,132 @@
+package com.yvolabs.streamapi.service;
+
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.yvolabs.streamapi.model.Movie;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/**
+ * @author Yvonne N
+ */
+@ExtendWith(MockitoExtension.class)
+class KnownIdsTest {
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private KnownIds knownIds;
+
+    private final ObjectId storedId = createdAnHourAgo();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(knownIds, "enabled", true);
+        ReflectionTestUtils.setField(knownIds, "expectedIds", 1000L);
+        ReflectionTestUtils.setField(knownIds, "falsePositiveRate", 0.01);
+        ReflectionTestUtils.setField(knownIds, "clockSkewMs", 5000L);
+        knownIds.setTracking(true);
+    }
+
+    @Test
+    void testNothingIsMissingBeforeTheFirstBuild() {
+        assertThat(knownIds.isMissing(new ObjectId())).isFalse();
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    void testRebuildStreamsStoredIds() {
+        givenStoredIds(List.of(new Document("_id", storedId)));
+
+        knownIds.rebuild();
+
+        assertThat(knownIds.isMissing(storedId)).isFalse();
+        assertThat(knownIds.isMissing(createdAnHourAgo())).isTrue();
+    }
+
+    @Test
+    void testAddedIdsAreKnownAfterRebuild() {
+        givenStoredIds(List.of());
+        knownIds.rebuild();
+        ObjectId addedId = createdAnHourAgo();
+
+        knownIds.added(addedId);
+
+        assertThat(knownIds.isMissing(addedId)).isFalse();
+    }
+
+    @Test
+    void testIdStoredAfterTheBuildIsLookedUp() {
+        givenStoredIds(List.of());
+        knownIds.rebuild();
+
+        // inserted by another instance, the change feed has not delivered it yet
+        ObjectId storedAfterBuild = new ObjectId();
+
+        assertThat(knownIds.isMissing(storedAfterBuild)).isFalse();
+    }
+
+    @Test
+    void testNothingIsMissingWhileTheFeedIsNotTracking() {
+        givenStoredIds(List.of());
+        knownIds.rebuild();
+
+        knownIds.setTracking(false);
+
+        assertThat(knownIds.isMissing(createdAnHourAgo())).isFalse();
+    }
+
+    @Test
+    void testDisabledNeverQueries() {
+        ReflectionTestUtils.setField(knownIds, "enabled", false);
+
+        knownIds.rebuild();
+
+        assertThat(knownIds.isMissing(new ObjectId())).isFalse();
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    private static ObjectId createdAnHourAgo() {
+        return new ObjectId(Date.from(Instant.now().minus(1, ChronoUnit.HOURS)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void givenStoredIds(List<Document> documents) {
+        String collectionName = "movies";
+        MongoCollection<Document> collection = Mockito.mock(MongoCollection.class);
+        FindIterable<Document> find = Mockito.mock(FindIterable.class);
+        MongoCursor<Document> cursor = Mockito.mock(MongoCursor.class);
+        var iterator = documents.iterator();
+
+        given(mongoTemplate.getCollectionName(Movie.class)).willReturn(collectionName);
+        given(mongoTemplate.getCollection(collectionName)).willReturn(collection);
+        given(collection.estimatedDocumentCount()).willReturn((long) documents.size());
+        given(collection.find()).willReturn(find);
+        given(find.projection(Mockito.any(Bson.class))).willReturn(find);
+        given(find.cursor()).willReturn(cursor);
+        given(cursor.hasNext()).willAnswer((invocation) -> iterator.hasNext());
+        if (!documents.isEmpty()) {
+            given(cursor.next()).willAnswer((invocation) -> iterator.next());
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.yvolabs.streamapi.service;
+
+import com.yvolabs.streamapi.dto.MovieChangeEvent;
+import com.yvolabs.streamapi.model.Movie;
+import com.yvolabs.streamapi.repository.MovieRepository;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Change streams need a replica set, the testcontainers mongo image runs as a single node one
+ *
+ * @author Yvonne N
+ */
+@SpringBootTest
+@DisplayName("Integration tests for the movie change feed")
+@Testcontainers
+@ActiveProfiles("integration-test")
+@Disabled
+public class MovieChangeFeedIntegrationTest {
+
+    @Autowired
+    MovieChangeFeed movieChangeFeed;
+
+    @Autowired
+    MovieRepository movieRepository;
+
+    @ServiceConnection
+    @Container
+    static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:4.4.6");
+
+    @DynamicPropertySource
+    static void mongoProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", () -> mongoDBContainer.getReplicaSetUrl("test-db"));
+    }
+
+    @Test
+    void testInsertUpdateAndDeleteAreStreamedInOrder() throws Exception {
+        BlockingQueue<MovieChangeEvent> events = new LinkedBlockingQueue<>();
+        movieChangeFeed.subscribe(null, new MovieChangeFeed.Listener() {
+            @Override
+            public void onEvent(MovieChangeEvent event) {
+                if (!event.isHeartbeat()) {
+                    events.add(event);
+                }
+            }
+
+            @Override
+            public void onClose() {
+            }
+        });
+
+        // the shared cursor is opened in the background on startup, write until it picks changes up
+        Movie movie = null;
+        MovieChangeEvent inserted = null;
+        for (int attempt = 0; attempt < 10 && inserted == null; attempt++) {
+            movie = movieRepository.save(Movie.builder()
+                    .title("Change Feed " + attempt)
+                    .releaseDate(LocalDate.of(2024, 1, 1))
+                    .genres(List.of("Drama"))
+                    .build());
+            inserted = events.poll(1, TimeUnit.SECONDS);
+        }
+        assertNotNull(inserted);
+        events.clear();
+
+        movie.setTitle("Change Feed Updated");
+        movieRepository.save(movie);
+        movieRepository.deleteById(movie.getId());
+
+        MovieChangeEvent updated = events.poll(5, TimeUnit.SECONDS);
+        MovieChangeEvent deleted = events.poll(5, TimeUnit.SECONDS);
+        assertNotNull(updated);
+        assertNotNull(deleted);
+        // save() rewrites the whole document, so the update arrives as a replace
+        assertEquals("replace", updated.getType());
+        assertEquals("Change Feed Updated", updated.getMovie().getTitle());
+        assertEquals("delete", deleted.getType());
+        assertEquals(movie.getId().toString(), deleted.getMovieId());
+        assertThat(deleted.getMovie()).isNull();
+
+        // a client reconnecting with the update's id only misses the delete
+        BlockingQueue<MovieChangeEvent> replayed = new LinkedBlockingQueue<>();
+        movieChangeFeed.subscribe(updated.getId(), new MovieChangeFeed.Listener() {
+            @Override
+            public void onEvent(MovieChangeEvent event) {
+                replayed.add(event);
+            }
+
+            @Override
+            public void onClose() {
+            }
+        });
+        assertEquals(deleted.getId(), replayed.poll(5, TimeUnit.SECONDS).getId());
+    }
+}
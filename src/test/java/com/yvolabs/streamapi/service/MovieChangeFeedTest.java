@@ -0,0 +1,215 @@
+package com.yvolabs.streamapi.service;
+
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.yvolabs.streamapi.dto.MovieChangeEvent;
+import com.yvolabs.streamapi.model.Movie;
+import org.bson.BsonDocument;
+import org.bson.BsonObjectId;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.BDDMockito.given;
+
+/**
+ * @author Yvonne N
+ */
+@ExtendWith(MockitoExtension.class)
+class MovieChangeFeedTest {
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private final List<Runnable> pendingDrains = new ArrayList<>();
+
+    private final CacheManager cacheManager = new ConcurrentMapCacheManager("movies", "movieDocuments");
+
+    private MovieChangeFeed inlineFeed;
+
+    private MovieChangeFeed stalledFeed;
+
+    @BeforeEach
+    void setUp() {
+        // drains run straight away in the first feed and never in the second, like a client that stopped reading
+        inlineFeed = feed(new TaskExecutorAdapter(Runnable::run));
+        stalledFeed = feed(new TaskExecutorAdapter(pendingDrains::add));
+    }
+
+    @Test
+    void testPublishFansOutToEverySubscriber() {
+        RecordingListener first = new RecordingListener();
+        RecordingListener second = new RecordingListener();
+        inlineFeed.subscribe(null, first);
+        inlineFeed.subscribe(null, second);
+
+        inlineFeed.publish(event("1"));
+        inlineFeed.publish(event("2"));
+
+        assertEquals(List.of("1", "2"), first.ids());
+        assertEquals(List.of("1", "2"), second.ids());
+    }
+
+    @Test
+    void testReconnectReplaysEventsAfterLastEventId() {
+        inlineFeed.publish(event("1"));
+        inlineFeed.publish(event("2"));
+        inlineFeed.publish(event("3"));
+        RecordingListener listener = new RecordingListener();
+
+        // the replay window holds the last two events
+        inlineFeed.subscribe("2", listener);
+        inlineFeed.publish(event("4"));
+
+        assertEquals(List.of("3", "4"), listener.ids());
+    }
+
+    @Test
+    void testReconnectOutsideReplayWindowGetsReset() {
+        inlineFeed.publish(event("1"));
+        RecordingListener listener = new RecordingListener();
+
+        inlineFeed.subscribe("unknown", listener);
+
+        assertThat(listener.events).hasSize(1);
+        assertEquals(MovieChangeEvent.RESET, listener.events.get(0).getType());
+    }
+
+    @Test
+    void testSlowSubscriberIsClosedWhenItsBufferIsFull() {
+        RecordingListener slow = new RecordingListener();
+        stalledFeed.subscribe(null, slow);
+
+        stalledFeed.publish(event("1"));
+        stalledFeed.publish(event("2"));
+        stalledFeed.publish(event("3"));
+
+        assertThat(slow.closed).isTrue();
+        assertEquals(0, stalledFeed.subscriberCount());
+    }
+
+    @Test
+    void testChangeEvictsOnlyThatMovieFromTheCaches() {
+        cacheManager.getCache("movies").put("662329256487b26751b3d406", "changed");
+        cacheManager.getCache("movieDocuments").put("662329256487b26751b3d406", "changed");
+        cacheManager.getCache("movies").put("662329256487b26751b3d407", "unchanged");
+
+        // a write of another instance, this one never ran the @CacheEvict of the service
+        inlineFeed.publish(event("1"));
+
+        assertThat(cacheManager.getCache("movies").get("662329256487b26751b3d406")).isNull();
+        assertThat(cacheManager.getCache("movieDocuments").get("662329256487b26751b3d406")).isNull();
+        assertThat(cacheManager.getCache("movies").get("662329256487b26751b3d407")).isNotNull();
+    }
+
+    @Test
+    void testResetClearsTheCaches() {
+        cacheManager.getCache("movies").put("662329256487b26751b3d407", "unchanged");
+
+        inlineFeed.publish(MovieChangeEvent.reset());
+
+        assertThat(cacheManager.getCache("movies").get("662329256487b26751b3d407")).isNull();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testUnreadableChangeIsSkippedAndTrackingEndsWithTheLoop() {
+        MovieChangeCounter changeCounter = new MovieChangeCounter();
+        MovieChangeFeed feed = new MovieChangeFeed(
+                mongoTemplate, new TaskExecutorAdapter(Runnable::run), changeCounter, new KnownIds(mongoTemplate), cacheManager);
+        ReflectionTestUtils.setField(feed, "subscriberBuffer", 4);
+        ReflectionTestUtils.setField(feed, "replaySize", 4);
+        RecordingListener listener = new RecordingListener();
+        feed.subscribe(null, listener);
+
+        MongoCollection<Document> collection = Mockito.mock(MongoCollection.class);
+        ChangeStreamIterable<Document> changeStream = Mockito.mock(ChangeStreamIterable.class);
+        MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = Mockito.mock(MongoChangeStreamCursor.class);
+        MongoConverter converter = Mockito.mock(MongoConverter.class);
+        given(mongoTemplate.getCollectionName(Movie.class)).willReturn("movies");
+        given(mongoTemplate.getCollection("movies")).willReturn(collection);
+        given(collection.watch()).willReturn(changeStream);
+        given(changeStream.fullDocument(FullDocument.UPDATE_LOOKUP)).willReturn(changeStream);
+        given(changeStream.maxAwaitTime(1, TimeUnit.SECONDS)).willReturn(changeStream);
+        given(changeStream.cursor()).willReturn(cursor);
+        given(mongoTemplate.getConverter()).willReturn(converter);
+        given(converter.read(Mockito.eq(Movie.class), Mockito.any(Document.class)))
+                .willThrow(new IllegalArgumentException("releaseDate is not a date"));
+        given(cursor.tryNext())
+                .willReturn(change("1", "update", new Document("releaseDate", "01-01-2020")), change("2", "delete", null))
+                .willAnswer((invocation) -> {
+                    // the tracking state while the loop runs
+                    assertThat(changeCounter.etag()).isPresent();
+                    ReflectionTestUtils.setField(feed, "running", false);
+                    return null;
+                });
+
+        ReflectionTestUtils.setField(feed, "running", true);
+        ReflectionTestUtils.invokeMethod(feed, "watch");
+
+        // the unreadable update becomes a reset, the delete after it still arrives
+        assertThat(listener.events).extracting(MovieChangeEvent::getType).containsExactly(MovieChangeEvent.RESET, "delete");
+        assertThat(changeCounter.etag()).isEmpty();
+    }
+
+    private static ChangeStreamDocument<Document> change(String token, String operationType, Document fullDocument) {
+        return new ChangeStreamDocument<>(operationType,
+                new BsonDocument("_data", new BsonString(token)),
+                new BsonDocument("db", new BsonString("test")).append("coll", new BsonString("movies")),
+                null,
+                fullDocument,
+                new BsonDocument("_id", new BsonObjectId(new ObjectId())),
+                null, null, null, null);
+    }
+
+    private MovieChangeFeed feed(TaskExecutorAdapter taskExecutor) {
+        MovieChangeFeed feed = new MovieChangeFeed(
+                mongoTemplate, taskExecutor, new MovieChangeCounter(), new KnownIds(mongoTemplate), cacheManager);
+        ReflectionTestUtils.setField(feed, "subscriberBuffer", 2);
+        ReflectionTestUtils.setField(feed, "replaySize", 2);
+        return feed;
+    }
+
+    private static MovieChangeEvent event(String id) {
+        return MovieChangeEvent.builder().id(id).type("update").movieId("662329256487b26751b3d406").build();
+    }
+
+    private static class RecordingListener implements MovieChangeFeed.Listener {
+        private final List<MovieChangeEvent> events = new ArrayList<>();
+        private boolean closed;
+
+        @Override
+        public void onEvent(MovieChangeEvent event) {
+            events.add(event);
+        }
+
+        @Override
+        public void onClose() {
+            closed = true;
+        }
+
+        List<String> ids() {
+            return events.stream().map(MovieChangeEvent::getId).toList();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.yvolabs.streamapi.service;
+
+import com.yvolabs.streamapi.dto.MovieDto;
+import com.yvolabs.streamapi.model.Movie;
+import com.yvolabs.streamapi.model.MovieTombstone;
+import com.yvolabs.streamapi.repository.MovieRepository;
+import com.yvolabs.streamapi.repository.ReviewRepository;
+import com.yvolabs.streamapi.utils.MovieTestData;
+import jakarta.validation.Validator;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * The cache annotations of {@link MovieServiceImpl} only take effect behind the caching proxy, so these tests go
+ * through a small Spring context instead of calling the service directly
+ *
+ * @author Yvonne N
+ */
+@SpringJUnitConfig(MovieServiceCachingTest.CachingConfiguration.class)
+class MovieServiceCachingTest {
+    @MockBean
+    private MovieRepository movieRepository;
+
+    @MockBean
+    private ReviewRepository reviewRepository;
+
+    @MockBean
+    private MongoTemplate mongoTemplate;
+
+    @MockBean
+    private Validator validator;
+
+    @MockBean
+    private GenreFacetCache genreFacetCache;
+
+    @MockBean
+    private MovieChangeCounter changeCounter;
+
+    @MockBean
+    private KnownIds knownIds;
+
+    @Autowired
+    private MovieService movieService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Movie movie;
+
+    private String movieId;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCacheNames().forEach((cacheName) -> cacheManager.getCache(cacheName).clear());
+        movie = MovieTestData.setMoviesTestData().get(0);
+        movieId = movie.getId().toHexString();
+        given(movieRepository.findById(movie.getId())).willReturn(Optional.of(movie));
+    }
+
+    @Test
+    void testFindByIdIsServedFromTheCache() {
+        movieService.findById(movieId);
+        Movie cached = movieService.findById(movieId.toUpperCase());
+
+        assertEquals(movie, cached);
+        verify(movieRepository, times(1)).findById(movie.getId());
+    }
+
+    @Test
+    void testUpdateEvictsSoTheNextFindByIdHitsTheRepository() {
+        Movie updatedMovie = movie.toBuilder().title("Renamed").build();
+        given(mongoTemplate.findAndModify(
+                Mockito.any(Query.class), Mockito.any(UpdateDefinition.class), Mockito.any(FindAndModifyOptions.class), Mockito.eq(Movie.class)))
+                .willReturn(updatedMovie);
+        movieService.findById(movieId);
+
+        movieService.update(movieId, MovieDto.builder().title("Renamed").build(), null);
+        given(movieRepository.findById(movie.getId())).willReturn(Optional.of(updatedMovie));
+
+        assertEquals("Renamed", movieService.findById(movieId).getTitle());
+        verify(movieRepository, times(2)).findById(movie.getId());
+    }
+
+    @Test
+    void testDeleteEvictsSoTheNextFindByIdHitsTheRepository() {
+        given(mongoTemplate.findAndRemove(Mockito.any(Query.class), Mockito.eq(Movie.class))).willReturn(movie);
+        given(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MovieTombstone.class))
+                .willReturn(Mockito.mock(BulkOperations.class));
+        movieService.findById(movieId);
+
+        movieService.delete(movieId, null);
+        movieService.findById(movieId);
+
+        verify(movieRepository, times(2)).findById(movie.getId());
+    }
+
+    @Test
+    void testEntriesOfOtherMoviesSurviveAnUpdate() {
+        ObjectId otherId = new ObjectId();
+        given(movieRepository.findById(otherId)).willReturn(Optional.of(movie.toBuilder().id(otherId).build()));
+        given(mongoTemplate.findAndModify(
+                Mockito.any(Query.class), Mockito.any(UpdateDefinition.class), Mockito.any(FindAndModifyOptions.class), Mockito.eq(Movie.class)))
+                .willReturn(movie);
+        movieService.findById(otherId.toHexString());
+
+        movieService.update(movieId, MovieDto.builder().title("Renamed").build(), null);
+        movieService.findById(otherId.toHexString());
+
+        verify(movieRepository, times(1)).findById(otherId);
+    }
+
+    @Configuration
+    @EnableCaching
+    @Import(MovieServiceImpl.class)
+    static class CachingConfiguration {
+        @Bean
+        CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager("movies", "movieDocuments");
+        }
+    }
+}
@@ -1,30 +1,77 @@
 package com.yvolabs.streamapi.service;
 
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.result.DeleteResult;
+import com.mongodb.client.result.UpdateResult;
+import com.yvolabs.streamapi.dto.BatchReport;
+import com.yvolabs.streamapi.dto.BulkResult;
+import com.yvolabs.streamapi.dto.CursorPage;
+import com.yvolabs.streamapi.dto.MovieBulkRequest;
+import com.yvolabs.streamapi.dto.MovieChanges;
 import com.yvolabs.streamapi.dto.MovieDto;
+import com.yvolabs.streamapi.dto.MovieFilter;
+import com.yvolabs.streamapi.dto.MovieSummary;
+import com.yvolabs.streamapi.exception.InvalidCursorException;
+import com.yvolabs.streamapi.exception.InvalidObjectIdException;
 import com.yvolabs.streamapi.exception.ObjectNotFoundException;
-import com.yvolabs.streamapi.mapper.MovieMapper;
+import com.yvolabs.streamapi.exception.PreconditionFailedException;
 import com.yvolabs.streamapi.model.Movie;
+import com.yvolabs.streamapi.model.MovieTombstone;
+import com.yvolabs.streamapi.model.Review;
 import com.yvolabs.streamapi.repository.MovieRepository;
+import com.yvolabs.streamapi.repository.ReviewRepository;
+import com.yvolabs.streamapi.util.PageCursors;
 import com.yvolabs.streamapi.utils.MovieTestData;
+import com.yvolabs.streamapi.utils.TestConverters;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
 import org.bson.types.ObjectId;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.ExecutableFindOperation;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.catchThrowable;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.mockito.BDDMockito.given;
-import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 
 /**
  * @author Yvonne N
@@ -34,6 +81,39 @@ class MovieServiceImplTest {
     @Mock
     private MovieRepository movieRepository;
 
+    @Mock
+    private ReviewRepository reviewRepository;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private GenreFacetCache genreFacetCache;
+
+    @Mock
+    private MovieChangeCounter changeCounter;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    @Mock
+    private ExecutableFindOperation.ExecutableFind<Movie> executableFind;
+
+    @Mock
+    private ExecutableFindOperation.FindWithQuery<MovieSummary> findSummaries;
+
+    @Mock
+    private ExecutableFindOperation.TerminatingFind<MovieSummary> terminatingFind;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private KnownIds knownIds;
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
     @InjectMocks
     private MovieServiceImpl movieService;
 
@@ -42,6 +122,7 @@ class MovieServiceImplTest {
     @BeforeEach
     void setUp() {
         movies = MovieTestData.setMoviesTestData();
+        ReflectionTestUtils.setField(movieService, "updateMaxAttempts", 3);
     }
 
     @Test
@@ -55,13 +136,207 @@ class MovieServiceImplTest {
         verify(movieRepository).findAll();
     }
 
+    @Test
+    void testFindPageReturnsNextCursorWhenMoreResultsExist() {
+        ArgumentCaptor<Query> queryCaptor = givenMoviesQuery(movies);
+
+        CursorPage<Movie> page = movieService.findPage(null, 1, null, null);
+
+        assertEquals(1, page.getContent().size());
+        assertEquals(movies.get(0).getId(), PageCursors.decode(page.getNextCursor()));
+        Query query = queryCaptor.getValue();
+        assertEquals(2, query.getLimit());
+        assertEquals(new Document("id", 1), query.getSortObject());
+        // inclusive, an all-zero _id belongs on the first page
+        assertEquals(new Document("$gte", new ObjectId(new byte[12])), query.getQueryObject().get("_id"));
+    }
+
+    @Test
+    void testFindPageLastPageHasNoCursor() {
+        ObjectId after = movies.get(0).getId();
+        ArgumentCaptor<Query> queryCaptor = givenMoviesQuery(movies.subList(1, 2));
+
+        CursorPage<Movie> page = movieService.findPage(PageCursors.encode(after), 10, null, null);
+
+        assertEquals(1, page.getContent().size());
+        assertThat(page.getNextCursor()).isNull();
+        assertEquals(new Document("$gt", after), queryCaptor.getValue().getQueryObject().get("_id"));
+    }
+
+    @Test
+    void testFindPageByReleaseDateRangeNewestFirst() {
+        ArgumentCaptor<Query> queryCaptor = givenMoviesQuery(movies);
+        MovieFilter filter = MovieFilter.builder().releasedFrom("01-01-2019").releasedTo("31/12/2020").build();
+
+        CursorPage<Movie> page = movieService.findPage(null, 1, filter, Sort.Direction.DESC);
+
+        Query query = queryCaptor.getValue();
+        assertEquals(new Document("$gte", LocalDate.of(2019, 1, 1)).append("$lte", LocalDate.of(2020, 12, 31)),
+                query.getQueryObject().get("releaseDate"));
+        assertEquals(new Document("releaseDate", -1).append("id", -1), query.getSortObject());
+
+        // the next cursor carries the release date of the last movie so the following page continues from it
+        PageCursors.ReleaseDateCursor next = PageCursors.decodeReleaseDate(page.getNextCursor());
+        assertEquals(movies.get(0).getReleaseDate(), next.releaseDate());
+        assertEquals(movies.get(0).getId(), next.id());
+    }
+
+    @Test
+    void testFindPageByReleaseDateContinuesFromCursor() {
+        ArgumentCaptor<Query> queryCaptor = givenMoviesQuery(List.of());
+        ObjectId lastId = movies.get(0).getId();
+
+        movieService.findPage(PageCursors.encode(LocalDate.of(2020, 1, 1), lastId), 10, null, Sort.Direction.ASC);
+
+        List<?> and = queryCaptor.getValue().getQueryObject().get("$and", List.class);
+        assertEquals(2, and.size());
+        assertThat(((Document) and.get(0)).get("releaseDate", Document.class)).containsKey("$type");
+        assertEquals(List.of(
+                new Document("releaseDate", new Document("$gt", LocalDate.of(2020, 1, 1))),
+                new Document("releaseDate", LocalDate.of(2020, 1, 1)).append("_id", new Document("$gt", lastId))
+        ), ((Document) and.get(1)).get("$or"));
+    }
+
+    @Test
+    void testFindSummaryPageUsesProjection() {
+        List<MovieSummary> summaries = movies.stream()
+                .map(movie -> MovieSummary.builder()
+                        .id(movie.getId().toString())
+                        .title(movie.getTitle())
+                        .build())
+                .toList();
+        given(mongoTemplate.query(Movie.class)).willReturn(executableFind);
+        given(executableFind.as(MovieSummary.class)).willReturn(findSummaries);
+        given(findSummaries.matching(Mockito.any(Query.class))).willReturn(terminatingFind);
+        given(terminatingFind.all()).willReturn(summaries);
+
+        CursorPage<MovieSummary> page = movieService.findSummaryPage(null, 1, null, null);
+
+        assertEquals(1, page.getContent().size());
+        assertEquals("Title 1", page.getContent().get(0).getTitle());
+        assertEquals(movies.get(0).getId(), PageCursors.decode(page.getNextCursor()));
+    }
+
+    @Test
+    void testFindByIdsUsesCacheAndKeepsRequestOrder() {
+        ConcurrentMapCache cache = new ConcurrentMapCache("movies");
+        cache.put(movies.get(0).getId().toHexString(), movies.get(0));
+        given(cacheManager.getCache("movies")).willReturn(cache);
+        ObjectId unknownId = new ObjectId();
+        given(movieRepository.findAllById(Set.of(movies.get(1).getId(), unknownId))).willReturn(List.of(movies.get(1)));
+
+        List<Movie> found = movieService.findByIds(List.of(
+                movies.get(1).getId().toString(), movies.get(0).getId().toString(), unknownId.toString()));
+
+        assertEquals(Arrays.asList(movies.get(1), movies.get(0), null), found);
+        // fetched movies are cached for the next lookup
+        assertEquals(movies.get(1), cache.get(movies.get(1).getId().toHexString(), Movie.class));
+        verify(movieRepository, times(1)).findAllById(Mockito.any());
+    }
+
+    @Test
+    void testFindByIdsSkipsIdsNeverStored() {
+        given(cacheManager.getCache("movies")).willReturn(new ConcurrentMapCache("movies"));
+        ObjectId unknownId = new ObjectId();
+        given(knownIds.isMissing(unknownId)).willReturn(true);
+        given(movieRepository.findAllById(Set.of(movies.get(0).getId()))).willReturn(List.of(movies.get(0)));
+
+        List<Movie> found = movieService.findByIds(List.of(unknownId.toString(), movies.get(0).getId().toString()));
+
+        assertEquals(Arrays.asList(null, movies.get(0)), found);
+    }
+
+    @Test
+    void testFindByIdsAllCachedSkipsQuery() {
+        ConcurrentMapCache cache = new ConcurrentMapCache("movies");
+        movies.forEach((movie) -> cache.put(movie.getId().toHexString(), movie));
+        given(cacheManager.getCache("movies")).willReturn(cache);
+
+        List<Movie> found = movieService.findByIds(List.of(movies.get(0).getId().toString()));
+
+        assertEquals(List.of(movies.get(0)), found);
+        verifyNoInteractions(movieRepository);
+    }
+
+    @Test
+    void testFindByIdsRejectsInvalidIdBeforeReading() {
+        Throwable throwable = catchThrowable(() ->
+                movieService.findByIds(List.of(movies.get(0).getId().toString(), "not-an-id")));
+
+        assertThat(throwable).isInstanceOf(InvalidObjectIdException.class);
+        verifyNoInteractions(movieRepository, cacheManager);
+    }
+
+    @Test
+    void testFindRawPageReturnsNextCursorFromStoredDocuments() {
+        MappingMongoConverter converter = TestConverters.mappingConverter();
+        List<RawBsonDocument> documents = movies.stream()
+                .map((movie) -> TestConverters.write(converter, movie))
+                .toList();
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        given(movieRepository.findRaw(queryCaptor.capture())).willReturn(documents);
+
+        CursorPage<RawBsonDocument> page = movieService.findRawPage(null, 1, null, Sort.Direction.ASC);
+
+        assertEquals(List.of(documents.get(0)), page.getContent());
+        PageCursors.ReleaseDateCursor next = PageCursors.decodeReleaseDate(page.getNextCursor());
+        assertEquals(movies.get(0).getReleaseDate(), next.releaseDate());
+        assertEquals(movies.get(0).getId(), next.id());
+        assertEquals(2, queryCaptor.getValue().getLimit());
+    }
+
+    @Test
+    void testFindRawByIdThrowsNotFoundException() {
+        String movieId = "662329256487b26751b3d406";
+        given(movieRepository.findRaw(Mockito.any(Query.class))).willReturn(List.of());
+
+        Throwable throwable = catchThrowable(() -> movieService.findRawById(movieId));
+
+        assertThat(throwable)
+                .isInstanceOf(ObjectNotFoundException.class)
+                .hasMessageContaining("Could not find movie with id " + movieId);
+    }
+
+    @Test
+    void testFindPageThrowsWhenCursorIsInvalid() {
+        Throwable throwable = catchThrowable(() -> movieService.findPage("not-a-cursor", 10, null, null));
+
+        assertThat(throwable).isInstanceOf(InvalidCursorException.class);
+    }
+
+    @Test
+    void testFindPageThrowsWhenIdCursorIsUsedForReleaseDateOrder() {
+        String idCursor = PageCursors.encode(movies.get(0).getId());
+
+        Throwable throwable = catchThrowable(() -> movieService.findPage(idCursor, 10, null, Sort.Direction.ASC));
+
+        assertThat(throwable).isInstanceOf(InvalidCursorException.class);
+    }
+
+    @Test
+    void testWithReviewsResolvesAllReferencesInOneQuery() {
+        Review review1 = Review.builder().id(new ObjectId()).body("review 1").build();
+        Review review2 = Review.builder().id(new ObjectId()).body("review 2").build();
+        Movie movie1 = movies.get(0).toBuilder().reviewsIds(List.of(review1.getId(), review2.getId())).build();
+        Movie movie2 = movies.get(1).toBuilder().reviewsIds(List.of(review2.getId())).build();
+
+        given(reviewRepository.findAllById(Mockito.anyIterable())).willReturn(List.of(review1, review2));
+
+        List<Movie> expanded = movieService.withReviews(List.of(movie1, movie2));
+
+        assertEquals(List.of(review1, review2), expanded.get(0).getReviews());
+        assertEquals(List.of(review2), expanded.get(1).getReviews());
+        assertThat(movie1.getReviews()).isNull();
+        verify(reviewRepository, Mockito.times(1)).findAllById(Mockito.anyIterable());
+    }
+
     @Test
     void testAddSuccess() {
         Movie newMovie = Movie.builder()
                 .id(new ObjectId())
                 .title("Title 1")
                 .description("Description 1")
-                .releaseDate("01-01-2020")
+                .releaseDate(LocalDate.of(2020, 1, 1))
                 .genres(List.of("Genre 1", "Genre 2"))
                 .reviewsIds(null)
                 .build();
@@ -98,6 +373,35 @@ class MovieServiceImplTest {
         verify(movieRepository).findById(new ObjectId(movieId));
     }
 
+    @Test
+    void testFindByIdBatchedThroughFindAllById() {
+        ReflectionTestUtils.setField(movieService, "batchFindById", true);
+        ReflectionTestUtils.setField(movieService, "batchWindowMs", 0L);
+        ReflectionTestUtils.setField(movieService, "batchMaxSize", 64);
+        movieService.initFindByIdLoader();
+        ObjectId missingId = new ObjectId();
+        given(movieRepository.findAllById(Mockito.<Set<ObjectId>>any())).willReturn(List.of());
+
+        Throwable throwable = catchThrowable(() -> movieService.findById(missingId.toString()));
+
+        assertThat(throwable).isInstanceOf(ObjectNotFoundException.class);
+        verify(movieRepository).findAllById(Set.of(missingId));
+        verify(movieRepository, Mockito.never()).findById(Mockito.any());
+    }
+
+    @Test
+    void testFindByIdOfIdNeverStoredSkipsQuery() {
+        String movieId = "662329256487b26751b3d406";
+        given(knownIds.isMissing(new ObjectId(movieId))).willReturn(true);
+
+        Throwable throwable = catchThrowable(() -> movieService.findById(movieId));
+
+        assertThat(throwable).isInstanceOf(ObjectNotFoundException.class);
+        // stackless, a miss costs no stack walk
+        assertThat(throwable.getStackTrace()).isEmpty();
+        verifyNoInteractions(movieRepository);
+    }
+
     @Test
     void testFindByIdThrowsNotFoundException() {
         String movieId = "662329256487b26751b3d406";
@@ -118,30 +422,27 @@ class MovieServiceImplTest {
     void testUpdateSuccess() {
         String movieId = "662329256487b26751b3d406";
 
-        Movie foundMovie = movies.get(0);
-
         MovieDto movieUpdateDto = MovieDto.builder()
                 .title("Title Updated")
                 .description("Description Updated")
                 .releaseDate("01-01-2021")
                 .build();
 
-        Movie movieUpdateMapped = MovieMapper.INSTANCE.updateMovieDto(movieUpdateDto, foundMovie);
-
         Movie movieUpdated = Movie.builder()
                 .id(new ObjectId("662329256487b26751b3d406"))
                 .title("Title Updated")
                 .description("Description Updated")
-                .releaseDate("01-01-2021")
+                .releaseDate(LocalDate.of(2021, 1, 1))
                 .genres(List.of("Genre 1", "Genre 2"))
                 .reviewsIds(null)
                 .build();
 
+        ArgumentCaptor<UpdateDefinition> updateCaptor = ArgumentCaptor.forClass(UpdateDefinition.class);
+        given(mongoTemplate.findAndModify(
+                Mockito.any(Query.class), updateCaptor.capture(), Mockito.any(FindAndModifyOptions.class), Mockito.eq(Movie.class)))
+                .willReturn(movieUpdated);
 
-        given(movieRepository.findById(new ObjectId(movieId))).willReturn(Optional.of(foundMovie));
-        given(movieRepository.save(movieUpdateMapped)).willReturn(movieUpdated);
-
-        Movie updatedMovie = movieService.update(movieId, movieUpdateDto);
+        Movie updatedMovie = movieService.update(movieId, movieUpdateDto, null);
 
         assertNotNull(updatedMovie);
         assertEquals(updatedMovie.getId().toString(), movieId);
@@ -150,43 +451,495 @@ class MovieServiceImplTest {
         assertEquals(updatedMovie.getReleaseDate(), movieUpdated.getReleaseDate());
         assertEquals(updatedMovie.getGenres(), movieUpdated.getGenres());
         assertEquals(updatedMovie.getReviewsIds(), movieUpdated.getReviewsIds());
-        verify(movieRepository).findById(new ObjectId(movieId));
-        verify(movieRepository).save(movieUpdateMapped);
+
+        // only the provided fields and the modification time are $set, no read before the write
+        Document set = (Document) updateCaptor.getValue().getUpdateObject().get("$set");
+        assertEquals(Set.of("title", "description", "releaseDate", "updatedAt"), set.keySet());
+        verify(movieRepository, Mockito.never()).findById(Mockito.any(ObjectId.class));
+        verify(movieRepository, Mockito.never()).save(Mockito.any(Movie.class));
+    }
+
+    @Test
+    void testUpdateGenresAdjustsFacets() {
+        Movie previousMovie = movies.get(0).toBuilder().version(2L).build();
+        Movie movieUpdated = previousMovie.toBuilder().genres(List.of("Drama")).version(3L).build();
+        MovieDto movieUpdateDto = MovieDto.builder().genres(List.of("Drama")).build();
+
+        given(mongoTemplate.findOne(Mockito.any(Query.class), Mockito.eq(Movie.class))).willReturn(previousMovie);
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<FindAndModifyOptions> optionsCaptor = ArgumentCaptor.forClass(FindAndModifyOptions.class);
+        given(mongoTemplate.findAndModify(
+                queryCaptor.capture(), Mockito.any(UpdateDefinition.class), optionsCaptor.capture(), Mockito.eq(Movie.class)))
+                .willReturn(movieUpdated);
+
+        Movie updatedMovie = movieService.update(previousMovie.getId().toString(), movieUpdateDto, null);
+
+        // the response is the document mongo wrote, written only at the version the previous genres were read at
+        assertThat(optionsCaptor.getValue().isReturnNew()).isTrue();
+        assertEquals(2L, queryCaptor.getValue().getQueryObject().get("version"));
+        assertEquals(movieUpdated, updatedMovie);
+        verify(genreFacetCache).changed(previousMovie.getGenres(), List.of("Drama"));
+    }
+
+    @Test
+    void testUpdateGenresRereadsThemAfterConcurrentWrite() {
+        Movie previousMovie = movies.get(0).toBuilder().version(2L).build();
+        Movie concurrentlyUpdated = previousMovie.toBuilder().genres(List.of("Comedy")).version(3L).build();
+        Movie movieUpdated = previousMovie.toBuilder().genres(List.of("Drama")).version(4L).build();
+
+        given(mongoTemplate.findOne(Mockito.any(Query.class), Mockito.eq(Movie.class)))
+                .willReturn(previousMovie, concurrentlyUpdated);
+        given(mongoTemplate.findAndModify(
+                Mockito.any(Query.class), Mockito.any(UpdateDefinition.class), Mockito.any(FindAndModifyOptions.class), Mockito.eq(Movie.class)))
+                .willReturn(null, movieUpdated);
+
+        Movie updatedMovie = movieService.update(
+                previousMovie.getId().toString(), MovieDto.builder().genres(List.of("Drama")).build(), null);
+
+        assertEquals(movieUpdated, updatedMovie);
+        verify(genreFacetCache).changed(List.of("Comedy"), List.of("Drama"));
+        verify(genreFacetCache, Mockito.never()).changed(previousMovie.getGenres(), List.of("Drama"));
+    }
+
+    @Test
+    void testUpdateGenresGivesUpAfterMaxAttempts() {
+        Movie previousMovie = movies.get(0).toBuilder().version(2L).build();
+        given(mongoTemplate.findOne(Mockito.any(Query.class), Mockito.eq(Movie.class))).willReturn(previousMovie);
+        given(mongoTemplate.findAndModify(
+                Mockito.any(Query.class), Mockito.any(UpdateDefinition.class), Mockito.any(FindAndModifyOptions.class), Mockito.eq(Movie.class)))
+                .willReturn(null);
+
+        Throwable throwable = catchThrowable(() -> movieService.update(
+                previousMovie.getId().toString(), MovieDto.builder().genres(List.of("Drama")).build(), null));
+
+        assertThat(throwable).isInstanceOf(PreconditionFailedException.class);
+        verify(mongoTemplate, times(3)).findAndModify(
+                Mockito.any(Query.class), Mockito.any(UpdateDefinition.class), Mockito.any(FindAndModifyOptions.class), Mockito.eq(Movie.class));
+        verifyNoInteractions(genreFacetCache);
+    }
+
+    @Test
+    void testUpdateWithEmptyBodyReturnsCurrentMovie() {
+        String movieId = "662329256487b26751b3d406";
+        given(movieRepository.findById(new ObjectId(movieId))).willReturn(Optional.of(movies.get(0)));
+
+        Movie movie = movieService.update(movieId, MovieDto.builder().build(), null);
+
+        assertEquals(movies.get(0), movie);
+        verifyNoInteractions(mongoTemplate);
     }
 
     @Test
     void testUpdateThrowsNotFoundException() {
         String movieId = "662329256487b26751b3d406";
-        given(movieRepository.findById(Mockito.any(ObjectId.class))).willReturn(Optional.empty());
+        given(mongoTemplate.findAndModify(
+                Mockito.any(Query.class), Mockito.any(UpdateDefinition.class), Mockito.any(FindAndModifyOptions.class), Mockito.eq(Movie.class)))
+                .willReturn(null);
 
         Throwable throwable = catchThrowable(() ->
-                movieService.update(movieId, MovieDto.builder().build())
+                movieService.update(movieId, MovieDto.builder().title("Title Updated").build(), null)
         );
 
         assertThat(throwable).isInstanceOf(ObjectNotFoundException.class);
-        verify(movieRepository).findById(Mockito.any(ObjectId.class));
     }
 
     @Test
-    void testDeleteSuccess() {
+    void testUpdateWithIfMatchPutsVersionIntoFilter() {
+        String movieId = "662329256487b26751b3d406";
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        given(mongoTemplate.findAndModify(
+                queryCaptor.capture(), Mockito.any(UpdateDefinition.class), Mockito.any(FindAndModifyOptions.class), Mockito.eq(Movie.class)))
+                .willReturn(movies.get(0).toBuilder().version(4L).build());
+
+        Movie updatedMovie = movieService.update(movieId, MovieDto.builder().title("Title Updated").build(), List.of(3L));
+
+        assertEquals(4L, updatedMovie.getVersion());
+        Document query = queryCaptor.getValue().getQueryObject();
+        assertEquals(new ObjectId(movieId), query.get("_id"));
+        assertEquals(new Document("$in", List.of(3L)), query.get("version"));
+        // no read before the write
+        verify(movieRepository, Mockito.never()).findById(Mockito.any(ObjectId.class));
+        verify(mongoTemplate, Mockito.never()).exists(Mockito.any(Query.class), Mockito.eq(Movie.class));
+    }
+
+    @Test
+    void testUpdateWithStaleIfMatchFailsPrecondition() {
+        String movieId = "662329256487b26751b3d406";
+        given(mongoTemplate.findAndModify(
+                Mockito.any(Query.class), Mockito.any(UpdateDefinition.class), Mockito.any(FindAndModifyOptions.class), Mockito.eq(Movie.class)))
+                .willReturn(null);
+        given(mongoTemplate.exists(Mockito.any(Query.class), Mockito.eq(Movie.class))).willReturn(true);
+
+        Throwable throwable = catchThrowable(() ->
+                movieService.update(movieId, MovieDto.builder().title("Title Updated").build(), List.of(3L)));
+
+        assertThat(throwable).isInstanceOf(PreconditionFailedException.class);
+        verifyNoInteractions(changeCounter);
+    }
+
+    @Test
+    void testUpdateWithIfMatchOfMissingMovieIsNotFound() {
+        String movieId = "662329256487b26751b3d406";
+        given(mongoTemplate.findAndModify(
+                Mockito.any(Query.class), Mockito.any(UpdateDefinition.class), Mockito.any(FindAndModifyOptions.class), Mockito.eq(Movie.class)))
+                .willReturn(null);
+        given(mongoTemplate.exists(Mockito.any(Query.class), Mockito.eq(Movie.class))).willReturn(false);
+
+        Throwable throwable = catchThrowable(() ->
+                movieService.update(movieId, MovieDto.builder().title("Title Updated").build(), List.of(3L)));
+
+        assertThat(throwable).isInstanceOf(ObjectNotFoundException.class);
+    }
+
+    @Test
+    void testDeleteWithStaleIfMatchFailsPrecondition() {
         Movie movie = movies.get(0);
-        given(movieRepository.findById(movie.getId())).willReturn(Optional.of(movie));
-        doNothing().when(movieRepository).delete(movie);
+        given(mongoTemplate.findAndRemove(Mockito.any(Query.class), Mockito.eq(Movie.class))).willReturn(null);
+        given(mongoTemplate.exists(Mockito.any(Query.class), Mockito.eq(Movie.class))).willReturn(true);
 
-        movieService.delete(movie.getId().toString());
-        verify(movieRepository).delete(movie);
+        Throwable throwable = catchThrowable(() -> movieService.delete(movie.getId().toString(), List.of(1L)));
 
+        assertThat(throwable).isInstanceOf(PreconditionFailedException.class);
+        verifyNoInteractions(genreFacetCache);
+    }
+
+    @Test
+    void testDeleteSuccess() {
+        Movie movie = movies.get(0);
+        given(mongoTemplate.findAndRemove(Mockito.any(Query.class), Mockito.eq(Movie.class))).willReturn(movie);
+        given(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MovieTombstone.class)).willReturn(bulkOperations);
+
+        movieService.delete(movie.getId().toString(), null);
+
+        verify(mongoTemplate).findAndRemove(Mockito.any(Query.class), Mockito.eq(Movie.class));
+        verify(movieRepository, Mockito.never()).findById(Mockito.any(ObjectId.class));
+        verify(genreFacetCache).removed(movie.getGenres());
+        verify(changeCounter).changed();
+        // the delete stays visible to delta syncs
+        ArgumentCaptor<Query> tombstoneCaptor = ArgumentCaptor.forClass(Query.class);
+        verify(bulkOperations).upsert(tombstoneCaptor.capture(), Mockito.any(Update.class));
+        verify(bulkOperations).execute();
+        assertEquals(movie.getId(), tombstoneCaptor.getValue().getQueryObject().get("_id"));
     }
 
     @Test
     void testDeleteThrowsNotFoundException() {
         Movie movie = movies.get(0);
-        given(movieRepository.findById(movie.getId())).willReturn(Optional.empty());
+        given(mongoTemplate.findAndRemove(Mockito.any(Query.class), Mockito.eq(Movie.class))).willReturn(null);
 
-        Throwable throwable = catchThrowable(() -> movieService.delete(movie.getId().toString()));
+        Throwable throwable = catchThrowable(() -> movieService.delete(movie.getId().toString(), null));
         assertThat(throwable).isInstanceOf(ObjectNotFoundException.class);
-        verify(movieRepository).findById(movie.getId());
+        verify(mongoTemplate).findAndRemove(Mockito.any(Query.class), Mockito.eq(Movie.class));
+
+    }
+
+    @Test
+    void testAddAllInsertsValidMoviesInChunks() {
+        ReflectionTestUtils.setField(movieService, "batchChunkSize", 2);
+        given(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Movie.class)).willReturn(bulkOperations);
+        given(bulkOperations.insert(Mockito.anyList())).willReturn(bulkOperations);
+
+        Iterator<MovieDto> movieDtos = List.of(
+                movieDto("Movie One"),
+                movieDto("M"), // too short a title
+                movieDto("Movie Three"),
+                movieDto("Movie Four")
+        ).iterator();
+
+        BatchReport report = movieService.addAll(movieDtos);
+
+        assertEquals(4, report.getReceived());
+        assertEquals(3, report.getInserted());
+        assertEquals(1, report.getFailed());
+        assertThat(report.getItems().get(1).isSuccess()).isFalse();
+        assertThat(report.getItems().get(1).getErrors()).containsKey("title");
+        assertThat(report.getItems().get(0).getId()).isNotNull();
+        assertThat(report.getItems().get(3).getIndex()).isEqualTo(3);
+        verify(bulkOperations, times(2)).execute();
+        // generated ids never had a tombstone
+        verify(mongoTemplate, Mockito.never()).remove(Mockito.any(Query.class), Mockito.eq(MovieTombstone.class));
+    }
+
+    @Test
+    void testAddAllReportsInvalidReviewsIdsPerItem() {
+        ReflectionTestUtils.setField(movieService, "batchChunkSize", 2);
+        given(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Movie.class)).willReturn(bulkOperations);
+        given(bulkOperations.insert(Mockito.anyList())).willReturn(bulkOperations);
+
+        MovieDto invalidReviews = movieDto("Movie Three");
+        invalidReviews.setReviewsIds(List.of(new ObjectId().toString(), "not-an-object-id"));
+
+        // the first chunk is written before the invalid reviews id is read
+        BatchReport report = movieService.addAll(List.of(
+                movieDto("Movie One"),
+                movieDto("Movie Two"),
+                invalidReviews,
+                movieDto("Movie Four")
+        ).iterator());
+
+        assertEquals(4, report.getReceived());
+        assertEquals(3, report.getInserted());
+        assertEquals(1, report.getFailed());
+        assertThat(report.getItems().get(2).isSuccess()).isFalse();
+        assertThat(report.getItems().get(2).getErrors())
+                .containsEntry("reviewsIds", "reviews id: not-an-object-id is not a valid ObjectId");
+        assertThat(report.getItems().get(3).isSuccess()).isTrue();
+        verify(bulkOperations, times(2)).execute();
+    }
+
+    @Test
+    void testAddAllReportsRejectedInsertsPerItem() {
+        BulkOperationException bulkOperationException = Mockito.mock(BulkOperationException.class);
+        given(bulkOperationException.getErrors())
+                .willReturn(List.of(new BulkWriteError(11000, "E11000 duplicate key error", new BsonDocument(), 1)));
+
+        ReflectionTestUtils.setField(movieService, "batchChunkSize", 10);
+        given(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Movie.class)).willReturn(bulkOperations);
+        given(bulkOperations.insert(Mockito.anyList())).willReturn(bulkOperations);
+        given(bulkOperations.execute()).willThrow(bulkOperationException);
+
+        BatchReport report = movieService.addAll(List.of(movieDto("Movie One"), movieDto("Movie Two")).iterator());
+
+        assertEquals(1, report.getInserted());
+        assertEquals(1, report.getFailed());
+        assertThat(report.getItems().get(0).isSuccess()).isTrue();
+        assertThat(report.getItems().get(1).getErrors()).containsEntry("movie", "E11000 duplicate key error");
+    }
+
+    @Test
+    void testUpdateManyByIdsAndGenre() {
+        ObjectId id = new ObjectId();
+        MovieBulkRequest request = MovieBulkRequest.builder()
+                .ids(List.of(id.toString()))
+                .filter(MovieFilter.builder().genre("Drama").build())
+                .update(MovieDto.builder().genres(List.of("Classic")).build())
+                .build();
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<UpdateDefinition> updateCaptor = ArgumentCaptor.forClass(UpdateDefinition.class);
+        given(mongoTemplate.updateMulti(queryCaptor.capture(), updateCaptor.capture(), Mockito.eq(Movie.class)))
+                .willReturn(UpdateResult.acknowledged(5, 4L, null));
+
+        BulkResult result = movieService.updateMany(request);
+
+        assertEquals(5L, result.getMatched());
+        assertEquals(4L, result.getModified());
+        Document query = queryCaptor.getValue().getQueryObject();
+        assertEquals(new Document("$in", List.of(id)), query.get("_id"));
+        assertEquals("Drama", query.get("genres"));
+        assertThat(((Document) updateCaptor.getValue().getUpdateObject().get("$set")).keySet())
+                .containsExactlyInAnyOrder("genres", "updatedAt");
+    }
+
+    @Test
+    void testDeleteManyByGenre() {
+        MovieBulkRequest request = MovieBulkRequest.builder()
+                .filter(MovieFilter.builder().genre("Drama").build())
+                .build();
+        ReflectionTestUtils.setField(movieService, "deleteBatchSize", 10);
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        given(mongoTemplate.find(queryCaptor.capture(), Mockito.eq(Movie.class))).willReturn(movies.subList(0, 2));
+        given(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MovieTombstone.class)).willReturn(bulkOperations);
+
+        BulkResult result = movieService.deleteMany(request);
+
+        // a short batch is the last one, no further query
+        assertEquals(2L, result.getDeleted());
+        verify(mongoTemplate, times(1)).find(Mockito.any(Query.class), Mockito.eq(Movie.class));
+        verify(genreFacetCache, times(2)).removed(List.of("Genre 1", "Genre 2"));
+        verify(genreFacetCache, Mockito.never()).reconcile();
+        verify(bulkOperations, times(2)).upsert(Mockito.any(Query.class), Mockito.any(Update.class));
+        assertEquals(new Document("genres", "Drama"), queryCaptor.getValue().getQueryObject());
+        assertEquals(new Document("_id", 1).append("genres", 1), queryCaptor.getValue().getFieldsObject());
+        assertEquals(10, queryCaptor.getValue().getLimit());
+    }
+
+    @Test
+    void testDeleteManyRemovesBatchesAfterTheLastId() {
+        MovieBulkRequest request = MovieBulkRequest.builder()
+                .filter(MovieFilter.builder().genre("Drama").build())
+                .build();
+        ReflectionTestUtils.setField(movieService, "deleteBatchSize", 1);
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        given(mongoTemplate.find(queryCaptor.capture(), Mockito.eq(Movie.class)))
+                .willReturn(movies.subList(0, 1), movies.subList(1, 2), List.of());
+        given(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MovieTombstone.class)).willReturn(bulkOperations);
+
+        BulkResult result = movieService.deleteMany(request);
+
+        assertEquals(2L, result.getDeleted());
+        verify(mongoTemplate, times(2)).remove(Mockito.any(Query.class), Mockito.eq(Movie.class));
+        List<Query> batches = queryCaptor.getAllValues();
+        assertEquals(3, batches.size());
+        assertThat(batches.get(1).getQueryObject().toJson()).contains(movies.get(0).getId().toHexString());
+        assertThat(batches.get(2).getQueryObject().toJson()).contains(movies.get(1).getId().toHexString());
+    }
+
+    @Test
+    void testFindChangesWithoutTokenStartsFullSync() {
+        Instant updatedAt = Instant.now().minus(1, ChronoUnit.HOURS).truncatedTo(ChronoUnit.MILLIS);
+        List<Movie> changed = movies.stream()
+                .map((movie) -> movie.toBuilder().updatedAt(updatedAt).build())
+                .toList();
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        given(movieRepository.findAll(queryCaptor.capture())).willReturn(changed);
+
+        MovieChanges changes = movieService.findChanges(null, 1);
+
+        assertThat(changes.getChanged()).hasSize(1);
+        assertThat(changes.getDeleted()).isEmpty();
+        assertThat(changes.isHasMore()).isTrue();
+        assertThat(changes.isReset()).isFalse();
+        assertEquals(new PageCursors.SyncToken(updatedAt, changed.get(0).getId()),
+                PageCursors.decodeSyncToken(changes.getSyncToken()));
+        assertEquals(2, queryCaptor.getValue().getLimit());
+        assertEquals(new Document("updatedAt", 1).append("_id", 1), queryCaptor.getValue().getSortObject());
+        // nothing to delete on an empty client
+        verify(mongoTemplate, Mockito.never()).find(Mockito.any(Query.class), Mockito.eq(MovieTombstone.class));
+    }
+
+    @Test
+    void testFindChangesMergesUpdatesAndDeletesInTimestampOrder() {
+        Instant since = Instant.now().minus(1, ChronoUnit.HOURS).truncatedTo(ChronoUnit.MILLIS);
+        Movie updated = movies.get(0).toBuilder().updatedAt(since.plusSeconds(20)).build();
+        MovieTombstone tombstone = new MovieTombstone(new ObjectId(), since.plusSeconds(10));
+        given(movieRepository.findAll(Mockito.any(Query.class))).willReturn(List.of(updated));
+        given(mongoTemplate.find(Mockito.any(Query.class), Mockito.eq(MovieTombstone.class))).willReturn(List.of(tombstone));
+
+        MovieChanges changes = movieService.findChanges(PageCursors.encodeSyncToken(since, new ObjectId()), 10);
+
+        assertThat(changes.getChanged()).extracting(MovieDto::getId).containsExactly(updated.getId().toString());
+        assertThat(changes.getDeleted()).containsExactly(tombstone.getId().toString());
+        assertThat(changes.isHasMore()).isFalse();
+        assertEquals(new PageCursors.SyncToken(updated.getUpdatedAt(), updated.getId()),
+                PageCursors.decodeSyncToken(changes.getSyncToken()));
+    }
+
+    @Test
+    void testFindChangesPagesAcrossUpdatesAndDeletes() {
+        Instant since = Instant.now().minus(1, ChronoUnit.HOURS).truncatedTo(ChronoUnit.MILLIS);
+        Movie updated = movies.get(0).toBuilder().updatedAt(since.plusSeconds(20)).build();
+        MovieTombstone tombstone = new MovieTombstone(new ObjectId(), since.plusSeconds(10));
+        given(movieRepository.findAll(Mockito.any(Query.class))).willReturn(List.of(updated));
+        given(mongoTemplate.find(Mockito.any(Query.class), Mockito.eq(MovieTombstone.class))).willReturn(List.of(tombstone));
+
+        MovieChanges changes = movieService.findChanges(PageCursors.encodeSyncToken(since, new ObjectId()), 1);
+
+        // the older delete comes first, the update is left for the next page
+        assertThat(changes.getChanged()).isEmpty();
+        assertThat(changes.getDeleted()).containsExactly(tombstone.getId().toString());
+        assertThat(changes.isHasMore()).isTrue();
+        assertEquals(new PageCursors.SyncToken(tombstone.getDeletedAt(), tombstone.getId()),
+                PageCursors.decodeSyncToken(changes.getSyncToken()));
+    }
+
+    @Test
+    void testFindChangesAfterDeleteAndReinsertOnlyReportsTheMovie() {
+        Instant since = Instant.now().minus(1, ChronoUnit.HOURS).truncatedTo(ChronoUnit.MILLIS);
+        Movie movie = movies.get(0);
+        Movie recreated = movie.toBuilder().updatedAt(since.plusSeconds(20)).build();
+
+        // the tombstones collection, upserted by delete and cleared by add
+        Map<ObjectId, MovieTombstone> tombstones = new HashMap<>();
+        given(mongoTemplate.findAndRemove(Mockito.any(Query.class), Mockito.eq(Movie.class))).willReturn(movie);
+        given(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MovieTombstone.class)).willReturn(bulkOperations);
+        given(bulkOperations.upsert(Mockito.any(Query.class), Mockito.any(Update.class))).willAnswer((invocation) -> {
+            ObjectId id = (ObjectId) invocation.<Query>getArgument(0).getQueryObject().get("_id");
+            tombstones.put(id, new MovieTombstone(id, since.plusSeconds(10)));
+            return bulkOperations;
+        });
+        given(mongoTemplate.remove(Mockito.any(Query.class), Mockito.eq(MovieTombstone.class))).willAnswer((invocation) -> {
+            Document ids = (Document) invocation.<Query>getArgument(0).getQueryObject().get("_id");
+            ((Collection<?>) ids.get("$in")).forEach(tombstones::remove);
+            return DeleteResult.acknowledged(1);
+        });
+        given(mongoTemplate.find(Mockito.any(Query.class), Mockito.eq(MovieTombstone.class)))
+                .willAnswer((invocation) -> List.copyOf(tombstones.values()));
+        given(movieRepository.save(recreated)).willReturn(recreated);
+        given(movieRepository.findAll(Mockito.any(Query.class))).willReturn(List.of(recreated));
+
+        movieService.delete(movie.getId().toString(), null);
+        movieService.add(recreated);
+        MovieChanges changes = movieService.findChanges(PageCursors.encodeSyncToken(since, new ObjectId()), 10);
+
+        assertThat(changes.getChanged()).extracting(MovieDto::getId).containsExactly(movie.getId().toString());
+        assertThat(changes.getDeleted()).isEmpty();
+    }
+
+    @Test
+    void testFindChangesWithTokenOlderThanTombstonesResets() {
+        Instant since = Instant.now().minus(MovieTombstone.RETENTION).minus(1, ChronoUnit.DAYS);
+
+        MovieChanges changes = movieService.findChanges(PageCursors.encodeSyncToken(since, new ObjectId()), 10);
+
+        assertThat(changes.isReset()).isTrue();
+        assertThat(changes.getSyncToken()).isNull();
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    void testFindChangesRejectsPageCursor() {
+        String cursor = PageCursors.encode(LocalDate.of(2021, 1, 1), new ObjectId());
+
+        Throwable throwable = catchThrowable(() -> movieService.findChanges(cursor, 10));
+
+        assertThat(throwable).isInstanceOf(InvalidCursorException.class);
+        verifyNoInteractions(mongoTemplate);
+    }
 
+    @Test
+    void testDeleteManyRejectsInvalidIds() {
+        MovieBulkRequest request = MovieBulkRequest.builder().ids(List.of("not-an-id")).build();
+
+        Throwable throwable = catchThrowable(() -> movieService.deleteMany(request));
+
+        assertThat(throwable).isInstanceOf(InvalidObjectIdException.class);
+        verifyNoInteractions(mongoTemplate);
     }
 
-}
\ No newline at end of file
+    @Test
+    void testSearchSummariesSortsByScoreAndProjects() {
+        ReflectionTestUtils.setField(movieService, "searchMaxResults", 1000);
+        MovieSummary summary = MovieSummary.builder().id(new ObjectId().toString()).title("Star Wars").build();
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        given(mongoTemplate.query(Movie.class)).willReturn(executableFind);
+        given(executableFind.as(MovieSummary.class)).willReturn(findSummaries);
+        given(findSummaries.matching(queryCaptor.capture())).willReturn(terminatingFind);
+        given(terminatingFind.all()).willReturn(List.of(summary));
+
+        List<MovieSummary> found = movieService.searchSummaries("star wars", 2, 10);
+
+        assertEquals(List.of(summary), found);
+        Query query = queryCaptor.getValue();
+        assertEquals(new Document("$search", "star wars"), query.getQueryObject().get("$text"));
+        assertEquals(20L, query.getSkip());
+        assertEquals(10, query.getLimit());
+        assertThat(query.getSortObject().keySet()).containsExactly("score");
+        assertThat(query.getFieldsObject().keySet()).contains("title", "releaseDate", "genres", "score");
+    }
+
+    @Test
+    void testSearchBeyondMaxResultsReturnsEmpty() {
+        ReflectionTestUtils.setField(movieService, "searchMaxResults", 1000);
+
+        assertThat(movieService.search("star wars", 100, 10)).isEmpty();
+        assertThat(movieService.search(" ", 0, 10)).isEmpty();
+        // 429496730 * 10 wraps around to 4 in int arithmetic
+        assertThat(movieService.search("star wars", 429_496_730, 10)).isEmpty();
+        assertThat(movieService.searchSummaries("star wars", Integer.MAX_VALUE, 100)).isEmpty();
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    private ArgumentCaptor<Query> givenMoviesQuery(List<Movie> results) {
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        given(movieRepository.findAll(queryCaptor.capture())).willReturn(results);
+        return queryCaptor;
+    }
+
+    private static MovieDto movieDto(String title) {
+        return MovieDto.builder()
+                .title(title)
+                .description("description")
+                .releaseDate("01-01-2024")
+                .build();
+    }
+}
@@ -0,0 +1,283 @@
+package com.yvolabs.streamapi.service;
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.result.DeleteResult;
+import com.yvolabs.streamapi.dto.BulkResult;
+import com.yvolabs.streamapi.dto.MovieBulkRequest;
+import com.yvolabs.streamapi.dto.MovieDto;
+import com.yvolabs.streamapi.dto.MovieFilter;
+import com.yvolabs.streamapi.exception.InvalidCursorException;
+import com.yvolabs.streamapi.exception.InvalidObjectIdException;
+import com.yvolabs.streamapi.exception.ObjectNotFoundException;
+import com.yvolabs.streamapi.exception.PreconditionFailedException;
+import com.yvolabs.streamapi.model.Movie;
+import com.yvolabs.streamapi.model.MovieTombstone;
+import com.yvolabs.streamapi.model.Review;
+import com.yvolabs.streamapi.repository.ReactiveMovieRepository;
+import com.yvolabs.streamapi.util.PageCursors;
+import com.yvolabs.streamapi.utils.MovieTestData;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveFindOperation;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/**
+ * @author Yvonne N
+ */
+@ExtendWith(MockitoExtension.class)
+class ReactiveMovieServiceImplTest {
+    @Mock
+    private ReactiveMovieRepository movieRepository;
+
+    @Mock
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @Mock
+    private GenreFacetCache genreFacetCache;
+
+    @Mock
+    private ReactiveBulkOperations bulkOperations;
+
+    @Mock
+    private ReactiveFindOperation.ReactiveFind<Movie> reactiveFind;
+
+    @Mock
+    private ReactiveFindOperation.FindWithQuery<Movie> findMovies;
+
+    @Mock
+    private ReactiveFindOperation.TerminatingFind<Movie> terminatingMovies;
+
+    @InjectMocks
+    private ReactiveMovieServiceImpl movieService;
+
+    private List<Movie> movies;
+
+    @BeforeEach
+    void setUp() {
+        movies = MovieTestData.setMoviesTestData();
+        ReflectionTestUtils.setField(movieService, "updateMaxAttempts", 3);
+    }
+
+    @Test
+    void testFindPageReturnsNextCursorWhenMoreResultsExist() {
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        given(mongoTemplate.query(Movie.class)).willReturn(reactiveFind);
+        given(reactiveFind.as(Movie.class)).willReturn(findMovies);
+        given(findMovies.matching(queryCaptor.capture())).willReturn(terminatingMovies);
+        given(terminatingMovies.all()).willReturn(Flux.fromIterable(movies));
+
+        StepVerifier.create(movieService.findPage(null, 1, null, null))
+                .assertNext((page) -> {
+                    assertEquals(1, page.getContent().size());
+                    assertEquals(movies.get(0).getId(), PageCursors.decode(page.getNextCursor()));
+                })
+                .verifyComplete();
+
+        // same keyset query as the blocking service
+        Query query = queryCaptor.getValue();
+        assertEquals(2, query.getLimit());
+        assertEquals(new Document("id", 1), query.getSortObject());
+    }
+
+    @Test
+    void testFindPageSignalsInvalidCursor() {
+        StepVerifier.create(movieService.findPage("not-a-cursor", 10, null, null))
+                .expectError(InvalidCursorException.class)
+                .verify();
+    }
+
+    @Test
+    void testStreamAllEmitsOnDemand() {
+        given(movieRepository.findAll()).willReturn(Flux.fromIterable(movies));
+
+        StepVerifier.create(movieService.streamAll(), 1)
+                .expectNext(movies.get(0))
+                .thenRequest(1)
+                .expectNext(movies.get(1))
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    void testFindByIdSignalsNotFound() {
+        String movieId = "662329256487b26751b3d406";
+        given(movieRepository.findById(new ObjectId(movieId))).willReturn(Mono.empty());
+
+        StepVerifier.create(movieService.findById(movieId))
+                .expectError(ObjectNotFoundException.class)
+                .verify();
+    }
+
+    @Test
+    void testFindByIdSignalsInvalidId() {
+        StepVerifier.create(movieService.findById("not-an-id"))
+                .expectError(InvalidObjectIdException.class)
+                .verify();
+        verifyNoInteractions(movieRepository);
+    }
+
+    @Test
+    void testWithReviewsResolvesAllReferencesInOneQuery() {
+        Review review1 = Review.builder().id(new ObjectId()).body("review 1").build();
+        Review review2 = Review.builder().id(new ObjectId()).body("review 2").build();
+        Movie movie1 = movies.get(0).toBuilder().reviewsIds(List.of(review1.getId(), review2.getId())).build();
+        Movie movie2 = movies.get(1).toBuilder().reviewsIds(List.of(review2.getId())).build();
+        given(mongoTemplate.find(Mockito.any(Query.class), Mockito.eq(Review.class)))
+                .willReturn(Flux.just(review1, review2));
+
+        StepVerifier.create(movieService.withReviews(List.of(movie1, movie2)))
+                .assertNext((expanded) -> {
+                    assertEquals(List.of(review1, review2), expanded.get(0).getReviews());
+                    assertEquals(List.of(review2), expanded.get(1).getReviews());
+                })
+                .verifyComplete();
+        verify(mongoTemplate, Mockito.times(1)).find(Mockito.any(Query.class), Mockito.eq(Review.class));
+    }
+
+    @Test
+    void testUpdateGenresAdjustsFacets() {
+        Movie previousMovie = movies.get(0).toBuilder().version(2L).build();
+        Movie movieUpdated = previousMovie.toBuilder().genres(List.of("Drama")).version(3L).build();
+        MovieDto movieUpdateDto = MovieDto.builder().genres(List.of("Drama")).build();
+        given(mongoTemplate.findOne(Mockito.any(Query.class), Mockito.eq(Movie.class))).willReturn(Mono.just(previousMovie));
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<FindAndModifyOptions> optionsCaptor = ArgumentCaptor.forClass(FindAndModifyOptions.class);
+        given(mongoTemplate.findAndModify(
+                queryCaptor.capture(), Mockito.any(UpdateDefinition.class), optionsCaptor.capture(), Mockito.eq(Movie.class)))
+                .willReturn(Mono.just(movieUpdated));
+
+        StepVerifier.create(movieService.update(previousMovie.getId().toString(), movieUpdateDto, null))
+                .expectNext(movieUpdated)
+                .verifyComplete();
+
+        assertThat(optionsCaptor.getValue().isReturnNew()).isTrue();
+        assertEquals(2L, queryCaptor.getValue().getQueryObject().get("version"));
+        verify(genreFacetCache).changed(previousMovie.getGenres(), List.of("Drama"));
+    }
+
+    @Test
+    void testUpdateGenresGivesUpAfterMaxAttempts() {
+        Movie previousMovie = movies.get(0).toBuilder().version(2L).build();
+        given(mongoTemplate.findOne(Mockito.any(Query.class), Mockito.eq(Movie.class))).willReturn(Mono.just(previousMovie));
+        given(mongoTemplate.findAndModify(
+                Mockito.any(Query.class), Mockito.any(UpdateDefinition.class), Mockito.any(FindAndModifyOptions.class), Mockito.eq(Movie.class)))
+                .willReturn(Mono.empty());
+
+        StepVerifier.create(movieService.update(
+                        previousMovie.getId().toString(), MovieDto.builder().genres(List.of("Drama")).build(), null))
+                .expectError(PreconditionFailedException.class)
+                .verify();
+        verify(mongoTemplate, Mockito.times(3)).findAndModify(
+                Mockito.any(Query.class), Mockito.any(UpdateDefinition.class), Mockito.any(FindAndModifyOptions.class), Mockito.eq(Movie.class));
+        verifyNoInteractions(genreFacetCache);
+    }
+
+    @Test
+    void testDeleteSignalsNotFound() {
+        given(mongoTemplate.findAndRemove(Mockito.any(Query.class), Mockito.eq(Movie.class))).willReturn(Mono.empty());
+
+        StepVerifier.create(movieService.delete(movies.get(0).getId().toString(), null))
+                .expectError(ObjectNotFoundException.class)
+                .verify();
+        verifyNoInteractions(genreFacetCache);
+    }
+
+    @Test
+    void testUpdateWithStaleIfMatchFailsPrecondition() {
+        MovieDto movieUpdateDto = MovieDto.builder().title("Renamed").build();
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        given(mongoTemplate.findAndModify(
+                queryCaptor.capture(), Mockito.any(UpdateDefinition.class), Mockito.any(FindAndModifyOptions.class), Mockito.eq(Movie.class)))
+                .willReturn(Mono.empty());
+        given(mongoTemplate.exists(Mockito.any(Query.class), Mockito.eq(Movie.class))).willReturn(Mono.just(true));
+
+        StepVerifier.create(movieService.update(movies.get(0).getId().toString(), movieUpdateDto, List.of(1L)))
+                .expectError(PreconditionFailedException.class)
+                .verify();
+        assertThat(queryCaptor.getValue().getQueryObject()).containsKey("version");
+    }
+
+    @Test
+    void testDeleteWithStaleIfMatchKeepsTheMovie() {
+        given(mongoTemplate.findAndRemove(Mockito.any(Query.class), Mockito.eq(Movie.class))).willReturn(Mono.empty());
+        given(mongoTemplate.exists(Mockito.any(Query.class), Mockito.eq(Movie.class))).willReturn(Mono.just(true));
+
+        StepVerifier.create(movieService.delete(movies.get(0).getId().toString(), List.of(1L)))
+                .expectError(PreconditionFailedException.class)
+                .verify();
+        verifyNoInteractions(genreFacetCache);
+    }
+
+    @Test
+    void testDeleteManyByGenreAdjustsFacetsAndWritesTombstones() {
+        MovieBulkRequest request = MovieBulkRequest.builder()
+                .filter(MovieFilter.builder().genre("Drama").build())
+                .build();
+        ReflectionTestUtils.setField(movieService, "deleteBatchSize", 10);
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        given(mongoTemplate.find(queryCaptor.capture(), Mockito.eq(Movie.class)))
+                .willReturn(Flux.fromIterable(movies.subList(0, 2)));
+        given(mongoTemplate.remove(Mockito.any(Query.class), Mockito.eq(Movie.class)))
+                .willReturn(Mono.just(DeleteResult.acknowledged(2)));
+        given(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MovieTombstone.class)).willReturn(bulkOperations);
+        given(bulkOperations.execute()).willReturn(Mono.just(BulkWriteResult.unacknowledged()));
+
+        StepVerifier.create(movieService.deleteMany(request))
+                .expectNext(BulkResult.builder().deleted(2L).build())
+                .verifyComplete();
+
+        verify(genreFacetCache, Mockito.times(2)).removed(List.of("Genre 1", "Genre 2"));
+        verify(bulkOperations, Mockito.times(2)).upsert(Mockito.any(Query.class), Mockito.any(UpdateDefinition.class));
+        assertEquals(new Document("genres", "Drama"), queryCaptor.getValue().getQueryObject());
+        assertEquals(10, queryCaptor.getValue().getLimit());
+    }
+
+    @Test
+    void testDeleteManyRemovesBatchesAfterTheLastId() {
+        MovieBulkRequest request = MovieBulkRequest.builder()
+                .filter(MovieFilter.builder().genre("Drama").build())
+                .build();
+        ReflectionTestUtils.setField(movieService, "deleteBatchSize", 1);
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        given(mongoTemplate.find(queryCaptor.capture(), Mockito.eq(Movie.class)))
+                .willReturn(Flux.just(movies.get(0)), Flux.just(movies.get(1)), Flux.empty());
+        given(mongoTemplate.remove(Mockito.any(Query.class), Mockito.eq(Movie.class)))
+                .willReturn(Mono.just(DeleteResult.acknowledged(1)));
+        given(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MovieTombstone.class)).willReturn(bulkOperations);
+        given(bulkOperations.execute()).willReturn(Mono.just(BulkWriteResult.unacknowledged()));
+
+        StepVerifier.create(movieService.deleteMany(request))
+                .expectNext(BulkResult.builder().deleted(2L).build())
+                .verifyComplete();
+
+        List<Query> batches = queryCaptor.getAllValues();
+        assertEquals(3, batches.size());
+        assertThat(batches.get(1).getQueryObject().toJson()).contains(movies.get(0).getId().toHexString());
+        assertThat(batches.get(2).getQueryObject().toJson()).contains(movies.get(1).getId().toHexString());
+    }
+}
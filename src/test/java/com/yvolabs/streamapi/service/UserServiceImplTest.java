@@ -3,22 +3,33 @@ package com.yvolabs.streamapi.service;
 import com.yvolabs.streamapi.dto.UserDto;
 import com.yvolabs.streamapi.exception.InvalidObjectIdException;
 import com.yvolabs.streamapi.exception.ObjectNotFoundException;
+import com.yvolabs.streamapi.exception.PreconditionFailedException;
 import com.yvolabs.streamapi.exception.UserAlreadyExistsException;
 import com.yvolabs.streamapi.model.StreamUser;
 import com.yvolabs.streamapi.repository.UserRepository;
 import com.yvolabs.streamapi.utils.UserTestData;
+import com.mongodb.client.result.DeleteResult;
 import org.assertj.core.api.Assertions;
+import org.bson.Document;
 import org.bson.types.ObjectId;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.catchThrowable;
@@ -36,6 +47,9 @@ class UserServiceImplTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private MongoTemplate mongoTemplate;
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -68,7 +82,7 @@ class UserServiceImplTest {
                 .roles("admin user")
                 .build();
 
-        given(userRepository.save(newUser)).willReturn(newUser);
+        given(userRepository.insert(newUser)).willReturn(newUser);
         given(passwordEncoder.encode(newUser.getPassword())).willReturn("encoded-password");
         StreamUser savedUser = userService.save(newUser);
 
@@ -80,7 +94,8 @@ class UserServiceImplTest {
         Assertions.assertThat(savedUser.getPassword()).isEqualTo(newUser.getPassword());
         Assertions.assertThat(savedUser.isEnabled()).isEqualTo(newUser.isEnabled());
         Assertions.assertThat(savedUser.getRoles()).isEqualTo(newUser.getRoles());
-        verify(userRepository).save(newUser);
+        verify(userRepository).insert(newUser);
+        verify(userRepository, never()).findByEmail(any());
 
     }
 
@@ -96,7 +111,7 @@ class UserServiceImplTest {
                 .enabled(true)
                 .roles("admin user")
                 .build();
-        given(userRepository.findByEmail(email)).willReturn(Optional.of(userList.get(0)));
+        given(userRepository.insert(newUser)).willThrow(new DuplicateKeyException("E11000 duplicate key error"));
         given(passwordEncoder.encode(newUser.getPassword())).willReturn("encoded-password");
 
         Throwable throwable = catchThrowable(() -> userService.save(newUser));
@@ -104,7 +119,7 @@ class UserServiceImplTest {
         assertThat(throwable)
                 .isInstanceOf(UserAlreadyExistsException.class)
                 .hasMessageContaining("User with email " + email + " already exists");
-        verify(userRepository).findByEmail(email);
+        verify(userRepository).insert(newUser);
     }
 
 
@@ -140,10 +155,23 @@ class UserServiceImplTest {
         verify(userRepository).findById(new ObjectId(userId));
     }
 
+    @Test
+    void testFindByIdBatchedThroughFindAllById() {
+        ReflectionTestUtils.setField(userService, "batchFindById", true);
+        ReflectionTestUtils.setField(userService, "batchMaxSize", 1);
+        userService.initFindByIdLoader();
+        StreamUser foundUser = userList.get(0);
+        given(userRepository.findAllById(Set.of(foundUser.getId()))).willReturn(List.of(foundUser));
+
+        StreamUser user = userService.findById(foundUser.getId().toString());
+
+        assertThat(user).isEqualTo(foundUser);
+        verify(userRepository, never()).findById(any());
+    }
+
     @Test
     void testUpdateSuccess() {
         String userId = "66367b04d98bbb6418dbda61";
-        StreamUser foundUser = userList.get(0);
         UserDto userDto = UserDto.builder()
                 .firstName("john_updated")
                 .lastName("doe_updated")
@@ -160,9 +188,11 @@ class UserServiceImplTest {
                 .roles("admin")
                 .build();
 
-        given(userRepository.findById(new ObjectId(userId))).willReturn(Optional.of(foundUser));
-        given(userRepository.save(foundUser)).willReturn(updatedUser);
-        StreamUser user = userService.update(userId, userDto);
+        ArgumentCaptor<UpdateDefinition> updateCaptor = ArgumentCaptor.forClass(UpdateDefinition.class);
+        given(mongoTemplate.findAndModify(
+                any(Query.class), updateCaptor.capture(), any(FindAndModifyOptions.class), eq(StreamUser.class)))
+                .willReturn(updatedUser);
+        StreamUser user = userService.update(userId, userDto, null);
 
         Assertions.assertThat(user).isNotNull();
         assertThat(user.getId()).isEqualTo(updatedUser.getId());
@@ -172,49 +202,79 @@ class UserServiceImplTest {
         assertThat(user.getPassword()).isEqualTo(updatedUser.getPassword());
         assertThat(user.isEnabled()).isEqualTo(updatedUser.isEnabled());
         assertThat(user.getRoles()).isEqualTo(updatedUser.getRoles());
-        verify(userRepository).findById(new ObjectId(userId));
-        verify(userRepository).save(foundUser);
+
+        Document set = (Document) updateCaptor.getValue().getUpdateObject().get("$set");
+        assertThat(set.keySet()).containsExactlyInAnyOrder("firstName", "lastName", "roles", "enabled");
+        verify(userRepository, times(0)).findById(any());
+        verify(userRepository, times(0)).save(any());
 
     }
 
     @Test
     void testUpdateThrowsWhenUserNotFound() {
         String userId = "66367b04d98bbb6418dbda61";
-        doThrow(new ObjectNotFoundException("user", userId)).when(userRepository).findById(new ObjectId(userId));
+        given(mongoTemplate.findAndModify(
+                any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class), eq(StreamUser.class)))
+                .willReturn(null);
 
-        Throwable throwable = catchThrowable(() -> userService.update(userId, UserDto.builder().build()));
+        Throwable throwable = catchThrowable(() -> userService.update(userId, UserDto.builder().build(), null));
         assertThat(throwable)
                 .isInstanceOf(ObjectNotFoundException.class)
                 .hasMessageContaining("Could not find user with id " + userId);
-        verify(userRepository).findById(new ObjectId(userId));
-        verify(userRepository, times(0)).save(any());
+    }
+
+    @Test
+    void testUpdateThrowsWhenEmailAlreadyExists() {
+        String userId = "66367b04d98bbb6418dbda61";
+        given(mongoTemplate.findAndModify(
+                any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class), eq(StreamUser.class)))
+                .willThrow(new DuplicateKeyException("E11000 duplicate key error"));
+
+        Throwable throwable = catchThrowable(() -> userService.update(userId, UserDto.builder().email("jane@doe.com").build(), null));
+        assertThat(throwable)
+                .isInstanceOf(UserAlreadyExistsException.class)
+                .hasMessageContaining("User with email jane@doe.com already exists");
+    }
+
+    @Test
+    void testUpdateWithStaleIfMatchFailsPrecondition() {
+        String userId = "66367b04d98bbb6418dbda61";
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        given(mongoTemplate.findAndModify(
+                queryCaptor.capture(), any(UpdateDefinition.class), any(FindAndModifyOptions.class), eq(StreamUser.class)))
+                .willReturn(null);
+        given(mongoTemplate.exists(any(Query.class), eq(StreamUser.class))).willReturn(true);
+
+        Throwable throwable = catchThrowable(() -> userService.update(userId, UserDto.builder().build(), List.of(2L)));
+
+        assertThat(throwable).isInstanceOf(PreconditionFailedException.class);
+        assertThat(queryCaptor.getValue().getQueryObject().get("version")).isEqualTo(new Document("$in", List.of(2L)));
     }
 
     @Test
     void testDeleteSuccess() {
         String userId = "66367b04d98bbb6418dbda61";
-        given(userRepository.findById(new ObjectId(userId))).willReturn(Optional.of(userList.get(0)));
-        doNothing().when(userRepository).deleteById(new ObjectId(userId));
-        userService.delete(userId);
-        verify(userRepository).deleteById(new ObjectId(userId));
+        given(mongoTemplate.remove(any(Query.class), eq(StreamUser.class))).willReturn(DeleteResult.acknowledged(1));
+        userService.delete(userId, null);
+        verify(mongoTemplate).remove(any(Query.class), eq(StreamUser.class));
+        verify(userRepository, times(0)).findById(any());
     }
 
     @Test
     void testDeleteThrowsWhenUserNotFound() {
         String userId = "66367b04d98bbb6418dbda61";
-        doThrow(new ObjectNotFoundException("user", userId)).when(userRepository).findById(new ObjectId(userId));
-        Throwable throwable = catchThrowable(() -> userService.delete(userId));
+        given(mongoTemplate.remove(any(Query.class), eq(StreamUser.class))).willReturn(DeleteResult.acknowledged(0));
+        Throwable throwable = catchThrowable(() -> userService.delete(userId, null));
         assertThat(throwable)
                 .isInstanceOf(ObjectNotFoundException.class)
                 .hasMessageContaining("Could not find user with id " + userId);
-        verify(userRepository).findById(new ObjectId(userId));
-        verify(userRepository, times(0)).deleteById(new ObjectId(userId));
+        verify(mongoTemplate).remove(any(Query.class), eq(StreamUser.class));
     }
 
     @Test
     void testDeleteThrowsWhenUserIdIsInvalid() {
         String userId = "invalidId";
-      Throwable throwable = catchThrowable(() -> userService.delete(userId));
+      Throwable throwable = catchThrowable(() -> userService.delete(userId, null));
       assertThat(throwable)
       .isInstanceOf(InvalidObjectIdException.class);
 
@@ -0,0 +1,55 @@
+package com.yvolabs.streamapi.util;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Yvonne N
+ */
+class ObjectIdBloomFilterTest {
+
+    @Test
+    void testAddedIdsAreNeverMissed() {
+        ObjectIdBloomFilter filter = new ObjectIdBloomFilter(10_000, 0.01);
+        List<ObjectId> ids = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            ObjectId id = new ObjectId();
+            ids.add(id);
+            filter.add(id);
+        }
+
+        assertThat(ids).allMatch(filter::mightContain);
+    }
+
+    @Test
+    void testFalsePositiveRateStaysNearConfiguredRate() {
+        ObjectIdBloomFilter filter = new ObjectIdBloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add(new ObjectId());
+        }
+
+        // ids of the same second and process only differ in their counter
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain(new ObjectId())) {
+                falsePositives++;
+            }
+        }
+
+        assertThat(falsePositives).isLessThan(2_000);
+    }
+
+    @Test
+    void testSizedForExpectedIds() {
+        ObjectIdBloomFilter filter = new ObjectIdBloomFilter(1_000_000, 0.01);
+
+        // about 9.6 bits and 7 hashes per id at 1%
+        assertThat(filter.bitCount()).isBetween(9_500_000L, 9_700_000L);
+        assertThat(filter.hashCount()).isEqualTo(7);
+    }
+}
@@ -3,6 +3,7 @@ package com.yvolabs.streamapi.utils;
 import com.yvolabs.streamapi.model.Movie;
 import org.bson.types.ObjectId;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -18,7 +19,7 @@ public class MovieTestData {
                 .id(new ObjectId("662329256487b26751b3d406"))
                 .title("Title 1")
                 .description("Description 1")
-                .releaseDate("01-01-2020")
+                .releaseDate(LocalDate.of(2020, 1, 1))
                 .genres(List.of("Genre 1", "Genre 2"))
                 .reviewsIds(null)
                 .build();
@@ -26,7 +27,7 @@ public class MovieTestData {
                 .id(new ObjectId("662329256487b26751b3d507"))
                 .title("Title 2")
                 .description("Description 2")
-                .releaseDate("01-01-2020")
+                .releaseDate(LocalDate.of(2020, 1, 1))
                 .genres(List.of("Genre 1", "Genre 2"))
                 .reviewsIds(null)
                 .build();
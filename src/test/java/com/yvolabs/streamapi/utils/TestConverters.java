@@ -0,0 +1,39 @@
+package com.yvolabs.streamapi.utils;
+
+import com.mongodb.MongoClientSettings;
+import com.yvolabs.streamapi.config.MongoConfiguration;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+/**
+ * The mapping converter as configured by MongoConfiguration, without a running application context
+ *
+ * @author Yvonne N
+ */
+public class TestConverters {
+    public static final DocumentCodec DOCUMENT_CODEC = new DocumentCodec(MongoClientSettings.getDefaultCodecRegistry());
+
+    public static MappingMongoConverter mappingConverter() {
+        MongoCustomConversions conversions = new MongoConfiguration().mongoCustomConversions();
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        return converter;
+    }
+
+    // the bytes the driver would receive for an entity written through the converter
+    public static RawBsonDocument write(MappingMongoConverter converter, Object entity) {
+        Document document = new Document();
+        converter.write(entity, document);
+        return new RawBsonDocument(document, DOCUMENT_CODEC);
+    }
+}